@@ -0,0 +1,53 @@
+package com.timecapsule.benchmark;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.ReflectUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.common.utils.JwtUtils;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试公共组件
+ * 按 application.yml 的配置构建被测对象，不依赖数据库和Redis。
+ */
+final class BenchmarkSupport {
+
+    /**
+     * 每次运行随机生成的64字节密钥（与 HS512 推荐长度一致），不使用任何真实环境的密钥
+     */
+    static final String JWT_SECRET = RandomUtil.randomString(64);
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 按 application.yml 的默认有效期构建 JwtUtils，密钥使用 {@link #JWT_SECRET}
+     */
+    static JwtUtils newJwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectUtil.setFieldValue(jwtUtils, "secret", JWT_SECRET);
+        ReflectUtil.setFieldValue(jwtUtils, "expireTime", 7200L);
+        ReflectUtil.setFieldValue(jwtUtils, "refreshExpireTime", 604800L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    /**
+     * 获取应用配置（spring.jackson.*）下的 ObjectMapper
+     * 只启动 Jackson 自动配置，保证序列化行为与线上一致
+     */
+    static ObjectMapper newObjectMapper() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--logging.file.name=", "--logging.level.com.timecapsule=warn");
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        context.close();
+        return objectMapper;
+    }
+}
@@ -0,0 +1,44 @@
+package com.timecapsule.benchmark;
+
+import com.timecapsule.common.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT签发与解析（登录、刷新、认证过滤器路径）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = BenchmarkSupport.newJwtUtils();
+        token = jwtUtils.generateToken("U1234567890", "benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("U1234567890", "benchmark-user");
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtUtils.generateRefreshToken("U1234567890");
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtils.parseToken(token);
+    }
+}
@@ -0,0 +1,67 @@
+package com.timecapsule.benchmark;
+
+import com.timecapsule.common.security.VerifiedToken;
+import com.timecapsule.common.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT认证过滤器单次请求的Token处理开销对比
+ * legacyFilterPath 模拟旧实现：validateToken + getUsername，每次重新构建密钥和解析器，共解析两次；
+ * verifiedTokenPath 为新实现：复用启动时构建的解析器，只解析一次。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtParseBenchmark {
+
+    private JwtUtils jwtUtils;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = BenchmarkSupport.newJwtUtils();
+        token = jwtUtils.generateToken("U1234567890", "benchmark-user");
+    }
+
+    @Benchmark
+    public String legacyFilterPath() {
+        Claims claims = legacyParse(token);
+        if (claims.getExpiration().before(new Date())) {
+            return null;
+        }
+        return legacyParse(token).get("username", String.class);
+    }
+
+    @Benchmark
+    public String verifiedTokenPath() {
+        VerifiedToken verifiedToken = jwtUtils.verifyToken(token);
+        return verifiedToken != null ? verifiedToken.getUsername() : null;
+    }
+
+    /**
+     * 旧版 parseToken：每次校验密钥长度、构建密钥和解析器
+     */
+    @SuppressWarnings("deprecation")
+    private static Claims legacyParse(String token) {
+        byte[] keyBytes = BenchmarkSupport.JWT_SECRET.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("JWT密钥太短");
+        }
+        return Jwts.parser()
+                .setSigningKey(Keys.hmacShaKeyFor(keyBytes))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
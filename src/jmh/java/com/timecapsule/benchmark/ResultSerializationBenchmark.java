@@ -0,0 +1,81 @@
+package com.timecapsule.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.common.result.PageResult;
+import com.timecapsule.common.result.Result;
+import com.timecapsule.common.utils.TraceIdUtils;
+import com.timecapsule.modules.user.vo.UserVO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统一响应 Result / PageResult 的JSON序列化
+ * 使用应用配置的 ObjectMapper，与 Spring MVC 输出一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    @Param({"20"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private UserVO user;
+
+    private List<UserVO> users;
+
+    @Setup
+    public void setup() {
+        objectMapper = BenchmarkSupport.newObjectMapper();
+        TraceIdUtils.setTraceId(TraceIdUtils.generateTraceId());
+
+        user = newUser(1);
+        users = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            users.add(newUser(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        TraceIdUtils.clear();
+    }
+
+    @Benchmark
+    public byte[] serializeResult() throws Exception {
+        return objectMapper.writeValueAsBytes(Result.success(user));
+    }
+
+    @Benchmark
+    public byte[] serializePageResult() throws Exception {
+        return objectMapper.writeValueAsBytes(PageResult.success(users, 10000L, 1, pageSize));
+    }
+
+    private static UserVO newUser(int index) {
+        UserVO vo = new UserVO();
+        vo.setId((long) index);
+        vo.setUserId("U18000000000000" + index);
+        vo.setUsername("user" + index);
+        vo.setNickname("时光旅人" + index);
+        vo.setAvatar("/upload/avatar/2024/01/01/avatar_" + index + ".png");
+        vo.setEmail("user" + index + "@timecapsule.com");
+        vo.setEmailVerified(true);
+        vo.setGender(1);
+        vo.setBio("写给未来的自己");
+        vo.setLevel(3);
+        vo.setExp(1200);
+        vo.setReputation(100);
+        vo.setCreateTime(LocalDateTime.now());
+        vo.setLastLoginTime(LocalDateTime.now());
+        return vo;
+    }
+}
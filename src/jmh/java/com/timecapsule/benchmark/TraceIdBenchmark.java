@@ -0,0 +1,49 @@
+package com.timecapsule.benchmark;
+
+import com.timecapsule.common.utils.TraceIdUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 链路追踪ID生成（每个请求一次）
+ * uuid* 为改用线程本地随机数之前的实现，作为对照。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceIdBenchmark {
+
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+    @Benchmark
+    public String generateTraceId() {
+        return TraceIdUtils.generateTraceId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateTraceIdContended() {
+        return TraceIdUtils.generateTraceId();
+    }
+
+    @Benchmark
+    public String uuid() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String uuidContended() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Benchmark
+    public String fromTraceparent() {
+        return TraceIdUtils.fromTraceparent(TRACEPARENT);
+    }
+}
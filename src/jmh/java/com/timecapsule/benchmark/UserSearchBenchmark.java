@@ -0,0 +1,145 @@
+package com.timecapsule.benchmark;
+
+import com.timecapsule.modules.user.mapper.UserMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台用户关键词搜索：LIKE '%keyword%' 与 ngram 全文索引对比
+ * 需要本地 MySQL 8，连接信息通过 -Dbench.jdbc.url / -Dbench.jdbc.username / -Dbench.jdbc.password 指定，
+ * url 与 username 默认与 application-dev.yml 一致；密码没有默认值，未指定时直接失败。
+ * 基准运行在 fork 出的 JVM 中，属性需经 -jvmArgsAppend 传入，如 -Djmh.args="-jvmArgsAppend -Dbench.jdbc.password=..."。
+ * 首次运行会在独立的 tc_user_search_bench 表中写入 rows 条数据，耗时数分钟。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final String TABLE = "tc_user_search_bench";
+
+    private static final String[] WORDS = {"时光", "信笺", "星河", "远方", "晚风", "小鹿", "深海", "月光", "blue", "sunny", "coder", "panda"};
+
+    private static final String LIKE_SQL = "SELECT id, username, nickname, email FROM " + TABLE
+            + " WHERE deleted = 0 AND (username LIKE ? OR nickname LIKE ? OR email LIKE ?)"
+            + " ORDER BY create_time DESC LIMIT 20";
+
+    private static final String FULLTEXT_SQL = "SELECT id, username, nickname, email FROM " + TABLE
+            + " WHERE deleted = 0 AND " + UserMapper.KEYWORD_MATCH.replace("{0}", "?")
+            + " ORDER BY create_time DESC LIMIT 20";
+
+    @Param({"1000000"})
+    private int rows;
+
+    /**
+     * 选择性高（单个用户）与选择性低（大量用户）的关键词
+     */
+    @Param({"user0123456", "星河"})
+    private String keyword;
+
+    private Connection connection;
+
+    private PreparedStatement likeStatement;
+
+    private PreparedStatement fulltextStatement;
+
+    @Setup
+    public void setup() throws SQLException {
+        String password = System.getProperty("bench.jdbc.password");
+        if (password == null) {
+            throw new IllegalStateException("未指定数据库密码，请通过 -jvmArgsAppend -Dbench.jdbc.password=... 传入");
+        }
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/timecapsule?useUnicode=true"
+                        + "&characterEncoding=utf8&useSSL=false&serverTimezone=GMT%2B8"
+                        + "&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true"),
+                System.getProperty("bench.jdbc.username", "root"),
+                password);
+        prepareTable();
+
+        likeStatement = connection.prepareStatement(LIKE_SQL);
+        String pattern = "%" + keyword + "%";
+        likeStatement.setString(1, pattern);
+        likeStatement.setString(2, pattern);
+        likeStatement.setString(3, pattern);
+
+        fulltextStatement = connection.prepareStatement(FULLTEXT_SQL);
+        fulltextStatement.setString(1, UserMapper.toFulltextPhrase(keyword));
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int like() throws SQLException {
+        return count(likeStatement);
+    }
+
+    @Benchmark
+    public int fulltext() throws SQLException {
+        return count(fulltextStatement);
+    }
+
+    private int count(PreparedStatement statement) throws SQLException {
+        int count = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void prepareTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                    + "id BIGINT PRIMARY KEY AUTO_INCREMENT,"
+                    + "username VARCHAR(50) NOT NULL,"
+                    + "nickname VARCHAR(50),"
+                    + "email VARCHAR(100),"
+                    + "deleted TINYINT NOT NULL DEFAULT 0,"
+                    + "create_time DATETIME NOT NULL,"
+                    + "KEY idx_create_time (create_time, id),"
+                    + "FULLTEXT KEY ft_user_keyword (username, nickname, email) WITH PARSER ngram"
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+                resultSet.next();
+                if (resultSet.getLong(1) >= rows) {
+                    return;
+                }
+            }
+            statement.execute("TRUNCATE TABLE " + TABLE);
+        }
+
+        connection.setAutoCommit(false);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime start = LocalDateTime.now().minusYears(2);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + TABLE + " (username, nickname, email, create_time) VALUES (?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setString(1, String.format("user%07d", i));
+                insert.setString(2, WORDS[random.nextInt(WORDS.length)] + WORDS[random.nextInt(WORDS.length)] + i % 1000);
+                insert.setString(3, String.format("u%07d@example.com", i));
+                insert.setTimestamp(4, Timestamp.valueOf(start.plusSeconds(i * 60L)));
+                insert.addBatch();
+                if ((i + 1) % 5000 == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+    }
+}
@@ -0,0 +1,57 @@
+package com.timecapsule.benchmark;
+
+import com.timecapsule.modules.user.service.impl.UserWalletServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Keys;
+import org.web3j.crypto.Sign;
+import org.web3j.utils.Numeric;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 钱包签名校验（绑定钱包路径）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletSignatureBenchmark {
+
+    private UserWalletServiceImpl userWalletService;
+
+    private String walletAddress;
+
+    private String message;
+
+    private String signature;
+
+    @Setup
+    public void setup() throws Exception {
+        userWalletService = new UserWalletServiceImpl();
+
+        ECKeyPair keyPair = Keys.createEcKeyPair();
+        walletAddress = "0x" + Keys.getAddress(keyPair);
+        message = "TimeCapsule wallet bind: U1234567890";
+
+        Sign.SignatureData signatureData = Sign.signPrefixedMessage(
+                message.getBytes(StandardCharsets.UTF_8), keyPair);
+        byte[] signatureBytes = new byte[65];
+        System.arraycopy(signatureData.getR(), 0, signatureBytes, 0, 32);
+        System.arraycopy(signatureData.getS(), 0, signatureBytes, 32, 32);
+        signatureBytes[64] = signatureData.getV()[0];
+        signature = Numeric.toHexString(signatureBytes);
+
+        if (!userWalletService.verifyWalletSignature(walletAddress, message, signature)) {
+            throw new IllegalStateException("签名构造错误");
+        }
+    }
+
+    @Benchmark
+    public boolean verifyWalletSignature() {
+        return userWalletService.verifyWalletSignature(walletAddress, message, signature);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -22,6 +23,7 @@ import java.net.UnknownHostException;
 		RedisAutoConfiguration.class,
 		RedisRepositoriesAutoConfiguration.class
 })
+@EnableScheduling
 public class TimeCapsuleApplication {
 
 	public static void main(String[] args) throws UnknownHostException {
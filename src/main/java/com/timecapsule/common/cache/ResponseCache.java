@@ -0,0 +1,228 @@
+package com.timecapsule.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.timecapsule.common.config.ResponseCacheConfig;
+import com.timecapsule.common.result.Result;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.utils.TraceIdUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 接口响应缓存
+ * 保存解析后的 {@link Result} 响应，并按标签（surrogate key）建立索引，数据变化时按标签批量失效。
+ * 只缓存业务码为成功的响应；每次请求各自的 traceId、timestamp 不缓存，命中时按当前请求重新生成。
+ * <p>
+ * 每次失效都会递增失效序号；写入时序号与读取数据前不一致，说明期间数据可能已变化，本次响应不再缓存，
+ * 避免失效之后写入旧数据。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseCache {
+
+    private static final String METRIC_PREFIX = "response.cache";
+
+    /**
+     * 每次响应各自生成的字段，见 {@link Result}
+     */
+    private static final String FIELD_CODE = "code";
+    private static final String FIELD_TIMESTAMP = "timestamp";
+    private static final String FIELD_TRACE_ID = "traceId";
+
+    private final ResponseCacheConfig responseCacheConfig;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private Cache<String, CachedResponse> cache;
+
+    /**
+     * 标签 -> 缓存键
+     */
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+
+    private final AtomicLong invalidationSeq = new AtomicLong();
+
+    private Counter hitCounter;
+
+    private Counter missCounter;
+
+    private Counter invalidationCounter;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(responseCacheConfig.getMaxSizeMb() * 1024 * 1024)
+                .weigher((String key, CachedResponse response) -> key.length() + response.size())
+                .expireAfterWrite(Duration.ofSeconds(responseCacheConfig.getExpireSeconds()))
+                .removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+                    if (key != null && response != null && cause != RemovalCause.REPLACED) {
+                        untag(key, response.tags());
+                    }
+                })
+                .build();
+
+        hitCounter = Counter.builder(METRIC_PREFIX + ".requests")
+                .description("响应缓存查询次数")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missCounter = Counter.builder(METRIC_PREFIX + ".requests")
+                .description("响应缓存查询次数")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        invalidationCounter = Counter.builder(METRIC_PREFIX + ".invalidations")
+                .description("按标签失效的次数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", cache, Cache::estimatedSize)
+                .description("缓存的响应数")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(responseCacheConfig.getEnabled());
+    }
+
+    /**
+     * 单个响应的大小上限（字节）
+     */
+    public int maxEntryBytes() {
+        return responseCacheConfig.getMaxEntryKb() * 1024;
+    }
+
+    /**
+     * @return 未命中时返回null
+     */
+    public CachedResponse get(String key) {
+        CachedResponse response = cache.getIfPresent(key);
+        (response != null ? hitCounter : missCounter).increment();
+        return response;
+    }
+
+    /**
+     * 当前失效序号，读取数据前获取，写入时传给 {@link #put}
+     */
+    public long invalidationSeq() {
+        return invalidationSeq.get();
+    }
+
+    /**
+     * 缓存一次响应，响应体不是成功的 {@link Result} 时不缓存
+     *
+     * @param seq 读取数据前获取的失效序号
+     * @return 是否已缓存
+     */
+    public boolean put(String key, byte[] body, String contentType, String etag, Set<String> tags, long seq) {
+        ObjectNode envelope = parseSuccess(body);
+        if (envelope == null) {
+            return false;
+        }
+        envelope.remove(FIELD_TIMESTAMP);
+        envelope.remove(FIELD_TRACE_ID);
+        return put(key, new CachedResponse(envelope, body.length, contentType, etag, tags), seq);
+    }
+
+    /**
+     * 按当前请求生成响应体，缓存的字段原样写出，traceId、timestamp 使用当前值
+     */
+    public byte[] render(CachedResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(response.size() + 64);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            for (Iterator<Map.Entry<String, JsonNode>> fields = response.body().fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+            generator.writeNumberField(FIELD_TIMESTAMP, System.currentTimeMillis());
+            String traceId = TraceIdUtils.getTraceId();
+            if (traceId != null) {
+                generator.writeStringField(FIELD_TRACE_ID, traceId);
+            }
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    private ObjectNode parseSuccess(byte[] body) {
+        try {
+            JsonNode node = objectMapper.readTree(body);
+            if (node instanceof ObjectNode envelope && envelope.path(FIELD_CODE).isInt()
+                    && envelope.get(FIELD_CODE).intValue() == ResultCode.SUCCESS.getCode()) {
+                return envelope;
+            }
+        } catch (IOException e) {
+            log.debug("响应体不是JSON，不缓存: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    boolean put(String key, CachedResponse response, long seq) {
+        // 先写入缓存再登记标签：登记前发生的失效会改变序号，由下面的检查移除
+        cache.put(key, response);
+        for (String tag : response.tags()) {
+            keysByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        if (invalidationSeq.get() != seq) {
+            cache.invalidate(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 使带有该标签的全部响应失效，应在数据修改完成后调用
+     */
+    public void invalidateTag(String tag) {
+        invalidationSeq.incrementAndGet();
+        invalidationCounter.increment();
+        Set<String> keys = keysByTag.remove(tag);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+            log.debug("响应缓存已失效 - 标签: {}, 条目: {}", tag, keys.size());
+        }
+    }
+
+    /**
+     * 条目被移除后清理标签索引；同一键已重新写入时保留
+     */
+    private void untag(String key, Set<String> tags) {
+        for (String tag : tags) {
+            keysByTag.computeIfPresent(tag, (t, keys) -> {
+                if (cache.getIfPresent(key) == null) {
+                    keys.remove(key);
+                }
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * 缓存的响应
+     *
+     * @param body 去掉 traceId、timestamp 的响应体，写入后不再修改
+     * @param size 原响应体的字节数，用于计算缓存占用
+     * @param etag 响应的 ETag，命中时据此返回304，可为null
+     */
+    public record CachedResponse(ObjectNode body, int size, String contentType, String etag, Set<String> tags) {
+    }
+}
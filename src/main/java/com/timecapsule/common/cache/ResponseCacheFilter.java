@@ -0,0 +1,179 @@
+package com.timecapsule.common.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Set;
+
+/**
+ * 接口响应缓存过滤器
+ * GET 请求的响应包装为 {@link CapturingResponse}；{@link com.timecapsule.common.interceptor.ResponseCacheInterceptor}
+ * 判断接口可缓存且未命中时开启捕获，响应体在写出的同时复制一份，请求结束后状态为200时交给缓存，
+ * 业务码不是成功的响应（如 Result.fail）由 {@link ResponseCache} 排除。
+ * 未开启捕获的请求直接写出，不做缓冲。
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * 保存 {@link CapturingResponse} 的请求属性
+     */
+    public static final String RESPONSE_ATTR = ResponseCacheFilter.class.getName() + ".response";
+
+    private static final String API_PREFIX = "/api/";
+
+    private final ResponseCache responseCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // 只处理接口请求，文件下载等其他请求不包装
+        return !HttpMethod.GET.matches(request.getMethod()) || !responseCache.isEnabled()
+                || !request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CapturingResponse capturing = new CapturingResponse(response, responseCache.maxEntryBytes());
+        request.setAttribute(RESPONSE_ATTR, capturing);
+        filterChain.doFilter(request, capturing);
+
+        Capture capture = capturing.capture;
+        // 异常处理器返回的错误响应同样是200，按请求中记录的异常排除
+        if (capture != null && !request.isAsyncStarted() && capturing.getStatus() == HttpServletResponse.SC_OK
+                && request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE) == null) {
+            responseCache.put(capture.key, capture.buffer.toByteArray(), capturing.getContentType(),
+                    capturing.getHeader(HttpHeaders.ETAG), capture.tags, capture.seq);
+        }
+    }
+
+    /**
+     * 可按需捕获响应体的响应包装
+     */
+    public static class CapturingResponse extends HttpServletResponseWrapper {
+
+        private final int maxBytes;
+
+        private Capture capture;
+
+        private ServletOutputStream outputStream;
+
+        private boolean writerUsed;
+
+        CapturingResponse(HttpServletResponse response, int maxBytes) {
+            super(response);
+            this.maxBytes = maxBytes;
+        }
+
+        /**
+         * 开启捕获，需在写出响应体之前调用
+         *
+         * @param seq 读取数据前的失效序号
+         */
+        public void startCapture(String key, Set<String> tags, long seq) {
+            if (outputStream == null && !writerUsed && !isCommitted()) {
+                capture = new Capture(key, tags, seq);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = capture != null ? new TeeOutputStream(delegate) : delegate;
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            // 只捕获经由输出流写出的响应（消息转换器的方式），其他写法不缓存
+            writerUsed = true;
+            capture = null;
+            return super.getWriter();
+        }
+
+        private class TeeOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            TeeOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+                copy(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+                copy(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                delegate.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+
+            private void copy(byte[] b, int off, int len) {
+                Capture current = capture;
+                if (current == null) {
+                    return;
+                }
+                if (current.buffer.size() + len > maxBytes) {
+                    // 超过单个响应的大小上限，放弃缓存
+                    capture = null;
+                    return;
+                }
+                current.buffer.write(b, off, len);
+            }
+        }
+    }
+
+    private static class Capture {
+
+        private final String key;
+        private final Set<String> tags;
+        private final long seq;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+        Capture(String key, Set<String> tags, long seq) {
+            this.key = key;
+            this.tags = tags;
+            this.seq = seq;
+        }
+    }
+}
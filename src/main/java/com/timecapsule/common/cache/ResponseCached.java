@@ -0,0 +1,19 @@
+package com.timecapsule.common.cache;
+
+import java.lang.annotation.*;
+
+/**
+ * 缓存 GET 接口序列化后的响应
+ * 按请求路径和参数缓存响应字节，命中时不再执行控制器、查询和序列化。
+ * 只用于与当前用户无关的响应；数据变化时按标签调用 {@link ResponseCache#invalidateTag(String)} 失效。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ResponseCached {
+
+    /**
+     * 失效标签，可用 {name} 引用路径变量，如 "user:{userId}"
+     */
+    String[] tags();
+}
@@ -4,6 +4,11 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import lombok.Data;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 文件上传配置
  */
@@ -27,6 +32,11 @@ public class FileUploadConfig {
      */
     private String attachmentPath = "/attachment";
 
+    /**
+     * 去重存储路径（按内容SHA-256分片）
+     */
+    private String blobPath = "/blob";
+
     /**
      * 允许的图片格式
      */
@@ -42,13 +52,211 @@ public class FileUploadConfig {
      */
     private Long maxFileSize = 10L;
 
+    /**
+     * 按格式的最大文件大小（MB），优先于 maxFileSize / maxAvatarSize
+     */
+    private Map<String, Long> maxSizeByType = new HashMap<>();
+
     /**
      * 最大头像大小（MB）
      */
     private Long maxAvatarSize = 5L;
 
+    /**
+     * 分片上传的最大文件大小（MB）
+     */
+    private Long maxChunkedFileSize = 500L;
+
+    /**
+     * 默认分片大小（KB）
+     */
+    private Integer chunkSize = 5120;
+
+    /**
+     * 分片上传会话有效期（小时），超时未完成的临时文件会被删除
+     */
+    private Integer chunkSessionExpireHours = 24;
+
+    /**
+     * 每个用户同时进行中的分片上传会话数上限
+     */
+    private Integer chunkMaxSessionsPerUser = 5;
+
+    /**
+     * 本节点所有分片上传会话预分配的临时文件总大小上限（MB）
+     */
+    private Long chunkMaxReservedSize = 10240L;
+
+    /**
+     * 缩略图缓存路径
+     */
+    private String thumbnailPath = "/thumb";
+
+    /**
+     * 缩略图尺寸（正方形边长，像素），请求的 size 向上取最近的一档
+     */
+    private Integer[] thumbnailSizes = {64, 128, 256};
+
+    /**
+     * 缩略图缓存上限（MB），超出后淘汰最近最少使用的缩略图
+     */
+    private Long thumbnailCacheMaxSize = 512L;
+
+    /**
+     * 缩略图生成线程数
+     */
+    private Integer thumbnailThreads = 2;
+
+    /**
+     * 缩略图生成队列容量
+     */
+    private Integer thumbnailQueueCapacity = 200;
+
+    /**
+     * 请求缩略图时等待生成的最长时间（毫秒），超时返回原图
+     */
+    private Long thumbnailWaitMillis = 2000L;
+
     /**
      * 访问路径前缀
      */
     private String accessPath = "/upload";
-}
\ No newline at end of file
+
+    /**
+     * 文件存储
+     */
+    private Storage storage = new Storage();
+
+    /**
+     * 上传内容检查
+     */
+    private Inspection inspection = new Inspection();
+
+    /**
+     * 孤立文件回收
+     */
+    private Gc gc = new Gc();
+
+    @Data
+    public static class Storage {
+
+        /**
+         * 存储实现（local-本地磁盘，s3-S3兼容对象存储，如 MinIO、阿里云OSS、腾讯云COS）
+         */
+        private String type = "local";
+
+        /**
+         * 对象存储服务地址，为空时使用 AWS S3 默认地址
+         */
+        private String endpoint;
+
+        /**
+         * 区域
+         */
+        private String region = "us-east-1";
+
+        /**
+         * 存储桶
+         */
+        private String bucket;
+
+        private String accessKey;
+
+        private String secretKey;
+
+        /**
+         * 使用路径风格访问（MinIO 等自建服务需要开启）
+         */
+        private Boolean pathStyleAccess = true;
+
+        /**
+         * 分段上传的分段大小（MB），超过该大小的文件分段流式上传，S3 要求不小于5MB
+         */
+        private Integer partSize = 8;
+
+        /**
+         * 预签名URL有效期（分钟）
+         */
+        private Integer presignExpireMinutes = 15;
+
+        /**
+         * CDN地址，为空时不使用CDN
+         * 本地存储时CDN回源到本服务，对象存储时回源到存储桶
+         */
+        private String cdnBaseUrl;
+    }
+
+    @Data
+    public static class Inspection {
+
+        /**
+         * 图片最大宽度（像素）
+         */
+        private Integer maxImageWidth = 8192;
+
+        /**
+         * 图片最大高度（像素）
+         */
+        private Integer maxImageHeight = 8192;
+
+        /**
+         * 图片最大像素数，防止解码时占用过多内存（解压炸弹）
+         */
+        private Long maxImagePixels = 40_000_000L;
+
+        /**
+         * 拒绝包含 /JavaScript、/Launch 等主动内容的PDF（按名称对象匹配，对象流解压后检查）
+         */
+        private Boolean pdfRejectActiveContent = true;
+
+        /**
+         * 恶意内容特征（十六进制字节串），与 ClamAV 十六进制特征写法一致，默认包含 EICAR 测试特征
+         */
+        private List<String> malwareSignatures = new ArrayList<>(List.of(
+                "58354f2150254041505b345c505a58353428505e2937434329377d2445494341522d5354414e444152442d414e544956495255532d544553542d46494c4521"));
+    }
+
+    @Data
+    public static class Gc {
+
+        /**
+         * 是否启用
+         */
+        private Boolean enabled = true;
+
+        /**
+         * 执行时间（cron）
+         */
+        private String cron = "0 30 3 * * ?";
+
+        /**
+         * 只回收修改时间早于该时长的文件（小时），避免误删正在保存的文件
+         */
+        private Integer minAgeHours = 24;
+
+        /**
+         * 每批查询引用的文件数
+         */
+        private Integer batchSize = 200;
+
+        /**
+         * 每秒最多检查的文件数，限制对磁盘和数据库的压力
+         */
+        private Integer maxFilesPerSecond = 500;
+
+        /**
+         * 单次执行的最长时间（分钟），未扫描完的部分下次从检查点继续
+         */
+        private Integer maxRunMinutes = 30;
+
+        /**
+         * 是否移入隔离区而不是直接删除
+         */
+        private Boolean quarantine = true;
+
+        /**
+         * 隔离区文件保留天数，到期后删除
+         */
+        private Integer quarantineRetentionDays = 7;
+    }
+}
@@ -0,0 +1,44 @@
+package com.timecapsule.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 通知发送配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.notification")
+public class NotificationConfig {
+
+    /**
+     * 发送渠道实现（local-仅打印日志）
+     */
+    private String sender = "local";
+
+    /**
+     * 待发送队列容量
+     */
+    private Integer queueCapacity = 1000;
+
+    /**
+     * 发送线程数
+     */
+    private Integer workerThreads = 2;
+
+    /**
+     * 单批最大消息数
+     */
+    private Integer batchSize = 50;
+
+    /**
+     * 最大尝试次数，超过后写入死信表
+     */
+    private Integer maxAttempts = 3;
+
+    /**
+     * 首次重试延迟（毫秒），之后每次翻倍
+     */
+    private Long retryBaseDelayMillis = 1000L;
+}
@@ -0,0 +1,54 @@
+package com.timecapsule.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 密码哈希线程池配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.security.password-hash")
+public class PasswordHashConfig {
+
+    /**
+     * 线程数（小于等于0时取CPU核数）
+     */
+    private Integer poolSize = 0;
+
+    /**
+     * 等待队列容量，队列满时直接拒绝
+     */
+    private Integer queueCapacity = 64;
+
+    /**
+     * 单次哈希最长等待时间（毫秒），包含排队时间
+     */
+    private Long timeoutMillis = 3000L;
+
+    /**
+     * BCrypt强度（开启自动校准时作为下限）
+     */
+    private Integer strength = 10;
+
+    /**
+     * 启动时是否按延迟预算自动校准强度
+     */
+    private Boolean autoCalibrate = false;
+
+    /**
+     * 自动校准的单次哈希延迟预算（毫秒）
+     */
+    private Long targetLatencyMillis = 250L;
+
+    /**
+     * 自动校准允许的最大强度
+     */
+    private Integer maxStrength = 14;
+
+    /**
+     * 登录成功后是否将低于目标强度的哈希异步升级
+     */
+    private Boolean rehashOnLogin = true;
+}
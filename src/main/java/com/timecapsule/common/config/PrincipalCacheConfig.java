@@ -0,0 +1,44 @@
+package com.timecapsule.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 认证用户缓存配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.security.principal-cache")
+public class PrincipalCacheConfig {
+
+    /**
+     * 是否启用缓存
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 本地缓存最大条目数
+     */
+    private Long localMaxSize = 10000L;
+
+    /**
+     * 本地缓存过期时间（秒）
+     */
+    private Long localExpireSeconds = 60L;
+
+    /**
+     * 是否启用Redis二级缓存
+     */
+    private Boolean redisEnabled = false;
+
+    /**
+     * Redis缓存过期时间（秒）
+     */
+    private Long redisExpireSeconds = 600L;
+
+    /**
+     * Redis缓存键前缀
+     */
+    private String redisKeyPrefix = "tc:principal:";
+}
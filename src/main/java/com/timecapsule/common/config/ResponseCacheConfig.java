@@ -0,0 +1,34 @@
+package com.timecapsule.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 接口响应缓存配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheConfig {
+
+    /**
+     * 是否启用
+     */
+    private Boolean enabled = true;
+
+    /**
+     * 缓存总大小上限（MB），按响应体字节数计算
+     */
+    private Long maxSizeMb = 64L;
+
+    /**
+     * 单个响应的大小上限（KB），超过时不缓存
+     */
+    private Integer maxEntryKb = 256;
+
+    /**
+     * 过期时间（秒），兜底未能及时失效的情况（如直接修改数据库、其他节点修改了用户资料）
+     */
+    private Long expireSeconds = 60L;
+}
@@ -14,17 +14,21 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import com.timecapsule.common.security.BCryptStrengthCalibrator;
+import com.timecapsule.common.security.LoginUserCache;
 import com.timecapsule.modules.user.service.impl.UserServiceImpl;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import com.timecapsule.common.utils.JwtUtils;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Spring Security配置
@@ -37,6 +41,8 @@ import java.util.Arrays;
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     @Autowired
@@ -44,10 +50,24 @@ public class SecurityConfig {
 
     /**
      * 密码编码器
+     * 新哈希带 {bcrypt} 前缀，便于后续切换算法；无前缀的历史哈希按BCrypt校验。
+     * 强度低于当前配置的哈希会在登录成功后被升级。
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashConfig passwordHashConfig) {
+        int strength = passwordHashConfig.getStrength();
+        if (Boolean.TRUE.equals(passwordHashConfig.getAutoCalibrate())) {
+            strength = BCryptStrengthCalibrator.calibrate(strength,
+                    passwordHashConfig.getMaxStrength(), passwordHashConfig.getTargetLatencyMillis());
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ID, bcrypt);
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(BCRYPT_ID, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 
     /**
@@ -152,7 +172,7 @@ public class SecurityConfig {
      * JWT认证过滤器
      */
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtils jwtUtils, UserDetailsService userDetailsService) {
-        return new JwtAuthenticationFilter(jwtUtils, userDetailsService);
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtUtils jwtUtils, LoginUserCache loginUserCache) {
+        return new JwtAuthenticationFilter(jwtUtils, loginUserCache);
     }
 }
\ No newline at end of file
@@ -1,30 +1,20 @@
 package com.timecapsule.common.config;
 
-import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * 静态资源配置
+ * 上传文件的访问由 UploadFileController 处理（ETag、Range、缩略图）
  */
 @Configuration
-@RequiredArgsConstructor
 public class StaticResourceConfig implements WebMvcConfigurer {
 
-    private final FileUploadConfig fileUploadConfig;
-
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        // 配置上传文件的访问路径
-        String uploadPath = "file:" + fileUploadConfig.getUploadPath() + "/";
-
-        registry.addResourceHandler(fileUploadConfig.getAccessPath() + "/**")
-                .addResourceLocations(uploadPath)
-                .setCachePeriod(3600); // 缓存1小时
-
         // 配置其他静态资源
         registry.addResourceHandler("/static/**")
                 .addResourceLocations("classpath:/static/");
     }
-}
\ No newline at end of file
+}
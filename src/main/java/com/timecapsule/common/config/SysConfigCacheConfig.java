@@ -0,0 +1,29 @@
+package com.timecapsule.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 系统配置缓存配置
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.sys-config")
+public class SysConfigCacheConfig {
+
+    /**
+     * 是否通过Redis发布订阅通知其他节点刷新（多节点部署时开启）
+     */
+    private Boolean broadcastEnabled = false;
+
+    /**
+     * 刷新通知的频道名
+     */
+    private String topic = "tc:sys-config:changed";
+
+    /**
+     * 定时全量刷新间隔（秒），兜底丢失的通知和直接修改数据库的情况
+     */
+    private Long reloadIntervalSeconds = 300L;
+}
@@ -1,5 +1,6 @@
 package com.timecapsule.common.config;
 
+import com.timecapsule.common.interceptor.ResponseCacheInterceptor;
 import com.timecapsule.common.interceptor.TraceIdInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +19,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
 
     private final TraceIdInterceptor traceIdInterceptor;
+    private final ResponseCacheInterceptor responseCacheInterceptor;
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
@@ -30,6 +32,10 @@ public class WebConfig implements WebMvcConfigurer {
                         "/doc.html",
                         "/webjars/**"
                 );
+
+        // 在 traceId 之后执行，命中缓存的请求同样带有 traceId
+        registry.addInterceptor(responseCacheInterceptor)
+                .addPathPatterns("/api/**");
     }
 
     @Override
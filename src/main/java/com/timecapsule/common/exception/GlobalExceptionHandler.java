@@ -20,7 +20,9 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import org.springframework.web.servlet.NoHandlerFoundException;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolationException;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -33,12 +35,25 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * 需要返回HTTP 429的业务错误码
+     */
+    private static final Set<Integer> THROTTLED_CODES = Set.of(
+            ResultCode.TOO_MANY_REQUESTS.getCode(),
+            ResultCode.AUTH_BUSY.getCode(),
+            ResultCode.CAPTCHA_FREQUENT.getCode()
+    );
+
     /**
      * 处理业务异常
      */
     @ExceptionHandler(BusinessException.class)
-    public Result<Void> handleBusinessException(BusinessException e) {
+    public Result<Void> handleBusinessException(BusinessException e, HttpServletResponse response) {
         log.error("业务异常：{}", e.getMessage());
+        // 限流类错误同时返回HTTP 429，便于客户端和网关退避重试
+        if (THROTTLED_CODES.contains(e.getCode())) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        }
         return Result.fail(e.getCode(), e.getMessage());
     }
 
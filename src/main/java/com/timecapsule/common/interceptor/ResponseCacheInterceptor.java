@@ -0,0 +1,97 @@
+package com.timecapsule.common.interceptor;
+
+import com.timecapsule.common.cache.ResponseCache;
+import com.timecapsule.common.cache.ResponseCacheFilter;
+import com.timecapsule.common.cache.ResponseCached;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 接口响应缓存拦截器
+ * 处理标注了 {@link ResponseCached} 的接口：命中时直接写出缓存的响应（支持 If-None-Match 返回304），
+ * 不再执行控制器；未命中时通知 {@link ResponseCacheFilter} 捕获本次响应。
+ */
+@Component
+@RequiredArgsConstructor
+public class ResponseCacheInterceptor implements HandlerInterceptor {
+
+    private final ResponseCache responseCache;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(ResponseCacheFilter.RESPONSE_ATTR) instanceof ResponseCacheFilter.CapturingResponse capturing)) {
+            return true;
+        }
+        ResponseCached annotation = handlerMethod.getMethodAnnotation(ResponseCached.class);
+        if (annotation == null) {
+            return true;
+        }
+
+        String key = cacheKey(request);
+        ResponseCache.CachedResponse cached = responseCache.get(key);
+        if (cached == null) {
+            capturing.startCapture(key, resolveTags(annotation.tags(), request), responseCache.invalidationSeq());
+            return true;
+        }
+
+        if (cached.etag() != null && new ServletWebRequest(request, response).checkNotModified(cached.etag())) {
+            return false;
+        }
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        // traceId、timestamp 按本次请求生成
+        byte[] body = responseCache.render(cached);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        return false;
+    }
+
+    /**
+     * 请求路径加按名称排序的查询参数，参数值编码后拼接，避免不同参数拼出相同的键
+     */
+    private String cacheKey(HttpServletRequest request) {
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (parameters.isEmpty()) {
+            return request.getRequestURI();
+        }
+        StringBuilder key = new StringBuilder(request.getRequestURI()).append('?');
+        new TreeMap<>(parameters).forEach((name, values) -> {
+            for (String value : values) {
+                key.append(UriUtils.encode(name, StandardCharsets.UTF_8)).append('=')
+                        .append(UriUtils.encode(value, StandardCharsets.UTF_8)).append('&');
+            }
+        });
+        return key.toString();
+    }
+
+    /**
+     * 把标签中的 {name} 替换为路径变量的值
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> resolveTags(String[] tags, HttpServletRequest request) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Set<String> resolved = new HashSet<>(tags.length * 2);
+        for (String tag : tags) {
+            if (variables != null && tag.indexOf('{') >= 0) {
+                for (Map.Entry<String, String> variable : variables.entrySet()) {
+                    tag = tag.replace("{" + variable.getKey() + "}", variable.getValue());
+                }
+            }
+            resolved.add(tag);
+        }
+        return Set.copyOf(resolved);
+    }
+}
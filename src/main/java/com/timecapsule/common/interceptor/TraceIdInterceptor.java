@@ -6,7 +6,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 /**
@@ -14,20 +14,40 @@ import org.springframework.web.servlet.ModelAndView;
  */
 @Slf4j
 @Component
-public class TraceIdInterceptor implements HandlerInterceptor {
+public class TraceIdInterceptor implements AsyncHandlerInterceptor {
 
     private static final String TRACE_ID_HEADER = "X-Trace-Id";
 
+    /**
+     * W3C Trace Context 请求头
+     */
+    private static final String TRACEPARENT_HEADER = "traceparent";
+
+    /**
+     * 异步请求重新分派时沿用首次分派的traceId
+     */
+    private static final String TRACE_ID_ATTR = TraceIdInterceptor.class.getName() + ".traceId";
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        // 从请求头获取traceId，如果没有则生成一个
+        Object dispatchedTraceId = request.getAttribute(TRACE_ID_ATTR);
+        if (dispatchedTraceId != null) {
+            TraceIdUtils.setTraceId((String) dispatchedTraceId);
+            return true;
+        }
+
+        // 从请求头获取traceId（X-Trace-Id 优先，其次 traceparent），如果没有则生成一个
         String traceId = request.getHeader(TRACE_ID_HEADER);
         if (!StringUtils.hasText(traceId)) {
+            traceId = TraceIdUtils.fromTraceparent(request.getHeader(TRACEPARENT_HEADER));
+        }
+        if (traceId == null) {
             traceId = TraceIdUtils.generateTraceId();
         }
 
         // 设置traceId到MDC
         TraceIdUtils.setTraceId(traceId);
+        request.setAttribute(TRACE_ID_ATTR, traceId);
 
         // 设置到响应头
         response.setHeader(TRACE_ID_HEADER, traceId);
@@ -44,6 +64,12 @@ public class TraceIdInterceptor implements HandlerInterceptor {
         // 请求处理完成
     }
 
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 异步请求（长轮询）释放容器线程，结果返回时重新分派并再次设置traceId
+        TraceIdUtils.clear();
+    }
+
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
                                 Object handler, Exception ex) {
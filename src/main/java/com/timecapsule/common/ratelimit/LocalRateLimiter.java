@@ -0,0 +1,59 @@
+package com.timecapsule.common.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 本地内存滑动窗口限流器
+ * 适用于单节点部署和开发环境，多节点部署请使用 RedisRateLimiter。
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "local", matchIfMissing = true)
+public class LocalRateLimiter implements RateLimiter {
+
+    /**
+     * 限流键 -> 窗口内的请求时间戳，长时间未访问的键自动清理
+     */
+    private final Cache<String, Deque<Long>> windows = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofDays(1))
+            .build();
+
+    @Override
+    public synchronized RateLimitRule tryAcquire(List<RateLimitRule> rules) {
+        long now = System.currentTimeMillis();
+
+        List<Deque<Long>> timestamps = new ArrayList<>(rules.size());
+        for (RateLimitRule rule : rules) {
+            Deque<Long> deque = windows.get(rule.getKey(), key -> new ArrayDeque<>());
+            long windowStart = now - rule.getWindow().toMillis();
+            while (!deque.isEmpty() && deque.peekFirst() <= windowStart) {
+                deque.pollFirst();
+            }
+            if (deque.size() >= rule.getLimit()) {
+                return rule;
+            }
+            timestamps.add(deque);
+        }
+
+        timestamps.forEach(deque -> deque.addLast(now));
+        return null;
+    }
+
+    @Override
+    public synchronized void release(List<RateLimitRule> rules) {
+        for (RateLimitRule rule : rules) {
+            Deque<Long> deque = windows.getIfPresent(rule.getKey());
+            if (deque != null) {
+                deque.pollLast();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.timecapsule.common.ratelimit;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * 滑动窗口限流规则
+ */
+@Getter
+@AllArgsConstructor
+public class RateLimitRule {
+
+    /**
+     * 限流键
+     */
+    private final String key;
+
+    /**
+     * 窗口内允许的最大次数
+     */
+    private final int limit;
+
+    /**
+     * 窗口长度
+     */
+    private final Duration window;
+
+    /**
+     * 超限提示信息
+     */
+    private final String message;
+}
@@ -0,0 +1,26 @@
+package com.timecapsule.common.ratelimit;
+
+import java.util.List;
+
+/**
+ * 滑动窗口限流器
+ */
+public interface RateLimiter {
+
+    /**
+     * 原子地检查并计数
+     * 所有规则均未超限时，每条规则各计一次；任一规则超限时不计数。
+     *
+     * @param rules 限流规则
+     * @return 超限的规则，全部通过时返回null
+     */
+    RateLimitRule tryAcquire(List<RateLimitRule> rules);
+
+    /**
+     * 退还一次成功的计数，用于请求通过限流后因其他原因未能执行的情况
+     * 每条规则移除窗口内最近的一次计数。
+     *
+     * @param rules 与 tryAcquire 相同的规则
+     */
+    void release(List<RateLimitRule> rules);
+}
@@ -0,0 +1,89 @@
+package com.timecapsule.common.ratelimit;
+
+import cn.hutool.core.util.IdUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于Redis有序集合的滑动窗口限流器
+ * 检查与计数在同一个Lua脚本中完成，多节点部署下保持原子性。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "redis")
+public class RedisRateLimiter implements RateLimiter {
+
+    /**
+     * KEYS: 各规则的限流键
+     * ARGV: [1]当前时间(ms) [2]本次请求标识 [2i+1]第i条规则上限 [2i+2]第i条规则窗口(ms)
+     * 返回: 0-通过，i-第i条规则超限
+     */
+    private static final String SCRIPT =
+            "local now = tonumber(ARGV[1]) " +
+            "for i = 1, #KEYS do " +
+            "  local limit = tonumber(ARGV[i * 2 + 1]) " +
+            "  local window = tonumber(ARGV[i * 2 + 2]) " +
+            "  redis.call('ZREMRANGEBYSCORE', KEYS[i], 0, now - window) " +
+            "  if redis.call('ZCARD', KEYS[i]) >= limit then return i end " +
+            "end " +
+            "for i = 1, #KEYS do " +
+            "  redis.call('ZADD', KEYS[i], now, ARGV[2]) " +
+            "  redis.call('PEXPIRE', KEYS[i], tonumber(ARGV[i * 2 + 2])) " +
+            "end " +
+            "return 0";
+
+    /**
+     * KEYS: 各规则的限流键，移除每个键中分数最大（最近）的一条
+     */
+    private static final String RELEASE_SCRIPT =
+            "for i = 1, #KEYS do " +
+            "  redis.call('ZPOPMAX', KEYS[i]) " +
+            "end " +
+            "return 0";
+
+    private final RedissonClient redissonClient;
+
+    @Value("${app.rate-limit.key-prefix:tc:rate:}")
+    private String keyPrefix;
+
+    @Override
+    public RateLimitRule tryAcquire(List<RateLimitRule> rules) {
+        List<Object> keys = new ArrayList<>(rules.size());
+        Object[] args = new Object[rules.size() * 2 + 2];
+        args[0] = String.valueOf(System.currentTimeMillis());
+        args[1] = IdUtil.fastSimpleUUID();
+        for (int i = 0; i < rules.size(); i++) {
+            RateLimitRule rule = rules.get(i);
+            keys.add(keyPrefix + rule.getKey());
+            args[i * 2 + 2] = String.valueOf(rule.getLimit());
+            args[i * 2 + 3] = String.valueOf(rule.getWindow().toMillis());
+        }
+
+        Long result = redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_WRITE, SCRIPT, RScript.ReturnType.INTEGER, keys, args);
+        if (result == null || result == 0) {
+            return null;
+        }
+        return rules.get(result.intValue() - 1);
+    }
+
+    @Override
+    public void release(List<RateLimitRule> rules) {
+        List<Object> keys = new ArrayList<>(rules.size());
+        for (RateLimitRule rule : rules) {
+            keys.add(keyPrefix + rule.getKey());
+        }
+        redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_WRITE, RELEASE_SCRIPT, RScript.ReturnType.INTEGER, keys);
+    }
+}
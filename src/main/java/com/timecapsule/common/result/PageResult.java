@@ -75,6 +75,27 @@ public class PageResult<T> extends Result<PageResult.PageData<T>> {
         return result;
     }
 
+    /**
+     * 创建滚动分页响应
+     *
+     * @param total    总记录数，未统计时为null
+     * @param scrollId 下一页的滚动分页标识，没有下一页时为null
+     */
+    public static <T> PageResult<T> scroll(List<T> list, Long total, Integer pageSize, Boolean hasNext, String scrollId) {
+        PageData<T> data = new PageData<>();
+        data.setList(list);
+        data.setTotal(total);
+        data.setPageSize(pageSize);
+        data.setHasNext(hasNext);
+        data.setScrollId(scrollId);
+
+        PageResult<T> result = new PageResult<>();
+        result.setCode(ResultCode.SUCCESS.getCode());
+        result.setMessage(ResultCode.SUCCESS.getMessage());
+        result.setData(data);
+        return result;
+    }
+
     /**
      * 创建空分页响应
      */
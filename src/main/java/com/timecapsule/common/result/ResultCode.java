@@ -48,6 +48,7 @@ public enum ResultCode implements IResultCode {
     TOKEN_EXPIRED(1102, "Token已过期"),
     TOKEN_CREATE_ERROR(1103, "Token生成失败"),
     REFRESH_TOKEN_EXPIRED(1104, "刷新Token已过期"),
+    AUTH_BUSY(1105, "认证请求过多，请稍后再试"),
 
     // 验证码相关 12xx
     CAPTCHA_ERROR(1201, "验证码错误"),
@@ -0,0 +1,73 @@
+package com.timecapsule.common.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt强度校准
+ * 强度每加1，计算量翻倍。以最低强度实测耗时为基准，选出不超过延迟预算的最大强度。
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "TimeCapsule@Calibration";
+
+    private static final int SAMPLES = 5;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * 校准强度
+     *
+     * @param minStrength         最低强度
+     * @param maxStrength         最高强度
+     * @param targetLatencyMillis 单次哈希延迟预算（毫秒）
+     */
+    public static int calibrate(int minStrength, int maxStrength, long targetLatencyMillis) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        // 预热一次，排除类加载和JIT影响
+        encoder.encode(SAMPLE_PASSWORD);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        long budgetNanos = targetLatencyMillis * 1_000_000L;
+        int strength = minStrength;
+        long estimatedNanos = bestNanos;
+        while (strength < maxStrength && estimatedNanos * 2 <= budgetNanos) {
+            strength++;
+            estimatedNanos *= 2;
+        }
+
+        log.info("BCrypt强度校准完成：强度{}耗时{}ms，选定强度{}（预计{}ms，预算{}ms）",
+                minStrength, bestNanos / 1_000_000, strength, estimatedNanos / 1_000_000, targetLatencyMillis);
+        return strength;
+    }
+
+    /**
+     * 从哈希值中解析BCrypt强度，兼容 {bcrypt} 前缀
+     *
+     * @return 无法解析时返回-1
+     */
+    public static int parseStrength(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        // 格式：[{bcrypt}]$2a$10$...
+        int start = encodedPassword.indexOf('$');
+        if (start < 0 || encodedPassword.length() < start + 7 || encodedPassword.charAt(start + 3) != '$') {
+            return -1;
+        }
+        char high = encodedPassword.charAt(start + 4);
+        char low = encodedPassword.charAt(start + 5);
+        if (!Character.isDigit(high) || !Character.isDigit(low)) {
+            return -1;
+        }
+        return (high - '0') * 10 + (low - '0');
+    }
+}
@@ -1,6 +1,7 @@
 package com.timecapsule.common.security;
 
 import com.timecapsule.common.utils.JwtUtils;
+import com.timecapsule.modules.user.entity.LoginUser;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,13 +10,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
-import org.springframework.context.annotation.Lazy;
 
 import java.io.IOException;
 
@@ -28,8 +26,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    @Lazy
-    private final UserDetailsService userDetailsService;
+    private final LoginUserCache loginUserCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -42,13 +39,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (StringUtils.hasText(token)) {
             try {
-                if (jwtUtils.validateToken(token)) {
-                    String username = jwtUtils.getUsername(token);
+                // 签名校验和声明解析一次完成
+                VerifiedToken verifiedToken = jwtUtils.verifyToken(token);
+                // 只接受访问Token，刷新Token不能用于调用接口
+                if (verifiedToken != null && verifiedToken.isAccessToken()) {
+                    String userId = verifiedToken.getUserId();
                     // 避免重复认证
-                    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                        // 优先从缓存获取认证用户，避免每次请求查询数据库
+                        LoginUser loginUser = loginUserCache.get(userId);
+                        if (loginUser == null) {
+                            throw new IllegalStateException("用户不存在: " + userId);
+                        }
                         UsernamePasswordAuthenticationToken authentication =
-                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                                new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
                         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authentication);
                     }
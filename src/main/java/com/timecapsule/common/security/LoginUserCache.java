@@ -0,0 +1,155 @@
+package com.timecapsule.common.security;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.timecapsule.common.cache.ResponseCache;
+import com.timecapsule.common.config.PrincipalCacheConfig;
+import com.timecapsule.modules.user.entity.LoginUser;
+import com.timecapsule.modules.user.entity.User;
+import com.timecapsule.modules.user.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * 认证用户缓存
+ * 一级为本地Caffeine缓存，二级为可选的Redis缓存，均按userId索引。
+ * 用户信息发生变更（密码、状态、资料、删除）时需调用 evict 使缓存失效，同时失效该用户公开资料的响应缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginUserCache {
+
+    /**
+     * 用户公开资料接口的响应缓存标签前缀
+     */
+    public static final String PROFILE_TAG_PREFIX = "user:";
+
+    private final PrincipalCacheConfig principalCacheConfig;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<RedissonClient> redissonClientProvider;
+    private final ResponseCache responseCache;
+
+    private Cache<String, LoginUser> localCache;
+
+    private RedissonClient redissonClient;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(principalCacheConfig.getLocalMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(principalCacheConfig.getLocalExpireSeconds()))
+                .build();
+
+        if (Boolean.TRUE.equals(principalCacheConfig.getRedisEnabled())) {
+            redissonClient = redissonClientProvider.getIfAvailable();
+            if (redissonClient == null) {
+                log.warn("未找到RedissonClient，认证用户缓存仅使用本地缓存");
+            }
+        }
+    }
+
+    /**
+     * 根据userId获取认证用户，依次查询本地缓存、Redis、数据库
+     *
+     * @return 用户不存在时返回null
+     */
+    public LoginUser get(String userId) {
+        if (!Boolean.TRUE.equals(principalCacheConfig.getEnabled())) {
+            return load(userId);
+        }
+        return localCache.get(userId, this::loadThroughRedis);
+    }
+
+    /**
+     * 使指定用户的缓存失效
+     */
+    public void evict(String userId) {
+        if (userId == null) {
+            return;
+        }
+        localCache.invalidate(userId);
+        responseCache.invalidateTag(PROFILE_TAG_PREFIX + userId);
+        if (redissonClient != null) {
+            try {
+                redisBucket(userId).delete();
+            } catch (Exception e) {
+                log.error("删除Redis认证用户缓存失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 批量使缓存失效
+     */
+    public void evictAll(Collection<String> userIds) {
+        if (CollUtil.isEmpty(userIds)) {
+            return;
+        }
+        userIds.forEach(this::evict);
+    }
+
+    private LoginUser loadThroughRedis(String userId) {
+        if (redissonClient == null) {
+            return load(userId);
+        }
+
+        RBucket<String> bucket = redisBucket(userId);
+        try {
+            String json = bucket.get();
+            if (json != null) {
+                return toLoginUser(objectMapper.readValue(json, User.class));
+            }
+        } catch (Exception e) {
+            log.error("读取Redis认证用户缓存失败: {}", e.getMessage());
+        }
+
+        LoginUser loginUser = load(userId);
+        if (loginUser != null) {
+            try {
+                bucket.set(objectMapper.writeValueAsString(loginUser.getUser()),
+                        Duration.ofSeconds(principalCacheConfig.getRedisExpireSeconds()));
+            } catch (Exception e) {
+                log.error("写入Redis认证用户缓存失败: {}", e.getMessage());
+            }
+        }
+        return loginUser;
+    }
+
+    private LoginUser load(String userId) {
+        User user = userMapper.selectOne(new LambdaQueryWrapper<User>()
+                .eq(User::getUserId, userId));
+        if (user == null) {
+            return null;
+        }
+
+        // 缓存中不保留密码哈希
+        User cached = BeanUtil.copyProperties(user, User.class);
+        cached.setPassword(null);
+        return toLoginUser(cached);
+    }
+
+    private LoginUser toLoginUser(User user) {
+        return new LoginUser(user, Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+    }
+
+    private RBucket<String> redisBucket(String userId) {
+        return redissonClient.getBucket(principalCacheConfig.getRedisKeyPrefix() + userId, StringCodec.INSTANCE);
+    }
+}
@@ -0,0 +1,185 @@
+package com.timecapsule.common.security;
+
+import com.timecapsule.common.config.PasswordHashConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希服务
+ * BCrypt属于CPU密集型计算，在独立的有界线程池中执行，避免登录高峰占满Tomcat工作线程。
+ * 队列已满或等待超时时快速失败，返回 AUTH_BUSY。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHashService {
+
+    private static final String METRIC_PREFIX = "timecapsule.password.hash";
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashConfig passwordHashConfig;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer encodeTimer;
+
+    /**
+     * 按哈希强度区分的校验耗时
+     */
+    private final Map<Integer, Timer> matchesTimers = new ConcurrentHashMap<>();
+
+    private Timer waitTimer;
+
+    private Counter rejectedCounter;
+
+    private Counter rehashCounter;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = passwordHashConfig.getPoolSize() > 0
+                ? passwordHashConfig.getPoolSize()
+                : Runtime.getRuntime().availableProcessors();
+
+        executor = new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordHashConfig.getQueueCapacity()),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        encodeTimer = Timer.builder(METRIC_PREFIX + ".latency")
+                .description("密码哈希计算耗时")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("密码哈希任务排队耗时")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("因线程池饱和被拒绝的密码哈希任务数")
+                .register(meterRegistry);
+        rehashCounter = Counter.builder(METRIC_PREFIX + ".rehash")
+                .description("登录后升级强度的密码哈希数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", executor, e -> e.getQueue().size())
+                .description("等待执行的密码哈希任务数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的密码哈希任务数")
+                .register(meterRegistry);
+
+        log.info("密码哈希线程池初始化完成，线程数：{}，队列容量：{}", poolSize, passwordHashConfig.getQueueCapacity());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 计算密码哈希
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword), encodeTimer);
+    }
+
+    /**
+     * 校验密码，耗时按存储哈希的强度分别统计
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer(encodedPassword));
+    }
+
+    /**
+     * 存储的哈希是否需要升级（强度低于当前配置或缺少算法前缀）
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return Boolean.TRUE.equals(passwordHashConfig.getRehashOnLogin())
+                && encodedPassword != null
+                && passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 异步重新计算哈希，不占用请求线程
+     * 仅在线程池空闲容量过半时提交，避免挤占登录请求；被跳过的用户会在下次登录时重试。
+     *
+     * @param onEncoded 新哈希的持久化回调
+     */
+    public void rehashAsync(CharSequence rawPassword, Consumer<String> onEncoded) {
+        if (executor.getQueue().remainingCapacity() < passwordHashConfig.getQueueCapacity() / 2) {
+            log.debug("密码哈希线程池繁忙，跳过哈希升级");
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    String encoded = encodeTimer.record(() -> passwordEncoder.encode(rawPassword));
+                    onEncoded.accept(encoded);
+                    rehashCounter.increment();
+                } catch (Exception e) {
+                    log.error("密码哈希升级失败: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("密码哈希线程池已满，跳过哈希升级");
+        }
+    }
+
+    private Timer matchesTimer(String encodedPassword) {
+        int strength = BCryptStrengthCalibrator.parseStrength(encodedPassword);
+        return matchesTimers.computeIfAbsent(strength, key -> Timer.builder(METRIC_PREFIX + ".latency")
+                .description("密码哈希计算耗时")
+                .tag("operation", "matches")
+                .tag("cost", key > 0 ? String.valueOf(key) : "unknown")
+                .register(meterRegistry));
+    }
+
+    private <T> T execute(Supplier<T> task, Timer latencyTimer) {
+        long submitTime = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submitTime, TimeUnit.NANOSECONDS);
+                return latencyTimer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("密码哈希线程池已满，拒绝请求");
+            throw new BusinessException(ResultCode.AUTH_BUSY);
+        }
+
+        try {
+            return future.get(passwordHashConfig.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedCounter.increment();
+            log.warn("密码哈希等待超时：{}ms", passwordHashConfig.getTimeoutMillis());
+            throw new BusinessException(ResultCode.AUTH_BUSY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusinessException(ResultCode.AUTH_BUSY);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("密码哈希计算失败", cause);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.timecapsule.common.security;
+
+import com.timecapsule.common.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * 已校验的Token
+ * 由 JwtUtils.verifyToken 创建，签名校验和声明解析一次完成，调用方直接读取各声明。
+ */
+@Getter
+public final class VerifiedToken {
+
+    /**
+     * 原始Token
+     */
+    private final String token;
+
+    /**
+     * 用户ID
+     */
+    private final String userId;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * Token类型，见 JwtUtils.TYPE_ACCESS / TYPE_REFRESH
+     */
+    private final String type;
+
+    /**
+     * 签发时间
+     */
+    private final Date issuedAt;
+
+    /**
+     * 过期时间
+     */
+    private final Date expiration;
+
+    /**
+     * 全部声明
+     */
+    private final Claims claims;
+
+    public VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+        this.userId = claims.getSubject();
+        this.username = claims.get("username", String.class);
+        this.type = claims.get(JwtUtils.CLAIM_TYPE, String.class);
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+    }
+
+    /**
+     * 是否为访问Token，未携带类型的Token一律不视为访问Token
+     */
+    public boolean isAccessToken() {
+        return JwtUtils.TYPE_ACCESS.equals(type);
+    }
+
+    /**
+     * 是否为刷新Token
+     */
+    public boolean isRefreshToken() {
+        return JwtUtils.TYPE_REFRESH.equals(type);
+    }
+
+    /**
+     * 剩余有效时间（秒）
+     */
+    public long getRemainingSeconds() {
+        long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+        return remainingMillis > 0 ? remainingMillis / 1000 : 0;
+    }
+}
@@ -0,0 +1,58 @@
+package com.timecapsule.common.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 文件存储接口
+ * key 为相对存储根的路径（如 blob/ab/cd/{sha256}.png），不以 / 开头。
+ */
+public interface BlobStorage {
+
+    /**
+     * 是否为本地磁盘存储（由本服务直接发送文件）
+     */
+    boolean isLocal();
+
+    /**
+     * 保存本地文件
+     * 本地存储直接移动，对象存储上传后保留源文件，残留的源文件由调用方删除
+     */
+    void put(String key, Path source, String contentType) throws IOException;
+
+    /**
+     * @return 文件大小，不存在时返回-1
+     */
+    long size(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        return size(key) >= 0;
+    }
+
+    /**
+     * 读取开头的若干字节，文件较短时返回实际长度
+     */
+    byte[] readHead(String key, int length) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * @return 本地文件路径，对象存储返回null
+     */
+    Path localPath(String key);
+
+    /**
+     * 生成客户端直传的预签名请求，存储会校验内容的SHA-256
+     *
+     * @return 不支持直传时返回null
+     */
+    PresignedUpload presignUpload(String key, String contentType, long size, String sha256, Duration expire);
+
+    /**
+     * 生成预签名下载地址
+     *
+     * @return 不支持时返回null
+     */
+    String presignDownload(String key, Duration expire);
+}
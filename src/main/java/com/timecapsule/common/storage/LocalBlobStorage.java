@@ -0,0 +1,108 @@
+package com.timecapsule.common.storage;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 本地磁盘存储，根目录为上传根路径
+ * 多节点部署时需要共享存储，否则请使用对象存储
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.file.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStorage implements BlobStorage {
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private Path root;
+
+    /**
+     * 已确认存在的分片目录，避免每次保存都检查和创建目录
+     */
+    private final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        root = Path.of(fileUploadConfig.getUploadPath());
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    /**
+     * 移动到目标路径，目标目录只在首次使用时创建；目录被外部删除时重新创建后重试
+     */
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = localPath(key);
+        Path directory = target.getParent();
+        if (!knownDirectories.contains(directory)) {
+            Files.createDirectories(directory);
+            knownDirectories.add(directory);
+        }
+        try {
+            moveAtomically(source, target);
+        } catch (NoSuchFileException e) {
+            knownDirectories.remove(directory);
+            Files.createDirectories(directory);
+            knownDirectories.add(directory);
+            moveAtomically(source, target);
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        try {
+            return Files.size(localPath(key));
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public byte[] readHead(String key, int length) throws IOException {
+        try (InputStream in = Files.newInputStream(localPath(key))) {
+            return in.readNBytes(length);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(localPath(key));
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return root.resolve(key.startsWith("/") ? key.substring(1) : key);
+    }
+
+    @Override
+    public PresignedUpload presignUpload(String key, String contentType, long size, String sha256, Duration expire) {
+        return null;
+    }
+
+    @Override
+    public String presignDownload(String key, Duration expire) {
+        return null;
+    }
+
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.timecapsule.common.storage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 预签名直传请求，客户端需使用相同的方法和请求头
+ *
+ * @param headers 参与签名的请求头
+ */
+public record PresignedUpload(String url, String method, Map<String, String> headers, Instant expireTime) {
+}
@@ -0,0 +1,267 @@
+package com.timecapsule.common.storage;
+
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.StrUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * S3兼容对象存储（AWS S3、MinIO、阿里云OSS、腾讯云COS等）
+ * 小文件单次上传，大文件按分段流式上传，每个分段直接从文件对应位置读取，不整体读入内存。
+ * 本地开发可使用 MinIO 容器作为替身：endpoint 指向 http://localhost:9000 并开启 path-style-access。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.file.storage.type", havingValue = "s3")
+public class S3BlobStorage implements BlobStorage {
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private S3Client client;
+
+    private S3Presigner presigner;
+
+    private String bucket;
+
+    private long partSize;
+
+    @PostConstruct
+    public void init() {
+        FileUploadConfig.Storage config = fileUploadConfig.getStorage();
+        if (StrUtil.hasBlank(config.getBucket(), config.getAccessKey(), config.getSecretKey())) {
+            throw new IllegalStateException("对象存储配置不完整：app.file.storage.bucket/access-key/secret-key");
+        }
+        bucket = config.getBucket();
+        partSize = Math.max(5, config.getPartSize()) * 1024L * 1024;
+
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(config.getAccessKey(), config.getSecretKey()));
+        S3Configuration serviceConfiguration = S3Configuration.builder()
+                .pathStyleAccessEnabled(config.getPathStyleAccess())
+                .build();
+
+        S3ClientBuilder clientBuilder = S3Client.builder()
+                .region(Region.of(config.getRegion()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        S3Presigner.Builder presignerBuilder = S3Presigner.builder()
+                .region(Region.of(config.getRegion()))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(serviceConfiguration);
+        if (StrUtil.isNotBlank(config.getEndpoint())) {
+            clientBuilder.endpointOverride(URI.create(config.getEndpoint()));
+            presignerBuilder.endpointOverride(URI.create(config.getEndpoint()));
+        }
+        client = clientBuilder.build();
+        presigner = presignerBuilder.build();
+        log.info("对象存储初始化完成 - 地址: {}, 存储桶: {}", StrUtil.blankToDefault(config.getEndpoint(), "AWS"), bucket);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        client.close();
+        presigner.close();
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size <= partSize) {
+                client.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size, contentType);
+            }
+        } catch (SdkException e) {
+            throw new IOException("对象上传失败: " + key, e);
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        try {
+            return client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build()).contentLength();
+        } catch (NoSuchKeyException e) {
+            return -1;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return -1;
+            }
+            throw new IOException("查询对象失败: " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("查询对象失败: " + key, e);
+        }
+    }
+
+    @Override
+    public byte[] readHead(String key, int length) throws IOException {
+        try {
+            return client.getObjectAsBytes(GetObjectRequest.builder().bucket(bucket).key(key)
+                    .range("bytes=0-" + (length - 1)).build()).asByteArray();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 416) {
+                // 空文件
+                return new byte[0];
+            }
+            throw new IOException("读取对象失败: " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("读取对象失败: " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException e) {
+            throw new IOException("删除对象失败: " + key, e);
+        }
+    }
+
+    @Override
+    public Path localPath(String key) {
+        return null;
+    }
+
+    @Override
+    public PresignedUpload presignUpload(String key, String contentType, long size, String sha256, Duration expire) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(size)
+                // 签名包含内容摘要，上传的内容与声明的SHA-256不一致时存储会拒绝
+                .checksumSHA256(Base64.getEncoder().encodeToString(HexUtil.decodeHex(sha256)))
+                .build();
+        PresignedPutObjectRequest presigned = presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(expire)
+                .putObjectRequest(request)
+                .build());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            // host、content-length 由客户端根据URL和请求体自动设置（浏览器也不允许手动设置）
+            if (!"host".equalsIgnoreCase(name) && !"content-length".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(presigned.url().toString(), presigned.httpRequest().method().name(),
+                headers, presigned.expiration());
+    }
+
+    @Override
+    public String presignDownload(String key, Duration expire) {
+        return presigner.presignGetObject(GetObjectPresignRequest.builder()
+                .signatureDuration(expire)
+                .getObjectRequest(GetObjectRequest.builder().bucket(bucket).key(key).build())
+                .build()).url().toString();
+    }
+
+    /**
+     * 分段上传，任一分段失败时取消整个上传，避免存储中残留未完成的分段
+     */
+    private void putMultipart(String key, Path source, long size, String contentType) throws IOException {
+        String uploadId = client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket).key(key).contentType(contentType).build()).uploadId();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<CompletedPart> parts = new ArrayList<>();
+            int partNumber = 1;
+            for (long position = 0; position < size; position += partSize, partNumber++) {
+                long start = position;
+                long length = Math.min(partSize, size - position);
+                // 重试时重新从分段起点读取
+                RequestBody body = RequestBody.fromContentProvider(
+                        () -> new FileRangeInputStream(channel, start, length), length, contentType);
+                String etag = client.uploadPart(UploadPartRequest.builder()
+                        .bucket(bucket).key(key).uploadId(uploadId)
+                        .partNumber(partNumber).contentLength(length)
+                        .build(), body).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+            }
+            client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (IOException | RuntimeException e) {
+            try {
+                client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                        .bucket(bucket).key(key).uploadId(uploadId).build());
+            } catch (SdkException abortException) {
+                log.warn("取消分段上传失败 - key: {}, uploadId: {}", key, uploadId, abortException);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 按位置读取文件的一段，不改变通道位置
+     */
+    private static class FileRangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+
+        private long position;
+
+        private final long end;
+
+        FileRangeInputStream(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.position = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.timecapsule.common.storage;
+
+import cn.hutool.core.util.StrUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 文件访问地址生成
+ * 数据库中保存的始终是以访问路径前缀开头的稳定路径，这里生成返回给客户端的实际地址：
+ * - 配置了CDN：本地存储为 {cdn}{accessPath}/{key}（CDN回源到本服务），对象存储为 {cdn}/{key}（回源到存储桶）
+ * - 未配置CDN：本地存储为 {accessPath}/{key}，对象存储为预签名下载地址
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageUrlBuilder {
+
+    private final FileUploadConfig fileUploadConfig;
+    private final BlobStorage blobStorage;
+
+    public String build(String key) {
+        String path = key.startsWith("/") ? key.substring(1) : key;
+        String cdnBaseUrl = StrUtil.removeSuffix(fileUploadConfig.getStorage().getCdnBaseUrl(), "/");
+        if (blobStorage.isLocal()) {
+            return StrUtil.nullToEmpty(cdnBaseUrl) + fileUploadConfig.getAccessPath() + "/" + path;
+        }
+        if (StrUtil.isNotBlank(cdnBaseUrl)) {
+            return cdnBaseUrl + "/" + path;
+        }
+        return blobStorage.presignDownload(path,
+                Duration.ofMinutes(fileUploadConfig.getStorage().getPresignExpireMinutes()));
+    }
+}
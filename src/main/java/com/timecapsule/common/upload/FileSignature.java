@@ -0,0 +1,92 @@
+package com.timecapsule.common.upload;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文件头签名（魔数），用于按内容识别文件类型，不信任文件后缀
+ */
+public enum FileSignature {
+
+    JPEG(0, bytes(0xFF, 0xD8, 0xFF)),
+    PNG(0, bytes(0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A)),
+    GIF(0, ascii("GIF8")),
+    WEBP(0, ascii("RIFF"), 8, ascii("WEBP")),
+    PDF(0, ascii("%PDF-")),
+    /**
+     * OLE2 复合文档（doc）
+     */
+    OLE2(0, bytes(0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)),
+    /**
+     * ZIP 容器（docx）
+     */
+    ZIP(0, bytes(0x50, 0x4B, 0x03, 0x04));
+
+    /**
+     * 识别所需的最大文件头长度
+     */
+    public static final int HEADER_LENGTH = 12;
+
+    private final int[] offsets;
+
+    private final byte[][] patterns;
+
+    FileSignature(int offset, byte[] pattern) {
+        this.offsets = new int[]{offset};
+        this.patterns = new byte[][]{pattern};
+    }
+
+    FileSignature(int offset, byte[] pattern, int secondOffset, byte[] secondPattern) {
+        this.offsets = new int[]{offset, secondOffset};
+        this.patterns = new byte[][]{pattern, secondPattern};
+    }
+
+    /**
+     * 文件头是否匹配
+     *
+     * @param length header 中的有效字节数
+     */
+    public boolean matches(byte[] header, int length) {
+        for (int i = 0; i < offsets.length; i++) {
+            byte[] pattern = patterns[i];
+            if (length < offsets[i] + pattern.length) {
+                return false;
+            }
+            for (int j = 0; j < pattern.length; j++) {
+                if (header[offsets[i] + j] != pattern[j]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按后缀获取对应的签名
+     *
+     * @return 没有可识别签名的格式返回null
+     */
+    public static FileSignature forSuffix(String suffix) {
+        return switch (suffix) {
+            case "jpg", "jpeg" -> JPEG;
+            case "png" -> PNG;
+            case "gif" -> GIF;
+            case "webp" -> WEBP;
+            case "pdf" -> PDF;
+            case "doc" -> OLE2;
+            case "docx" -> ZIP;
+            default -> null;
+        };
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] result = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (byte) values[i];
+        }
+        return result;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
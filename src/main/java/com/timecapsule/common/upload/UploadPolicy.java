@@ -0,0 +1,119 @@
+package com.timecapsule.common.upload;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 上传策略
+ * 启动时由 FileUploadConfig 编译为不可变的查找表（允许的格式、按格式的大小上限、文件头签名），
+ * 每次上传只做哈希查找，不再重复转换配置。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UploadPolicy {
+
+    /**
+     * 上传场景
+     */
+    public enum Category {
+        AVATAR, ATTACHMENT, CHUNKED
+    }
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private Map<Category, Rule> rules;
+
+    /**
+     * 按格式的大小上限（MB），优先于场景默认值
+     */
+    private Map<String, Long> maxSizeByType;
+
+    private Map<String, FileSignature> signatures;
+
+    @PostConstruct
+    public void init() {
+        Set<String> imageTypes = normalize(fileUploadConfig.getAllowedImageTypes());
+        Set<String> fileTypes = normalize(fileUploadConfig.getAllowedFileTypes());
+
+        Map<Category, Rule> compiled = new EnumMap<>(Category.class);
+        compiled.put(Category.AVATAR, new Rule(imageTypes, fileUploadConfig.getMaxAvatarSize(), "不支持的图片格式"));
+        compiled.put(Category.ATTACHMENT, new Rule(fileTypes, fileUploadConfig.getMaxFileSize(), "不支持的文件格式"));
+        compiled.put(Category.CHUNKED, new Rule(fileTypes, fileUploadConfig.getMaxChunkedFileSize(), "不支持的文件格式"));
+        rules = Collections.unmodifiableMap(compiled);
+
+        Map<String, Long> sizes = new HashMap<>();
+        fileUploadConfig.getMaxSizeByType().forEach((type, size) -> sizes.put(type.toLowerCase(), size));
+        maxSizeByType = Map.copyOf(sizes);
+
+        Set<String> allTypes = new HashSet<>(imageTypes);
+        allTypes.addAll(fileTypes);
+        Map<String, FileSignature> compiledSignatures = new HashMap<>();
+        for (String type : allTypes) {
+            FileSignature signature = FileSignature.forSuffix(type);
+            if (signature != null) {
+                compiledSignatures.put(type, signature);
+            } else {
+                log.warn("格式{}没有可识别的文件头签名，上传时仅校验后缀", type);
+            }
+        }
+        signatures = Map.copyOf(compiledSignatures);
+    }
+
+    /**
+     * 校验文件名和大小
+     *
+     * @return 小写的文件后缀
+     */
+    public String check(Category category, String originalFilename, long size) {
+        if (StrUtil.isBlank(originalFilename) || size <= 0) {
+            throw new BusinessException("请选择要上传的文件");
+        }
+
+        Rule rule = rules.get(category);
+
+        // 检查文件类型
+        String suffix = StrUtil.nullToEmpty(FileUtil.getSuffix(originalFilename)).toLowerCase();
+        if (!rule.types().contains(suffix)) {
+            throw new BusinessException(ResultCode.FILE_TYPE_ERROR, rule.typeError());
+        }
+
+        // 检查文件大小
+        long maxSize = maxSizeByType.getOrDefault(suffix, rule.maxSize());
+        if (size > maxSize * 1024 * 1024) {
+            throw new BusinessException(ResultCode.FILE_SIZE_EXCEED, "文件大小不能超过" + maxSize + "MB");
+        }
+        return suffix;
+    }
+
+    /**
+     * 文件头是否与后缀声明的格式一致，没有签名的格式视为一致
+     */
+    public boolean matchesContent(String suffix, byte[] header, int length) {
+        FileSignature signature = signatures.get(suffix);
+        return signature == null || signature.matches(header, length);
+    }
+
+    private static Set<String> normalize(String[] types) {
+        Set<String> result = new HashSet<>();
+        for (String type : types) {
+            result.add(type.toLowerCase());
+        }
+        return Set.copyOf(result);
+    }
+
+    /**
+     * @param maxSize 默认大小上限（MB）
+     */
+    private record Rule(Set<String> types, long maxSize, String typeError) {
+    }
+}
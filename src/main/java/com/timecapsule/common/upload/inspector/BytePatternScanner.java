@@ -0,0 +1,85 @@
+package com.timecapsule.common.upload.inspector;
+
+import java.util.List;
+
+/**
+ * 流式字节特征匹配
+ * 保留上一段末尾的 (最长特征长度-1) 个字节，跨段出现的特征也能匹配到。
+ */
+class BytePatternScanner {
+
+    private final List<byte[]> patterns;
+
+    private final int overlap;
+
+    private final byte[] tail;
+
+    private int tailLength;
+
+    BytePatternScanner(List<byte[]> patterns) {
+        this.patterns = patterns;
+        this.overlap = patterns.stream().mapToInt(pattern -> pattern.length).max().orElse(1) - 1;
+        this.tail = new byte[overlap];
+    }
+
+    /**
+     * @return 匹配到的特征序号，未匹配返回-1
+     */
+    int update(byte[] buffer, int offset, int length) {
+        // 跨段部分：上一段末尾 + 本段开头
+        if (tailLength > 0) {
+            int head = Math.min(length, overlap);
+            byte[] boundary = new byte[tailLength + head];
+            System.arraycopy(tail, 0, boundary, 0, tailLength);
+            System.arraycopy(buffer, offset, boundary, tailLength, head);
+            int matched = search(boundary, 0, boundary.length);
+            if (matched >= 0) {
+                return matched;
+            }
+        }
+
+        int matched = search(buffer, offset, offset + length);
+        if (matched >= 0) {
+            return matched;
+        }
+
+        // 更新末尾窗口
+        if (length >= overlap) {
+            System.arraycopy(buffer, offset + length - overlap, tail, 0, overlap);
+            tailLength = overlap;
+        } else {
+            int keep = Math.min(tailLength, overlap - length);
+            System.arraycopy(tail, tailLength - keep, tail, 0, keep);
+            System.arraycopy(buffer, offset, tail, keep, length);
+            tailLength = keep + length;
+        }
+        return -1;
+    }
+
+    /**
+     * 在一段完整内容中查找，不影响流式匹配的状态
+     */
+    boolean matches(byte[] data, int from, int to) {
+        return search(data, from, to) >= 0;
+    }
+
+    private int search(byte[] data, int from, int to) {
+        for (int p = 0; p < patterns.size(); p++) {
+            byte[] pattern = patterns.get(p);
+            byte first = pattern[0];
+            outer:
+            for (int i = from; i <= to - pattern.length; i++) {
+                if (data[i] != first) {
+                    continue;
+                }
+                for (int j = 1; j < pattern.length; j++) {
+                    if (data[i + j] != pattern[j]) {
+                        continue outer;
+                    }
+                }
+                return p;
+            }
+        }
+        return -1;
+    }
+}
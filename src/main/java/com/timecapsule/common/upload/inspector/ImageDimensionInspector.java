@@ -0,0 +1,178 @@
+package com.timecapsule.common.upload.inspector;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 图片尺寸检查
+ * 只解析文件头中的尺寸字段（JPEG 为 SOF 段），不解码图片；超出限制的图片在写完之前即被拒绝，
+ * 避免后续生成缩略图时因超大图片耗尽内存。
+ */
+@Slf4j
+@Component
+@Order(10)
+@RequiredArgsConstructor
+public class ImageDimensionInspector implements UploadInspector {
+
+    /**
+     * JPEG 的 SOF 段可能位于较大的 EXIF 段之后，最多缓存这么多字节用于查找
+     */
+    private static final int MAX_JPEG_PREFIX = 256 * 1024;
+
+    private static final int MAX_PREFIX = 64;
+
+    private final FileUploadConfig fileUploadConfig;
+
+    @Override
+    public Inspection begin(String suffix) {
+        ImageFormat format = switch (suffix) {
+            case "jpg", "jpeg" -> ImageFormat.JPEG;
+            case "png" -> ImageFormat.PNG;
+            case "gif" -> ImageFormat.GIF;
+            case "webp" -> ImageFormat.WEBP;
+            default -> null;
+        };
+        return format == null ? null : new DimensionInspection(format);
+    }
+
+    private enum ImageFormat {
+        JPEG, PNG, GIF, WEBP
+    }
+
+    private class DimensionInspection implements Inspection {
+
+        private final ImageFormat format;
+
+        private byte[] prefix = new byte[MAX_PREFIX];
+
+        private int length;
+
+        private boolean done;
+
+        DimensionInspection(ImageFormat format) {
+            this.format = format;
+        }
+
+        @Override
+        public void update(byte[] buffer, int offset, int count) {
+            if (done) {
+                return;
+            }
+            int limit = format == ImageFormat.JPEG ? MAX_JPEG_PREFIX : MAX_PREFIX;
+            int copy = Math.min(count, limit - length);
+            if (length + copy > prefix.length) {
+                prefix = Arrays.copyOf(prefix, Math.min(limit, Math.max(prefix.length * 2, length + copy)));
+            }
+            System.arraycopy(buffer, offset, prefix, length, copy);
+            length += copy;
+
+            int[] dimensions = parse();
+            if (dimensions != null) {
+                check(dimensions[0], dimensions[1]);
+            } else if (length >= limit) {
+                done = true;
+                log.debug("未能在文件头中找到图片尺寸，跳过尺寸检查");
+            }
+        }
+
+        @Override
+        public void finish() {
+            done = true;
+            prefix = null;
+        }
+
+        private void check(int width, int height) {
+            done = true;
+            prefix = null;
+            FileUploadConfig.Inspection limits = fileUploadConfig.getInspection();
+            if (width <= 0 || height <= 0) {
+                throw new BusinessException(ResultCode.FILE_TYPE_ERROR, "图片尺寸无效");
+            }
+            if (width > limits.getMaxImageWidth() || height > limits.getMaxImageHeight()
+                    || (long) width * height > limits.getMaxImagePixels()) {
+                throw new BusinessException(ResultCode.FILE_SIZE_EXCEED,
+                        "图片尺寸不能超过" + limits.getMaxImageWidth() + "x" + limits.getMaxImageHeight());
+            }
+        }
+
+        /**
+         * @return {宽, 高}，数据不足时返回null
+         */
+        private int[] parse() {
+            return switch (format) {
+                case PNG -> length >= 24 ? new int[]{int32(16), int32(20)} : null;
+                case GIF -> length >= 10 ? new int[]{uint16le(6), uint16le(8)} : null;
+                case WEBP -> parseWebp();
+                case JPEG -> parseJpeg();
+            };
+        }
+
+        private int[] parseWebp() {
+            if (length < 30) {
+                return null;
+            }
+            return switch (new String(prefix, 12, 4, StandardCharsets.US_ASCII)) {
+                case "VP8 " -> new int[]{uint16le(26) & 0x3FFF, uint16le(28) & 0x3FFF};
+                case "VP8L" -> {
+                    int b0 = u8(21), b1 = u8(22), b2 = u8(23), b3 = u8(24);
+                    yield new int[]{1 + (((b1 & 0x3F) << 8) | b0), 1 + (((b3 & 0x0F) << 10) | (b2 << 2) | ((b1 & 0xC0) >> 6))};
+                }
+                case "VP8X" -> new int[]{1 + uint24le(24), 1 + uint24le(27)};
+                default -> new int[]{0, 0};
+            };
+        }
+
+        private int[] parseJpeg() {
+            int pos = 2;
+            while (pos + 4 <= length) {
+                if (u8(pos) != 0xFF) {
+                    return new int[]{0, 0};
+                }
+                int marker = u8(pos + 1);
+                if (marker == 0xFF) {
+                    // 填充字节
+                    pos++;
+                    continue;
+                }
+                if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD9)) {
+                    pos += 2;
+                    continue;
+                }
+                boolean sof = marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+                if (sof) {
+                    return pos + 9 <= length ? new int[]{uint16be(pos + 7), uint16be(pos + 5)} : null;
+                }
+                pos += 2 + uint16be(pos + 2);
+            }
+            return null;
+        }
+
+        private int u8(int index) {
+            return prefix[index] & 0xFF;
+        }
+
+        private int uint16be(int index) {
+            return (u8(index) << 8) | u8(index + 1);
+        }
+
+        private int uint16le(int index) {
+            return u8(index) | (u8(index + 1) << 8);
+        }
+
+        private int uint24le(int index) {
+            return u8(index) | (u8(index + 1) << 8) | (u8(index + 2) << 16);
+        }
+
+        private int int32(int index) {
+            return (u8(index) << 24) | (u8(index + 1) << 16) | (u8(index + 2) << 8) | u8(index + 3);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.timecapsule.common.upload.inspector;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 读取的同时把内容交给检查器，读到末尾时调用 finish
+ */
+public class InspectingInputStream extends FilterInputStream {
+
+    private static final int SKIP_BUFFER_SIZE = 8192;
+
+    private final UploadInspector.Inspection inspection;
+
+    private boolean finished;
+
+    public InspectingInputStream(InputStream in, UploadInspector.Inspection inspection) {
+        super(in);
+        this.inspection = inspection;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            finish();
+        } else {
+            inspection.update(new byte[]{(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n == -1) {
+            finish();
+        } else if (n > 0) {
+            inspection.update(b, off, n);
+        }
+        return n;
+    }
+
+    /**
+     * 跳过的内容同样要经过检查，按读取处理后丢弃
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] scratch = new byte[(int) Math.min(SKIP_BUFFER_SIZE, n)];
+        long remaining = n;
+        while (remaining > 0) {
+            int read = read(scratch, 0, (int) Math.min(scratch.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+        }
+        return n - remaining;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * 内容已读完时调用，只执行一次；未读到末尾（-1）时由调用方补充调用
+     */
+    public void finish() {
+        if (!finished) {
+            finished = true;
+            inspection.finish();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.timecapsule.common.upload.inspector;
+
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.upload.FileSignature;
+import com.timecapsule.common.upload.UploadPolicy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文件头检查：按魔数识别实际格式，与后缀不符时拒绝
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class MagicByteInspector implements UploadInspector {
+
+    private final UploadPolicy uploadPolicy;
+
+    @Override
+    public Inspection begin(String suffix) {
+        return new Inspection() {
+
+            private final byte[] header = new byte[FileSignature.HEADER_LENGTH];
+
+            private int length;
+
+            private boolean checked;
+
+            @Override
+            public void update(byte[] buffer, int offset, int count) {
+                if (checked) {
+                    return;
+                }
+                int copy = Math.min(count, header.length - length);
+                System.arraycopy(buffer, offset, header, length, copy);
+                length += copy;
+                if (length == header.length) {
+                    check();
+                }
+            }
+
+            @Override
+            public void finish() {
+                if (!checked) {
+                    check();
+                }
+            }
+
+            private void check() {
+                checked = true;
+                if (!uploadPolicy.matchesContent(suffix, header, length)) {
+                    throw new BusinessException(ResultCode.FILE_TYPE_ERROR, "文件内容与格式不符");
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,450 @@
+package com.timecapsule.common.upload.inspector;
+
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * PDF名称对象的流式扫描
+ * 按PDF词法识别完整的名称（/Name，支持 #xx 转义），跳过字符串、注释以及 stream 与 endstream 之间的数据，
+ * 压缩流中偶然出现的字节不会被误判。对象流（/Type /ObjStm）中的对象是压缩保存的，按 FlateDecode 解压后继续扫描；
+ * 使用其他过滤器（含加密）的对象流无法检查，直接拒绝。
+ */
+class PdfNameScanner {
+
+    /**
+     * 规范限制名称最长127字节，更长的名称不可能是要查找的名称
+     */
+    private static final int MAX_TOKEN_LENGTH = 127;
+
+    /**
+     * 解压后的对象流总大小上限，防止压缩炸弹
+     */
+    private static final long MAX_INFLATED_BYTES = 64L * 1024 * 1024;
+
+    private static final byte[] END_STREAM = "endstream".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * END_STREAM 的 KMP 失配表
+     */
+    private static final int[] END_STREAM_FAILURE = failureTable(END_STREAM);
+
+    private static final int NORMAL = 0;
+    private static final int COMMENT = 1;
+    private static final int NAME = 2;
+    private static final int KEYWORD = 3;
+    private static final int LITERAL_STRING = 4;
+    private static final int LESS_THAN = 5;
+    private static final int HEX_STRING = 6;
+    private static final int STREAM_EOL = 7;
+    private static final int STREAM_DATA = 8;
+
+    private final Set<String> names;
+
+    private final Lexer lexer = new Lexer(true);
+
+    private long inflatedBytes;
+
+    /**
+     * @param names 要查找的名称，不含开头的 /
+     */
+    PdfNameScanner(Set<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @return 匹配到的名称，未匹配返回null
+     */
+    String update(byte[] buffer, int offset, int length) {
+        return lexer.update(buffer, offset, length);
+    }
+
+    /**
+     * 内容结束，末尾未结束的名称同样参与匹配
+     */
+    String finish() {
+        return lexer.finish();
+    }
+
+    private static BusinessException unreadable() {
+        return new BusinessException(ResultCode.FILE_TYPE_ERROR, "无法检查PDF中的压缩对象");
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == 0 || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == ' ';
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c == '(' || c == ')' || c == '<' || c == '>' || c == '[' || c == ']'
+                || c == '{' || c == '}' || c == '/' || c == '%';
+    }
+
+    private static int hexValue(int c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int[] failureTable(byte[] pattern) {
+        int[] failure = new int[pattern.length];
+        for (int i = 1, k = 0; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+
+    /**
+     * 词法状态机；顶层实例处理对象和流，对象流解压后的内容由不处理流的内层实例扫描
+     */
+    private class Lexer {
+
+        private final boolean topLevel;
+
+        private int state = NORMAL;
+
+        private final byte[] token = new byte[MAX_TOKEN_LENGTH];
+
+        private int tokenLength;
+
+        private boolean tokenOverflow;
+
+        /**
+         * 名称中 # 转义的进度：0 无，1 已读 #，2 已读第一位十六进制
+         */
+        private int escape;
+
+        private int escapeHigh;
+
+        private int stringDepth;
+
+        private boolean stringEscape;
+
+        /**
+         * 当前对象的字典中出现过的名称，决定其后的流如何处理
+         */
+        private boolean objectStream;
+        private boolean flateFilter;
+        private boolean otherFilter;
+
+        private int endStreamMatched;
+
+        /**
+         * 对象流内容的扫描，非对象流为null
+         */
+        private Lexer inner;
+
+        private Inflater inflater;
+
+        private byte[] inflateBuffer;
+
+        Lexer(boolean topLevel) {
+            this.topLevel = topLevel;
+        }
+
+        String update(byte[] buffer, int offset, int length) {
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                if (state == STREAM_DATA) {
+                    int start = i;
+                    while (i < end && endStreamMatched < END_STREAM.length) {
+                        endStreamMatched = advance(endStreamMatched, buffer[i++]);
+                    }
+                    String matched = forward(buffer, start, i - start);
+                    if (matched != null) {
+                        return matched;
+                    }
+                    if (endStreamMatched == END_STREAM.length) {
+                        state = NORMAL;
+                        matched = endStream();
+                        if (matched != null) {
+                            return matched;
+                        }
+                    }
+                    continue;
+                }
+                String matched = accept(buffer[i++] & 0xff);
+                if (matched != null) {
+                    return matched;
+                }
+            }
+            return null;
+        }
+
+        String finish() {
+            if (state == NAME) {
+                state = NORMAL;
+                return endName();
+            }
+            return null;
+        }
+
+        private String accept(int c) {
+            switch (state) {
+                case COMMENT -> {
+                    if (c == '\r' || c == '\n') {
+                        state = NORMAL;
+                    }
+                    return null;
+                }
+                case LITERAL_STRING -> {
+                    if (stringEscape) {
+                        stringEscape = false;
+                    } else if (c == '\\') {
+                        stringEscape = true;
+                    } else if (c == '(') {
+                        stringDepth++;
+                    } else if (c == ')' && --stringDepth == 0) {
+                        state = NORMAL;
+                    }
+                    return null;
+                }
+                case LESS_THAN -> {
+                    // << 是字典开始，否则是十六进制字符串
+                    state = c == '<' || c == '>' ? NORMAL : HEX_STRING;
+                    return null;
+                }
+                case HEX_STRING -> {
+                    if (c == '>') {
+                        state = NORMAL;
+                    }
+                    return null;
+                }
+                case STREAM_EOL -> {
+                    // stream 关键字后是 CRLF 或 LF，数据从下一个字节开始
+                    state = STREAM_DATA;
+                    if (c != '\n') {
+                        endStreamMatched = advance(0, (byte) c);
+                        return forward(new byte[]{(byte) c}, 0, 1);
+                    }
+                    return null;
+                }
+                case NAME -> {
+                    if (!isWhitespace(c) && !isDelimiter(c)) {
+                        appendName(c);
+                        return null;
+                    }
+                    state = NORMAL;
+                    String matched = endName();
+                    String next = accept(c);
+                    return matched != null ? matched : next;
+                }
+                case KEYWORD -> {
+                    if (!isWhitespace(c) && !isDelimiter(c)) {
+                        append(c);
+                        return null;
+                    }
+                    state = NORMAL;
+                    if (endKeyword(c)) {
+                        return null;
+                    }
+                    return accept(c);
+                }
+                default -> {
+                    if (c == '%') {
+                        state = COMMENT;
+                    } else if (c == '(') {
+                        state = LITERAL_STRING;
+                        stringDepth = 1;
+                    } else if (c == '<') {
+                        state = LESS_THAN;
+                    } else if (c == '/') {
+                        state = NAME;
+                        startToken();
+                    } else if (!isWhitespace(c) && !isDelimiter(c)) {
+                        state = KEYWORD;
+                        startToken();
+                        append(c);
+                    }
+                    return null;
+                }
+            }
+        }
+
+        private void startToken() {
+            tokenLength = 0;
+            tokenOverflow = false;
+            escape = 0;
+        }
+
+        private void append(int c) {
+            if (tokenLength < token.length) {
+                token[tokenLength++] = (byte) c;
+            } else {
+                tokenOverflow = true;
+            }
+        }
+
+        private void appendName(int c) {
+            if (escape == 0) {
+                if (c == '#') {
+                    escape = 1;
+                } else {
+                    append(c);
+                }
+            } else if (escape == 1) {
+                escapeHigh = c;
+                escape = 2;
+            } else {
+                escape = 0;
+                int high = hexValue(escapeHigh);
+                int low = hexValue(c);
+                if (high >= 0 && low >= 0) {
+                    append(high << 4 | low);
+                } else {
+                    append('#');
+                    append(escapeHigh);
+                    append(c);
+                }
+            }
+        }
+
+        private String endName() {
+            if (escape == 1) {
+                append('#');
+            } else if (escape == 2) {
+                append('#');
+                append(escapeHigh);
+            }
+            if (tokenOverflow) {
+                return null;
+            }
+            String name = new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+            if (topLevel) {
+                switch (name) {
+                    case "ObjStm" -> objectStream = true;
+                    case "FlateDecode" -> flateFilter = true;
+                    default -> {
+                        if (name.endsWith("Decode") || "Crypt".equals(name)) {
+                            otherFilter = true;
+                        }
+                    }
+                }
+            }
+            return names.contains(name) ? name : null;
+        }
+
+        /**
+         * @param terminator 结束关键字的字符
+         * @return 进入流数据时返回true，结束字符属于流的换行
+         */
+        private boolean endKeyword(int terminator) {
+            if (!topLevel || tokenOverflow) {
+                return false;
+            }
+            String keyword = new String(token, 0, tokenLength, StandardCharsets.ISO_8859_1);
+            switch (keyword) {
+                case "obj", "endobj" -> resetObject();
+                case "stream" -> {
+                    beginStream();
+                    state = terminator == '\r' ? STREAM_EOL : STREAM_DATA;
+                    return true;
+                }
+                default -> {
+                }
+            }
+            return false;
+        }
+
+        private void resetObject() {
+            objectStream = false;
+            flateFilter = false;
+            otherFilter = false;
+        }
+
+        private void beginStream() {
+            endStreamMatched = 0;
+            if (!objectStream) {
+                return;
+            }
+            if (otherFilter) {
+                throw unreadable();
+            }
+            inner = new Lexer(false);
+            if (flateFilter) {
+                inflater = new Inflater();
+                inflateBuffer = new byte[8192];
+            }
+        }
+
+        private String endStream() {
+            // 压缩数据在 endstream 之前没有结束，说明内容不完整
+            boolean truncated = inflater != null && !inflater.finished();
+            String matched = inner != null ? inner.finish() : null;
+            if (inflater != null) {
+                inflater.end();
+            }
+            inner = null;
+            inflater = null;
+            inflateBuffer = null;
+            resetObject();
+            if (matched == null && truncated) {
+                throw unreadable();
+            }
+            return matched;
+        }
+
+        /**
+         * 流数据交给对象流的内层扫描，普通流直接跳过
+         */
+        private String forward(byte[] buffer, int offset, int length) {
+            if (inner == null || length == 0) {
+                return null;
+            }
+            if (inflater == null) {
+                return inner.update(buffer, offset, length);
+            }
+            if (inflater.finished()) {
+                return null;
+            }
+            inflater.setInput(buffer, offset, length);
+            try {
+                while (!inflater.finished()) {
+                    int n = inflater.inflate(inflateBuffer);
+                    if (n == 0) {
+                        if (inflater.needsDictionary()) {
+                            throw unreadable();
+                        }
+                        // 需要更多输入
+                        return null;
+                    }
+                    inflatedBytes += n;
+                    if (inflatedBytes > MAX_INFLATED_BYTES) {
+                        throw unreadable();
+                    }
+                    String matched = inner.update(inflateBuffer, 0, n);
+                    if (matched != null) {
+                        return matched;
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw unreadable();
+            }
+            return null;
+        }
+
+        private int advance(int matched, byte b) {
+            while (matched > 0 && END_STREAM[matched] != b) {
+                matched = END_STREAM_FAILURE[matched - 1];
+            }
+            return END_STREAM[matched] == b ? matched + 1 : 0;
+        }
+    }
+}
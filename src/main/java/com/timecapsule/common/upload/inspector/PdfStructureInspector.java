@@ -0,0 +1,83 @@
+package com.timecapsule.common.upload.inspector;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PDF结构检查
+ * 末尾必须有 %%EOF（截断或伪造的PDF会被拒绝），可选拒绝包含脚本、启动外部程序等主动内容的PDF。
+ * 主动内容按完整的名称对象匹配（见 {@link PdfNameScanner}），压缩流中的数据不参与匹配，对象流解压后检查。
+ */
+@Component
+@Order(20)
+@RequiredArgsConstructor
+public class PdfStructureInspector implements UploadInspector {
+
+    /**
+     * 规范允许 %%EOF 之后有少量空白或垃圾数据，只在末尾这么多字节内查找
+     */
+    private static final int TRAILER_LENGTH = 1024;
+
+    private static final byte[] EOF_MARKER = "%%EOF".getBytes(StandardCharsets.US_ASCII);
+
+    private static final Set<String> ACTIVE_CONTENT = Set.of("JavaScript", "JS", "Launch", "EmbeddedFile", "EmbeddedFiles");
+
+    private final FileUploadConfig fileUploadConfig;
+
+    @Override
+    public Inspection begin(String suffix) {
+        if (!"pdf".equals(suffix)) {
+            return null;
+        }
+        PdfNameScanner scanner = Boolean.TRUE.equals(fileUploadConfig.getInspection().getPdfRejectActiveContent())
+                ? new PdfNameScanner(ACTIVE_CONTENT)
+                : null;
+
+        return new Inspection() {
+
+            private final byte[] trailer = new byte[TRAILER_LENGTH];
+
+            private int trailerLength;
+
+            @Override
+            public void update(byte[] buffer, int offset, int length) {
+                if (scanner != null && scanner.update(buffer, offset, length) != null) {
+                    throw activeContent();
+                }
+
+                // 保留最后 TRAILER_LENGTH 个字节
+                if (length >= TRAILER_LENGTH) {
+                    System.arraycopy(buffer, offset + length - TRAILER_LENGTH, trailer, 0, TRAILER_LENGTH);
+                    trailerLength = TRAILER_LENGTH;
+                } else {
+                    int keep = Math.min(trailerLength, TRAILER_LENGTH - length);
+                    System.arraycopy(trailer, trailerLength - keep, trailer, 0, keep);
+                    System.arraycopy(buffer, offset, trailer, keep, length);
+                    trailerLength = keep + length;
+                }
+            }
+
+            @Override
+            public void finish() {
+                if (scanner != null && scanner.finish() != null) {
+                    throw activeContent();
+                }
+                if (!new BytePatternScanner(List.of(EOF_MARKER)).matches(trailer, 0, trailerLength)) {
+                    throw new BusinessException(ResultCode.FILE_TYPE_ERROR, "PDF文件不完整");
+                }
+            }
+        };
+    }
+
+    private static BusinessException activeContent() {
+        return new BusinessException(ResultCode.FILE_TYPE_ERROR, "不支持包含脚本或嵌入内容的PDF");
+    }
+}
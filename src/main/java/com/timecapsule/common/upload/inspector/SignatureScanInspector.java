@@ -0,0 +1,59 @@
+package com.timecapsule.common.upload.inspector;
+
+import cn.hutool.core.util.HexUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 恶意内容特征扫描
+ * 对所有格式按配置的十六进制特征做流式匹配，放在检查链最后，格式检查不通过的文件不再扫描。
+ */
+@Slf4j
+@Component
+@Order(100)
+@RequiredArgsConstructor
+public class SignatureScanInspector implements UploadInspector {
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private List<byte[]> signatures;
+
+    @PostConstruct
+    public void init() {
+        List<byte[]> compiled = new ArrayList<>();
+        for (String signature : fileUploadConfig.getInspection().getMalwareSignatures()) {
+            String hex = signature.replaceAll("\\s", "");
+            if (hex.isEmpty() || hex.length() % 2 != 0 || !HexUtil.isHexNumber("0x" + hex)) {
+                log.warn("忽略无效的恶意内容特征: {}", signature);
+                continue;
+            }
+            compiled.add(HexUtil.decodeHex(hex));
+        }
+        signatures = List.copyOf(compiled);
+        log.info("上传内容特征扫描已加载{}条特征", signatures.size());
+    }
+
+    @Override
+    public Inspection begin(String suffix) {
+        if (signatures.isEmpty()) {
+            return null;
+        }
+        BytePatternScanner scanner = new BytePatternScanner(signatures);
+        return (buffer, offset, length) -> {
+            int matched = scanner.update(buffer, offset, length);
+            if (matched >= 0) {
+                log.warn("上传内容命中恶意特征 - 格式: {}, 特征序号: {}", suffix, matched);
+                throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件未通过安全检查");
+            }
+        };
+    }
+}
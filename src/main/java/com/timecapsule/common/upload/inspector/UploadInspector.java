@@ -0,0 +1,34 @@
+package com.timecapsule.common.upload.inspector;
+
+/**
+ * 上传内容检查器
+ * 文件写入磁盘的同时按顺序接收字节流，不缓存整个文件，也不需要第二遍读取。
+ * 发现问题时抛出 BusinessException，上传随即中止并删除临时文件。
+ */
+public interface UploadInspector {
+
+    /**
+     * 为一次上传创建检查
+     *
+     * @param suffix 小写的文件后缀
+     * @return 不检查该格式时返回null
+     */
+    Inspection begin(String suffix);
+
+    /**
+     * 单次上传的检查状态
+     */
+    interface Inspection {
+
+        /**
+         * 接收下一段内容
+         */
+        void update(byte[] buffer, int offset, int length);
+
+        /**
+         * 内容接收完毕
+         */
+        default void finish() {
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.timecapsule.common.upload.inspector;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上传检查链，按 @Order 顺序执行所有 UploadInspector
+ */
+@Component
+public class UploadInspectorChain {
+
+    private final List<UploadInspector> inspectors;
+
+    public UploadInspectorChain(List<UploadInspector> inspectors) {
+        this.inspectors = List.copyOf(inspectors);
+    }
+
+    /**
+     * 为一次上传创建组合检查
+     */
+    public UploadInspector.Inspection begin(String suffix) {
+        List<UploadInspector.Inspection> inspections = new ArrayList<>(inspectors.size());
+        for (UploadInspector inspector : inspectors) {
+            UploadInspector.Inspection inspection = inspector.begin(suffix);
+            if (inspection != null) {
+                inspections.add(inspection);
+            }
+        }
+        return new CompositeInspection(inspections);
+    }
+
+    private record CompositeInspection(List<UploadInspector.Inspection> inspections) implements UploadInspector.Inspection {
+
+        @Override
+        public void update(byte[] buffer, int offset, int length) {
+            for (UploadInspector.Inspection inspection : inspections) {
+                inspection.update(buffer, offset, length);
+            }
+        }
+
+        @Override
+        public void finish() {
+            for (UploadInspector.Inspection inspection : inspections) {
+                inspection.finish();
+            }
+        }
+    }
+}
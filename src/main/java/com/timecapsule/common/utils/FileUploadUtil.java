@@ -1,22 +1,43 @@
 package com.timecapsule.common.utils;
 
-import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.StrUtil;
 import com.timecapsule.common.config.FileUploadConfig;
 import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.storage.BlobStorage;
+import com.timecapsule.common.storage.StorageUrlBuilder;
+import com.timecapsule.common.upload.FileSignature;
+import com.timecapsule.common.upload.UploadPolicy;
+import com.timecapsule.common.upload.inspector.InspectingInputStream;
+import com.timecapsule.common.upload.inspector.UploadInspector;
+import com.timecapsule.common.upload.inspector.UploadInspectorChain;
+import com.timecapsule.modules.file.entity.FileBlob;
+import com.timecapsule.modules.file.entity.FileRef;
+import com.timecapsule.modules.file.mapper.FileBlobMapper;
+import com.timecapsule.modules.file.mapper.FileRefMapper;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Date;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
 
 /**
  * 文件上传工具类
@@ -26,7 +47,29 @@ import java.util.Date;
 @RequiredArgsConstructor
 public class FileUploadUtil {
 
+    /**
+     * 单次 transferFrom 的最大字节数
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * 上传临时目录，与正式文件位于同一文件系统，保证移动是原子的
+     */
+    private static final String TEMP_DIR = "/.tmp";
+
+    private static final Pattern SHA256_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
     private final FileUploadConfig fileUploadConfig;
+    private final FileBlobMapper fileBlobMapper;
+    private final FileRefMapper fileRefMapper;
+    private final UploadPolicy uploadPolicy;
+    private final UploadInspectorChain inspectorChain;
+    private final BlobStorage blobStorage;
+    private final StorageUrlBuilder storageUrlBuilder;
+
+    private final Object[] blobLocks = newLocks(64);
+
+    private Path tempDirectory;
 
     @PostConstruct
     public void init() {
@@ -34,6 +77,10 @@ public class FileUploadUtil {
         createDirectory(fileUploadConfig.getUploadPath());
         createDirectory(fileUploadConfig.getUploadPath() + fileUploadConfig.getAvatarPath());
         createDirectory(fileUploadConfig.getUploadPath() + fileUploadConfig.getAttachmentPath());
+        createDirectory(fileUploadConfig.getUploadPath() + fileUploadConfig.getBlobPath());
+        createDirectory(fileUploadConfig.getUploadPath() + TEMP_DIR);
+
+        tempDirectory = Path.of(fileUploadConfig.getUploadPath() + TEMP_DIR);
     }
 
     /**
@@ -41,25 +88,15 @@ public class FileUploadUtil {
      */
     public String uploadAvatar(MultipartFile file, String userId) {
         // 验证文件
-        validateImageFile(file, fileUploadConfig.getMaxAvatarSize());
-
-        // 生成文件名
-        String originalFilename = file.getOriginalFilename();
-        String suffix = FileUtil.getSuffix(originalFilename);
-        String fileName = "avatar_" + userId + "_" + IdUtil.simpleUUID() + "." + suffix;
-
-        // 按日期分目录
-        String dateDir = DateUtil.format(new Date(), "yyyy/MM/dd");
-        String relativePath = fileUploadConfig.getAvatarPath() + "/" + dateDir + "/" + fileName;
-        String fullPath = fileUploadConfig.getUploadPath() + relativePath;
+        String suffix = checkFile(file, UploadPolicy.Category.AVATAR);
 
         // 保存文件
         try {
-            FileUtil.writeBytes(file.getBytes(), fullPath);
-            log.info("头像上传成功: {}", fullPath);
+            StoredBlob blob = storeBlob(file, suffix);
+            log.info("头像上传成功 - 用户: {}, 路径: {}, 已存在: {}", userId, blob.relativePath(), blob.existed());
 
             // 返回访问路径
-            return fileUploadConfig.getAccessPath() + relativePath;
+            return fileUploadConfig.getAccessPath() + blob.relativePath();
         } catch (IOException e) {
             log.error("头像上传失败", e);
             throw new BusinessException("头像上传失败");
@@ -71,93 +108,398 @@ public class FileUploadUtil {
      */
     public FileUploadResult uploadFile(MultipartFile file, String userId, String type) {
         // 验证文件
-        validateFile(file, fileUploadConfig.getMaxFileSize());
-
-        // 生成文件名
+        String suffix = checkFile(file, UploadPolicy.Category.ATTACHMENT);
         String originalFilename = file.getOriginalFilename();
-        String suffix = FileUtil.getSuffix(originalFilename);
-        String fileName = type + "_" + userId + "_" + IdUtil.simpleUUID() + "." + suffix;
-
-        // 按日期分目录
-        String dateDir = DateUtil.format(new Date(), "yyyy/MM/dd");
-        String relativePath = fileUploadConfig.getAttachmentPath() + "/" + dateDir + "/" + fileName;
-        String fullPath = fileUploadConfig.getUploadPath() + relativePath;
 
         // 保存文件
         try {
-            FileUtil.writeBytes(file.getBytes(), fullPath);
-            log.info("文件上传成功: {}", fullPath);
+            StoredBlob blob = storeBlob(file, suffix);
+            recordOwner(userId, blob.sha256());
+            log.info("文件上传成功 - 用户: {}, 类型: {}, 路径: {}, 已存在: {}", userId, type, blob.relativePath(), blob.existed());
 
             // 返回结果
-            FileUploadResult result = new FileUploadResult();
-            result.setFileName(originalFilename);
-            result.setFilePath(fileUploadConfig.getAccessPath() + relativePath);
-            result.setFileSize(file.getSize());
-            result.setFileType(suffix);
+            return toResult(originalFilename, suffix, blob);
+        } catch (IOException e) {
+            log.error("文件上传失败", e);
+            throw new BusinessException("文件上传失败");
+        }
+    }
 
-            return result;
+    /**
+     * 保存已在临时目录中组装完成的文件（分片上传），通过移动完成保存，不复制内容
+     *
+     * @param source         位于 getTempDirectory() 下的文件，保存后不再保留
+     * @param expectedSha256 客户端声明的SHA-256，不为空时校验内容
+     * @param userId         上传用户，登记为引用的持有者
+     */
+    public FileUploadResult storeAssembledFile(Path source, String originalFilename, String expectedSha256, String userId) {
+        String suffix = suffixOf(originalFilename);
+        try {
+            long size = Files.size(source);
+            // 分片可能乱序到达，只能在组装完成后读取一遍，同时计算摘要和检查内容
+            WrittenFile written = new WrittenFile(size, digest(source, inspectorChain.begin(suffix)));
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(written.sha256())) {
+                throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件校验失败，请重新上传");
+            }
+            StoredBlob blob = storeBlob(source, written, suffix);
+            recordOwner(userId, blob.sha256());
+            log.info("分片文件保存成功 - 路径: {}, 已存在: {}", blob.relativePath(), blob.existed());
+            return toResult(originalFilename, suffix, blob);
         } catch (IOException e) {
             log.error("文件上传失败", e);
             throw new BusinessException("文件上传失败");
+        } finally {
+            FileUtil.del(source);
         }
     }
 
     /**
-     * 删除文件
+     * 秒传：内容已存在时直接增加引用
+     *
+     * @return 内容不存在时返回null
      */
-    public boolean deleteFile(String filePath) {
-        if (StrUtil.isBlank(filePath)) {
-            return false;
+    public FileUploadResult reuseBlob(String sha256, String originalFilename, String userId) {
+        String hash = sha256.toLowerCase();
+        synchronized (blobLock(hash)) {
+            FileBlob existing = fileBlobMapper.selectBySha256(hash);
+            if (existing == null || fileBlobMapper.incrementRef(hash) == 0) {
+                return null;
+            }
+            recordOwner(userId, hash);
+            log.info("秒传命中 - 路径: {}", existing.getPath());
+            return toResult(originalFilename, suffixOf(originalFilename),
+                    new StoredBlob(existing.getPath(), existing.getSize(), hash, true));
         }
+    }
 
-        // 转换为实际路径
-        String realPath = filePath.replace(fileUploadConfig.getAccessPath(), fileUploadConfig.getUploadPath());
+    /**
+     * 客户端直传到存储时使用的key，与服务端保存的去重路径一致
+     */
+    public String directUploadKey(String sha256, String originalFilename) {
+        return storageKey(blobRelativePath(sha256.toLowerCase(), suffixOf(originalFilename)));
+    }
 
+    /**
+     * 登记客户端直传到存储的文件
+     * 预签名请求包含内容的SHA-256，存储已校验过内容与摘要一致，这里只确认大小和文件头
+     */
+    public FileUploadResult registerDirectUpload(String sha256, String originalFilename, long expectedSize, String userId) {
+        String hash = sha256.toLowerCase();
+        String suffix = suffixOf(originalFilename);
+        String relativePath = blobRelativePath(hash, suffix);
+        String key = storageKey(relativePath);
         try {
-            return FileUtil.del(realPath);
-        } catch (Exception e) {
-            log.error("删除文件失败: {}", realPath, e);
+            synchronized (blobLock(hash)) {
+                FileBlob existing = fileBlobMapper.selectBySha256(hash);
+                if (existing != null && fileBlobMapper.incrementRef(hash) > 0) {
+                    recordOwner(userId, hash);
+                    return toResult(originalFilename, suffix, new StoredBlob(existing.getPath(), existing.getSize(), hash, true));
+                }
+
+                long size = blobStorage.size(key);
+                if (size < 0) {
+                    throw new BusinessException(ResultCode.OPERATION_FAILED, "文件尚未上传完成");
+                }
+                if (size != expectedSize) {
+                    blobStorage.delete(key);
+                    throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "文件大小不一致，请重新上传");
+                }
+                byte[] header = blobStorage.readHead(key, FileSignature.HEADER_LENGTH);
+                if (!uploadPolicy.matchesContent(suffix, header, header.length)) {
+                    blobStorage.delete(key);
+                    throw new BusinessException(ResultCode.FILE_TYPE_ERROR, "文件内容与格式不符");
+                }
+
+                StoredBlob blob = insertBlob(hash, relativePath, size);
+                recordOwner(userId, hash);
+                log.info("直传文件登记成功 - 路径: {}, 已存在: {}", blob.relativePath(), blob.existed());
+                return toResult(originalFilename, suffix, blob);
+            }
+        } catch (IOException e) {
+            log.error("直传文件登记失败: {}", key, e);
+            throw new BusinessException("文件上传失败");
+        }
+    }
+
+    /**
+     * 上传临时目录，与正式文件位于同一文件系统
+     */
+    public Path getTempDirectory() {
+        return tempDirectory;
+    }
+
+    /**
+     * 用户删除自己上传的文件
+     * 先删除该用户持有的一条引用记录，成功后才释放一次内容引用，最后一个引用释放时删除文件。
+     * 无法确认归属的旧版路径不允许删除。
+     *
+     * @return 用户没有持有该文件的引用时返回false
+     */
+    public boolean deleteFile(String filePath, String userId) {
+        String sha256 = blobSha256(filePath);
+        if (sha256 == null || userId == null) {
+            return false;
+        }
+        if (fileRefMapper.deleteOne(userId, sha256) == 0) {
+            log.warn("用户未持有文件引用，拒绝删除 - 用户: {}, 路径: {}", userId, filePath);
             return false;
         }
+        return releaseBlob(sha256);
     }
 
     /**
-     * 验证图片文件
+     * 是否为本服务管理的文件路径（以访问路径前缀开头）
      */
-    private void validateImageFile(MultipartFile file, Long maxSize) {
-        if (file == null || file.isEmpty()) {
-            throw new BusinessException("请选择要上传的文件");
+    public boolean isManagedPath(String filePath) {
+        return filePath != null && filePath.startsWith(fileUploadConfig.getAccessPath() + "/");
+    }
+
+    /**
+     * 为已存在的去重文件增加一次引用，用于把已上传的文件设为头像等由其他记录持有引用的场景
+     *
+     * @return 不是去重存储的路径或内容不存在时返回false
+     */
+    public boolean acquireReference(String filePath) {
+        String sha256 = blobSha256(filePath);
+        if (sha256 == null) {
+            return false;
+        }
+        synchronized (blobLock(sha256)) {
+            return fileBlobMapper.incrementRef(sha256) > 0;
+        }
+    }
+
+    /**
+     * 释放由其他记录（如 tc_user.avatar）持有的一次引用，调用方需确认该记录确实持有这次引用
+     * 旧版路径无法确认是否被其他记录使用，不做处理
+     */
+    public void releaseReference(String filePath) {
+        String sha256 = blobSha256(filePath);
+        if (sha256 != null) {
+            releaseBlob(sha256);
+        }
+    }
+
+    /**
+     * 按内容SHA-256去重保存
+     * 内容已存在时只增加引用数并返回已有路径，否则移动到 blob/ab/cd/{sha256}.{suffix}
+     */
+    private StoredBlob storeBlob(MultipartFile file, String suffix) throws IOException {
+        Path temp = Files.createTempFile(getTempDirectory(), "upload-", ".tmp");
+        try {
+            return storeBlob(temp, writeStreaming(file, temp, suffix), suffix);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 将临时目录中已写好的文件按内容去重保存，未被移动走的临时文件由调用方删除
+     */
+    private StoredBlob storeBlob(Path temp, WrittenFile written, String suffix) throws IOException {
+        String sha256 = written.sha256();
+
+        synchronized (blobLock(sha256)) {
+            FileBlob existing = fileBlobMapper.selectBySha256(sha256);
+            if (existing != null && fileBlobMapper.incrementRef(sha256) > 0) {
+                String existingKey = storageKey(existing.getPath());
+                if (!blobStorage.exists(existingKey)) {
+                    // 存储中的文件丢失时用本次内容补回
+                    blobStorage.put(existingKey, temp, contentType(existingKey));
+                }
+                return new StoredBlob(existing.getPath(), written.size(), sha256, true);
+            }
+
+            String relativePath = blobRelativePath(sha256, suffix);
+            blobStorage.put(storageKey(relativePath), temp, contentType(relativePath));
+            return insertBlob(sha256, relativePath, written.size());
         }
+    }
 
-        // 检查文件大小
-        if (file.getSize() > maxSize * 1024 * 1024) {
-            throw new BusinessException("文件大小不能超过" + maxSize + "MB");
+    /**
+     * 登记新内容，需持有内容锁
+     */
+    private StoredBlob insertBlob(String sha256, String relativePath, long size) {
+        FileBlob blob = new FileBlob();
+        blob.setSha256(sha256);
+        blob.setPath(relativePath);
+        blob.setSize(size);
+        blob.setRefCount(1);
+        try {
+            fileBlobMapper.insert(blob);
+        } catch (DuplicateKeyException e) {
+            // 其他节点同时写入了相同内容
+            fileBlobMapper.incrementRef(sha256);
+            return new StoredBlob(fileBlobMapper.selectBySha256(sha256).getPath(), size, sha256, true);
         }
+        return new StoredBlob(relativePath, size, sha256, false);
+    }
 
-        // 检查文件类型
-        String suffix = FileUtil.getSuffix(file.getOriginalFilename()).toLowerCase();
-        if (!Arrays.asList(fileUploadConfig.getAllowedImageTypes()).contains(suffix)) {
-            throw new BusinessException("不支持的图片格式");
+    /**
+     * 释放一次引用，最后一个引用释放时按登记的路径删除文件
+     */
+    private boolean releaseBlob(String sha256) {
+        synchronized (blobLock(sha256)) {
+            FileBlob existing = fileBlobMapper.selectBySha256(sha256);
+            if (existing == null || fileBlobMapper.decrementRef(sha256) == 0) {
+                return false;
+            }
+            if (fileBlobMapper.deleteUnreferenced(sha256) > 0) {
+                String key = storageKey(existing.getPath());
+                try {
+                    blobStorage.delete(key);
+                    log.info("文件引用已全部释放，删除文件: {}", key);
+                } catch (IOException e) {
+                    log.error("删除文件失败: {}", key, e);
+                }
+            }
+            return true;
         }
     }
 
     /**
-     * 验证文件
+     * 回收没有登记记录的去重文件（保存中途失败遗留）
+     * 在内容锁内再次确认没有记录，避免与同一内容的并发上传冲突
+     *
+     * @param quarantineTarget 隔离区中的目标路径，为null时直接删除
+     * @return 是否已回收
      */
-    private void validateFile(MultipartFile file, Long maxSize) {
+    public boolean reclaimOrphanBlob(Path file, Path quarantineTarget) throws IOException {
+        String sha256 = FileUtil.mainName(file.getFileName().toString());
+        if (sha256 == null || sha256.length() != 64) {
+            return false;
+        }
+
+        synchronized (blobLock(sha256)) {
+            if (fileBlobMapper.selectBySha256(sha256) != null) {
+                return false;
+            }
+            if (quarantineTarget == null) {
+                return Files.deleteIfExists(file);
+            }
+            Files.createDirectories(quarantineTarget.getParent());
+            Files.move(file, quarantineTarget, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        }
+    }
+
+    /**
+     * 去重存储路径中的SHA-256
+     *
+     * @return 不是去重存储的路径时返回null
+     */
+    private String blobSha256(String filePath) {
+        String blobPrefix = fileUploadConfig.getAccessPath() + fileUploadConfig.getBlobPath() + "/";
+        if (StrUtil.isBlank(filePath) || !filePath.startsWith(blobPrefix) || filePath.contains("..")) {
+            return null;
+        }
+        String sha256 = FileUtil.mainName(filePath);
+        return sha256 != null && SHA256_PATTERN.matcher(sha256).matches() ? sha256 : null;
+    }
+
+    /**
+     * 登记用户持有的引用
+     */
+    private void recordOwner(String userId, String sha256) {
+        FileRef ref = new FileRef();
+        ref.setUserId(userId);
+        ref.setSha256(sha256);
+        fileRefMapper.insert(ref);
+    }
+
+    /**
+     * 以 / 开头的相对路径转为存储key
+     */
+    private String storageKey(String relativePath) {
+        return relativePath.startsWith("/") ? relativePath.substring(1) : relativePath;
+    }
+
+    private String suffixOf(String filename) {
+        return StrUtil.nullToEmpty(FileUtil.getSuffix(filename)).toLowerCase();
+    }
+
+    private String contentType(String path) {
+        return MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+
+    private FileUploadResult toResult(String originalFilename, String suffix, StoredBlob blob) {
+        FileUploadResult result = new FileUploadResult();
+        result.setFileName(originalFilename);
+        result.setFilePath(fileUploadConfig.getAccessPath() + blob.relativePath());
+        result.setUrl(storageUrlBuilder.build(blob.relativePath()));
+        result.setFileSize(blob.size());
+        result.setFileType(suffix);
+        result.setChecksum(blob.sha256());
+        return result;
+    }
+
+    private String blobRelativePath(String sha256, String suffix) {
+        return fileUploadConfig.getBlobPath() + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4)
+                + "/" + sha256 + (StrUtil.isBlank(suffix) ? "" : "." + suffix.toLowerCase());
+    }
+
+    /**
+     * 同一内容的保存与释放在本节点内串行执行，避免释放时删除了刚被重新引用的文件
+     */
+    private Object blobLock(String sha256) {
+        return blobLocks[Integer.parseInt(sha256.substring(0, 2), 16) % blobLocks.length];
+    }
+
+    /**
+     * 流式写入文件
+     * 边写边计算大小和SHA-256，同时交给检查链校验内容，内容不会整体读入堆内存。
+     */
+    private WrittenFile writeStreaming(MultipartFile file, Path target, String suffix) throws IOException {
+        MessageDigest digest = newSha256();
+        try (InspectingInputStream in = new InspectingInputStream(
+                new DigestInputStream(file.getInputStream(), digest), inspectorChain.begin(suffix));
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ReadableByteChannel channel = Channels.newChannel(in);
+            long size = 0;
+            long transferred;
+            while ((transferred = out.transferFrom(channel, size, TRANSFER_CHUNK_SIZE)) > 0) {
+                size += transferred;
+            }
+            in.finish();
+            out.force(false);
+            return new WrittenFile(size, HexUtil.encodeHexStr(digest.digest()));
+        }
+    }
+
+    /**
+     * 校验文件名和大小
+     *
+     * @return 小写的文件后缀
+     */
+    private String checkFile(MultipartFile file, UploadPolicy.Category category) {
         if (file == null || file.isEmpty()) {
             throw new BusinessException("请选择要上传的文件");
         }
+        return uploadPolicy.check(category, file.getOriginalFilename(), file.getSize());
+    }
 
-        // 检查文件大小
-        if (file.getSize() > maxSize * 1024 * 1024) {
-            throw new BusinessException("文件大小不能超过" + maxSize + "MB");
+    /**
+     * 读取一遍文件计算SHA-256，读取的内容同时交给检查链
+     */
+    private String digest(Path file, UploadInspector.Inspection inspection) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[(int) TRANSFER_CHUNK_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+                inspection.update(buffer, 0, n);
+            }
         }
+        inspection.finish();
+        return HexUtil.encodeHexStr(digest.digest());
+    }
 
-        // 检查文件类型
-        String suffix = FileUtil.getSuffix(file.getOriginalFilename()).toLowerCase();
-        if (!Arrays.asList(fileUploadConfig.getAllowedFileTypes()).contains(suffix)) {
-            throw new BusinessException("不支持的文件格式");
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -178,8 +520,36 @@ public class FileUploadUtil {
     @Data
     public static class FileUploadResult {
         private String fileName;
+        /**
+         * 文件路径（以访问路径前缀开头，用于保存和删除）
+         */
         private String filePath;
+        /**
+         * 访问地址（CDN地址或对象存储的预签名地址）
+         */
+        private String url;
         private Long fileSize;
         private String fileType;
+        /**
+         * 文件内容的SHA-256（十六进制）
+         */
+        private String checksum;
+    }
+
+    private static Object[] newLocks(int size) {
+        Object[] locks = new Object[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private record WrittenFile(long size, String sha256) {
+    }
+
+    /**
+     * @param existed 内容是否已存在（命中去重）
+     */
+    private record StoredBlob(String relativePath, long size, String sha256, boolean existed) {
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.timecapsule.common.utils;
 
 import cn.hutool.core.date.DateUtil;
+import com.timecapsule.common.security.VerifiedToken;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -23,6 +24,21 @@ import java.util.Map;
 @Component
 public class JwtUtils {
 
+    /**
+     * Token类型声明
+     */
+    public static final String CLAIM_TYPE = "typ";
+
+    /**
+     * 访问Token，用于调用接口
+     */
+    public static final String TYPE_ACCESS = "access";
+
+    /**
+     * 刷新Token，只能用于换取新的访问Token
+     */
+    public static final String TYPE_REFRESH = "refresh";
+
     @Value("${app.jwt.secret}")
     private String secret;
 
@@ -32,6 +48,27 @@ public class JwtUtils {
     @Value("${app.jwt.refresh-expire-time}")
     private Long refreshExpireTime;
 
+    /**
+     * 签名密钥（启动时构建，全局复用）
+     */
+    private SecretKey secretKey;
+
+    /**
+     * Token解析器（线程安全，启动时构建，全局复用）
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * 初始化密钥和解析器
+     */
+    @PostConstruct
+    public void init() {
+        validateSecretKey();
+        secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+    }
 
     /**
      * 生成Token
@@ -45,11 +82,13 @@ public class JwtUtils {
                 .claim("username", username)
                 .setIssuedAt(now)
                 .setExpiration(expireDate)
-                .signWith(getSecretKey(), SignatureAlgorithm.HS512);
+                .signWith(secretKey, SignatureAlgorithm.HS512);
 
         if (claims != null && !claims.isEmpty()) {
             builder.addClaims(claims);
         }
+        // 最后写入类型，调用方传入的声明不能覆盖
+        builder.claim(CLAIM_TYPE, TYPE_ACCESS);
 
         return builder.compact();
     }
@@ -70,9 +109,10 @@ public class JwtUtils {
 
         return Jwts.builder()
                 .setSubject(userId)
+                .claim(CLAIM_TYPE, TYPE_REFRESH)
                 .setIssuedAt(now)
                 .setExpiration(expireDate)
-                .signWith(getSecretKey(), SignatureAlgorithm.HS512)
+                .signWith(secretKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -81,11 +121,7 @@ public class JwtUtils {
      */
     public Claims parseToken(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSecretKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException e) {
             log.error("Token已过期: {}", e.getMessage());
             throw e;
@@ -95,6 +131,31 @@ public class JwtUtils {
         }
     }
 
+    /**
+     * 校验并解析Token，签名校验和声明解析只执行一次
+     *
+     * @return 校验通过的Token，无效或已过期时返回null
+     */
+    public VerifiedToken verifyToken(String token) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.before(new Date())) {
+                return null;
+            }
+            return new VerifiedToken(token, claims);
+        } catch (ExpiredJwtException e) {
+            log.warn("Token已过期: {}", e.getMessage());
+            return null;
+        } catch (JwtException e) {
+            log.warn("无效的Token: {}", e.getMessage());
+            return null;
+        } catch (Exception e) {
+            log.error("Token验证异常: {}", e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * 获取用户ID
      */
@@ -175,6 +236,7 @@ public class JwtUtils {
             claims.remove(Claims.EXPIRATION);
             claims.remove(Claims.SUBJECT);
             claims.remove("username");
+            claims.remove(CLAIM_TYPE);
 
             return generateToken(userId, username, claims);
         } catch (Exception e) {
@@ -183,24 +245,9 @@ public class JwtUtils {
         }
     }
 
-    /**
-     * 获取密钥
-     */
-    /**
-     * 获取密钥（改进版）
-     */
-    private SecretKey getSecretKey() {
-        // 验证密钥长度
-        validateSecretKey();
-
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     /**
      * 验证密钥是否符合要求
      */
-    @PostConstruct
     private void validateSecretKey() {
         if (secret == null || secret.trim().isEmpty()) {
             throw new IllegalStateException("JWT密钥不能为空");
@@ -0,0 +1,54 @@
+package com.timecapsule.common.utils;
+
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 滚动分页标识工具类
+ * 将排序键 (create_time, id) 编码为 URL 安全的不透明字符串，下一页以此为起点做 seek 查询，
+ * 避免深分页时的 OFFSET 扫描。
+ */
+public class ScrollIdUtils {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 滚动分页位置
+     */
+    public record Cursor(LocalDateTime createTime, Long id) {
+    }
+
+    /**
+     * 编码滚动分页标识
+     */
+    public static String encode(LocalDateTime createTime, Long id) {
+        String raw = createTime.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码滚动分页标识
+     *
+     * @return 为空时返回null，表示从第一页开始
+     */
+    public static Cursor decode(String scrollId) {
+        if (scrollId == null || scrollId.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(scrollId), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index < 0) {
+                throw new BusinessException(ResultCode.PARAM_FORMAT_ERROR, "scrollId格式错误");
+            }
+            return new Cursor(LocalDateTime.parse(raw.substring(0, index)), Long.parseLong(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException(ResultCode.PARAM_FORMAT_ERROR, "scrollId格式错误");
+        }
+    }
+}
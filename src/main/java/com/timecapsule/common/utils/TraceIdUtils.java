@@ -1,10 +1,14 @@
 package com.timecapsule.common.utils;
 
 import org.slf4j.MDC;
-import java.util.UUID;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 链路追踪ID工具类
+ * 追踪ID为32位小写十六进制（128位），与 W3C Trace Context 的 trace-id 格式一致，
+ * 可直接从上游的 traceparent 请求头中继承。
  *
  * @author 时光信笺
  * @date 2024-01-01
@@ -13,11 +17,60 @@ public class TraceIdUtils {
 
     private static final String TRACE_ID = "traceId";
 
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int TRACE_ID_LENGTH = 32;
+
+    /**
+     * traceparent 格式：{version}-{trace-id}-{parent-id}-{flags}，如 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01
+     */
+    private static final int TRACEPARENT_LENGTH = 55;
+
     /**
      * 生成追踪ID
+     * 使用线程本地随机数，无锁竞争；追踪ID只需唯一，不需要密码学安全。
      */
     public static String generateTraceId() {
-        return UUID.randomUUID().toString().replace("-", "");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = random.nextLong();
+        long low = random.nextLong();
+        if (high == 0 && low == 0) {
+            // W3C 规定全0的 trace-id 无效
+            low = 1;
+        }
+        byte[] chars = new byte[TRACE_ID_LENGTH];
+        writeHex(high, chars, 0);
+        writeHex(low, chars, 16);
+        return new String(chars, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 从 W3C traceparent 请求头中取出 trace-id
+     * version、parent-id、flags 都必须是小写十六进制；trace-id 与 parent-id 不能全为0。
+     *
+     * @return 格式不正确时返回null
+     */
+    public static String fromTraceparent(String traceparent) {
+        if (traceparent == null || traceparent.length() < TRACEPARENT_LENGTH
+                || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-' || traceparent.charAt(52) != '-') {
+            return null;
+        }
+        if (!isLowerHex(traceparent, 0, 2) || traceparent.startsWith("ff")) {
+            // 版本 ff 无效
+            return null;
+        }
+        if (traceparent.length() > TRACEPARENT_LENGTH) {
+            // 版本 00 长度固定；未知的更高版本按规范只解析前缀，前缀之后必须以 - 分隔
+            if (traceparent.startsWith("00") || traceparent.charAt(TRACEPARENT_LENGTH) != '-') {
+                return null;
+            }
+        }
+        if (!isLowerHex(traceparent, 3, 35) || isAllZero(traceparent, 3, 35)
+                || !isLowerHex(traceparent, 36, 52) || isAllZero(traceparent, 36, 52)
+                || !isLowerHex(traceparent, 53, 55)) {
+            return null;
+        }
+        return traceparent.substring(3, 35);
     }
 
     /**
@@ -45,4 +98,30 @@ public class TraceIdUtils {
     public static void clear() {
         MDC.remove(TRACE_ID);
     }
-}
\ No newline at end of file
+
+    private static boolean isLowerHex(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAllZero(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeHex(long value, byte[] target, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            target[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.timecapsule.modules.file.controller;
+
+import com.timecapsule.common.result.Result;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.ChunkUploadInitRequest;
+import com.timecapsule.modules.file.service.ChunkUploadService;
+import com.timecapsule.modules.file.vo.ChunkUploadVO;
+import com.timecapsule.modules.user.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * 分片上传控制器
+ * 流程：init 获取 uploadId → 并行 PUT 各分片（请求体为分片原始字节）→ complete；
+ * 中断后通过 GET 查询已接收的分片，只补传缺失部分。
+ */
+@RestController
+@RequestMapping("/api/v1/file/chunk")
+@RequiredArgsConstructor
+@Tag(name = "分片上传", description = "大文件断点续传接口")
+public class ChunkUploadController {
+
+    private final ChunkUploadService chunkUploadService;
+    private final UserService userService;
+
+    @PostMapping("/init")
+    @Operation(summary = "初始化分片上传")
+    public Result<ChunkUploadVO> init(@Valid @RequestBody ChunkUploadInitRequest request) {
+        return Result.success(chunkUploadService.init(request, userService.getCurrentUser().getUserId()));
+    }
+
+    @PutMapping(value = "/{uploadId}/{index}", consumes = "application/octet-stream")
+    @Operation(summary = "上传分片")
+    public Result<ChunkUploadVO> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable Integer index,
+            HttpServletRequest request) throws IOException {
+        return Result.success(chunkUploadService.uploadChunk(uploadId, index, request.getInputStream(),
+                userService.getCurrentUser().getUserId()));
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "查询已上传的分片")
+    public Result<ChunkUploadVO> getStatus(@PathVariable String uploadId) {
+        return Result.success(chunkUploadService.getStatus(uploadId, userService.getCurrentUser().getUserId()));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "完成分片上传")
+    public Result<FileUploadUtil.FileUploadResult> complete(@PathVariable String uploadId) {
+        return Result.success(chunkUploadService.complete(uploadId, userService.getCurrentUser().getUserId()));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "取消分片上传")
+    public Result<Void> abort(@PathVariable String uploadId) {
+        chunkUploadService.abort(uploadId, userService.getCurrentUser().getUserId());
+        return Result.success();
+    }
+}
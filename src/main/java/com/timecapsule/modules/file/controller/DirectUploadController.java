@@ -0,0 +1,42 @@
+package com.timecapsule.modules.file.controller;
+
+import com.timecapsule.common.result.Result;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.DirectUploadRequest;
+import com.timecapsule.modules.file.service.DirectUploadService;
+import com.timecapsule.modules.file.vo.DirectUploadVO;
+import com.timecapsule.modules.user.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 直传控制器（仅对象存储可用）
+ * 流程：init 获取预签名地址（内容已存在时直接返回结果）→ 客户端直接上传到存储 → complete 登记文件。
+ */
+@RestController
+@RequestMapping("/api/v1/file/direct")
+@RequiredArgsConstructor
+@Tag(name = "直传", description = "客户端直传对象存储接口")
+public class DirectUploadController {
+
+    private final DirectUploadService directUploadService;
+    private final UserService userService;
+
+    @PostMapping("/init")
+    @Operation(summary = "申请直传地址")
+    public Result<DirectUploadVO> init(@Valid @RequestBody DirectUploadRequest request) {
+        return Result.success(directUploadService.init(request, userService.getCurrentUser().getUserId()));
+    }
+
+    @PostMapping("/complete")
+    @Operation(summary = "完成直传")
+    public Result<FileUploadUtil.FileUploadResult> complete(@Valid @RequestBody DirectUploadRequest request) {
+        return Result.success(directUploadService.complete(request, userService.getCurrentUser().getUserId()));
+    }
+}
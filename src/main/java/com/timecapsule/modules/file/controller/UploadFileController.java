@@ -0,0 +1,240 @@
+package com.timecapsule.modules.file.controller;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.storage.BlobStorage;
+import com.timecapsule.common.storage.StorageUrlBuilder;
+import com.timecapsule.modules.file.service.ThumbnailService;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 上传文件访问控制器
+ * 替代静态资源映射，支持：
+ * - 强ETag（去重存储的文件直接使用文件名中的SHA-256，无需读取文件）与 If-None-Match / If-Modified-Since 304
+ * - 单区间 Range / If-Range 断点下载
+ * - Tomcat sendfile 零拷贝传输，容器不支持时使用 FileChannel.transferTo
+ * - ?size= 缩略图
+ * 使用对象存储时，去重存储的文件重定向到CDN或预签名地址，不经过本服务传输。
+ */
+@Slf4j
+@Hidden
+@RestController
+@RequiredArgsConstructor
+public class UploadFileController {
+
+    private static final Pattern SHA256_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * 小于该大小的文件直接写出，sendfile 的额外开销不划算
+     */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private static final CacheControl DEFAULT_CACHE = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
+    private final FileUploadConfig fileUploadConfig;
+    private final ThumbnailService thumbnailService;
+    private final BlobStorage blobStorage;
+    private final StorageUrlBuilder storageUrlBuilder;
+
+    private Path uploadRoot;
+
+    private String blobPrefix;
+
+    @PostConstruct
+    public void init() {
+        uploadRoot = Path.of(fileUploadConfig.getUploadPath()).toAbsolutePath().normalize();
+        blobPrefix = StrUtil.removePrefix(fileUploadConfig.getBlobPath(), "/") + "/";
+    }
+
+    @RequestMapping(value = "${app.file.access-path:/upload}/**", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String relativePath = resolveRelativePath(request);
+        if (relativePath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        if (!blobStorage.isLocal() && relativePath.startsWith(blobPrefix)) {
+            // 预签名地址有有效期，重定向本身不缓存
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            response.sendRedirect(storageUrlBuilder.build(relativePath));
+            return;
+        }
+
+        Path file = uploadRoot.resolve(relativePath).normalize();
+        if (!file.startsWith(uploadRoot) || !Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String mainName = FileUtil.mainName(relativePath);
+        boolean contentAddressed = SHA256_PATTERN.matcher(mainName).matches();
+
+        // 缩略图
+        String etagSuffix = "";
+        boolean thumbnailFallback = false;
+        String size = request.getParameter("size");
+        if (size != null && NumberUtil.isInteger(size) && thumbnailService.supports(relativePath)) {
+            int resolvedSize = thumbnailService.resolveSize(Integer.parseInt(size));
+            Path thumbnail = thumbnailService.getThumbnail(relativePath, resolvedSize);
+            if (thumbnail != null) {
+                file = thumbnail;
+                etagSuffix = "-" + resolvedSize;
+            } else {
+                // 缩略图暂未生成（繁忙或失败），临时返回原图，不能让客户端长期缓存为该尺寸的结果
+                thumbnailFallback = true;
+            }
+        }
+
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        boolean immutable = contentAddressed && !thumbnailFallback;
+        String etag = immutable
+                ? "\"" + mainName + etagSuffix + "\""
+                : "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + etagSuffix + "\"";
+
+        // 设置 ETag / Last-Modified，命中时返回304
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        CacheControl cacheControl = thumbnailFallback ? CacheControl.noCache() : immutable ? IMMUTABLE : DEFAULT_CACHE;
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setContentType(MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        HttpRange range = rangeHeader != null && length > 0 && rangeApplies(request, etag, lastModified)
+                ? parseSingleRange(rangeHeader)
+                : null;
+        if (range != null) {
+            if (range.getRangeStart(length) >= length) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if (RequestMethod.HEAD.name().equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // 由 Tomcat 在请求处理结束后直接从文件发送到socket
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toFile().getCanonicalPath());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, end + 1);
+            return;
+        }
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = in.transferTo(position, end + 1 - position, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+        } catch (IOException e) {
+            // 客户端中断下载
+            log.debug("文件传输中断: {}, 原因: {}", relativePath, e.getMessage());
+        }
+    }
+
+    /**
+     * 访问路径之后的相对路径，包含隐藏目录（临时文件等）或越界的路径返回null
+     */
+    private String resolveRelativePath(HttpServletRequest request) {
+        String prefix = request.getContextPath() + fileUploadConfig.getAccessPath() + "/";
+        String uri = request.getRequestURI();
+        if (!uri.startsWith(prefix)) {
+            return null;
+        }
+        String path = UriUtils.decode(uri.substring(prefix.length()), StandardCharsets.UTF_8);
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || segment.startsWith(".") || segment.contains("\\")) {
+                return null;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * If-Range 与当前版本一致（或未携带）时才按区间返回，否则返回完整内容
+     */
+    private boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        if (ifRange.startsWith("W/")) {
+            // 弱ETag不能用于 If-Range
+            return false;
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since >= 0 && lastModified / 1000 == since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 仅支持单区间；多区间或格式错误的 Range 头按规范忽略，返回完整内容
+     */
+    private HttpRange parseSingleRange(String rangeHeader) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
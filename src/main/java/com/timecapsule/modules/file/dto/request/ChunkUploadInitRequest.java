@@ -0,0 +1,33 @@
+package com.timecapsule.modules.file.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 分片上传初始化请求
+ */
+@Data
+public class ChunkUploadInitRequest {
+
+    @NotBlank(message = "文件名不能为空")
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    private Long fileSize;
+
+    /**
+     * 分片大小（字节），为空时使用默认值
+     */
+    @Positive(message = "分片大小必须大于0")
+    private Integer chunkSize;
+
+    /**
+     * 文件SHA-256（可选），完成时校验
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "SHA-256格式不正确")
+    private String sha256;
+}
@@ -0,0 +1,28 @@
+package com.timecapsule.modules.file.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * 直传请求（申请上传地址和完成上传共用）
+ */
+@Data
+public class DirectUploadRequest {
+
+    @NotBlank(message = "文件名不能为空")
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @Positive(message = "文件大小必须大于0")
+    private Long fileSize;
+
+    /**
+     * 文件SHA-256，存储按此校验上传的内容
+     */
+    @NotBlank(message = "SHA-256不能为空")
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "SHA-256格式不正确")
+    private String sha256;
+}
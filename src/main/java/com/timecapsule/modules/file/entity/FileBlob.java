@@ -0,0 +1,58 @@
+package com.timecapsule.modules.file.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容实体（按SHA-256去重存储）
+ * 引用数归零时物理删除，因此不继承带逻辑删除的 BaseEntity。
+ */
+@Data
+@TableName("tc_file_blob")
+public class FileBlob implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 内容SHA-256（十六进制，唯一）
+     */
+    private String sha256;
+
+    /**
+     * 相对上传根路径的存储路径
+     */
+    private String path;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long size;
+
+    /**
+     * 引用数
+     */
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,43 @@
+package com.timecapsule.modules.file.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 用户持有的文件引用
+ * 用户每上传一次文件（包括秒传）登记一条，删除文件时必须先删除自己的一条记录才能释放 tc_file_blob 的引用数；
+ * 头像的引用由 tc_user.avatar 持有，不在此登记。
+ */
+@Data
+@TableName("tc_file_ref")
+public class FileRef implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 内容SHA-256
+     */
+    private String sha256;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,38 @@
+package com.timecapsule.modules.file.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.timecapsule.modules.file.entity.FileBlob;
+import org.apache.ibatis.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 文件内容Mapper
+ * 引用数的增减在数据库中原子完成
+ */
+@Mapper
+public interface FileBlobMapper extends BaseMapper<FileBlob> {
+
+    @Select("SELECT * FROM tc_file_blob WHERE sha256 = #{sha256} LIMIT 1")
+    FileBlob selectBySha256(@Param("sha256") String sha256);
+
+    @Update("UPDATE tc_file_blob SET ref_count = ref_count + 1, update_time = NOW() WHERE sha256 = #{sha256}")
+    int incrementRef(@Param("sha256") String sha256);
+
+    @Update("UPDATE tc_file_blob SET ref_count = ref_count - 1, update_time = NOW() WHERE sha256 = #{sha256} AND ref_count > 0")
+    int decrementRef(@Param("sha256") String sha256);
+
+    /**
+     * 仅在引用数为0时删除，并发新增引用时不会误删
+     */
+    @Delete("DELETE FROM tc_file_blob WHERE sha256 = #{sha256} AND ref_count = 0")
+    int deleteUnreferenced(@Param("sha256") String sha256);
+
+    /**
+     * 批量查询已登记的内容，用于孤立文件回收
+     */
+    @Select("<script>SELECT sha256 FROM tc_file_blob WHERE sha256 IN "
+            + "<foreach collection='sha256s' item='sha256' open='(' separator=',' close=')'>#{sha256}</foreach></script>")
+    List<String> selectExistingSha256(@Param("sha256s") Collection<String> sha256s);
+}
@@ -0,0 +1,22 @@
+package com.timecapsule.modules.file.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.timecapsule.modules.file.entity.FileRef;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 用户文件引用Mapper
+ */
+@Mapper
+public interface FileRefMapper extends BaseMapper<FileRef> {
+
+    /**
+     * 删除用户持有的一条引用
+     *
+     * @return 用户没有持有该内容的引用时返回0
+     */
+    @Delete("DELETE FROM tc_file_ref WHERE user_id = #{userId} AND sha256 = #{sha256} LIMIT 1")
+    int deleteOne(@Param("userId") String userId, @Param("sha256") String sha256);
+}
@@ -0,0 +1,38 @@
+package com.timecapsule.modules.file.service;
+
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.ChunkUploadInitRequest;
+import com.timecapsule.modules.file.vo.ChunkUploadVO;
+
+import java.io.InputStream;
+
+/**
+ * 分片上传服务接口
+ */
+public interface ChunkUploadService {
+
+    /**
+     * 初始化上传会话，预分配目标文件
+     */
+    ChunkUploadVO init(ChunkUploadInitRequest request, String userId);
+
+    /**
+     * 写入一个分片，同一会话的不同分片可并行上传
+     */
+    ChunkUploadVO uploadChunk(String uploadId, int index, InputStream content, String userId);
+
+    /**
+     * 查询已接收的分片
+     */
+    ChunkUploadVO getStatus(String uploadId, String userId);
+
+    /**
+     * 所有分片接收完成后保存文件
+     */
+    FileUploadUtil.FileUploadResult complete(String uploadId, String userId);
+
+    /**
+     * 取消上传并删除临时文件
+     */
+    void abort(String uploadId, String userId);
+}
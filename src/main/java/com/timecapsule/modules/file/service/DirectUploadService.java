@@ -0,0 +1,22 @@
+package com.timecapsule.modules.file.service;
+
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.DirectUploadRequest;
+import com.timecapsule.modules.file.vo.DirectUploadVO;
+
+/**
+ * 直传服务接口
+ * 客户端使用预签名地址直接上传到对象存储，文件内容不经过本服务
+ */
+public interface DirectUploadService {
+
+    /**
+     * 申请上传地址，内容已存在时直接完成（秒传）
+     */
+    DirectUploadVO init(DirectUploadRequest request, String userId);
+
+    /**
+     * 上传到存储后登记文件
+     */
+    FileUploadUtil.FileUploadResult complete(DirectUploadRequest request, String userId);
+}
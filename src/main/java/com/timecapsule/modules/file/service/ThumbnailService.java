@@ -0,0 +1,34 @@
+package com.timecapsule.modules.file.service;
+
+import java.nio.file.Path;
+
+/**
+ * 图片缩略图服务接口
+ */
+public interface ThumbnailService {
+
+    /**
+     * 是否支持生成缩略图（按后缀判断）
+     */
+    boolean supports(String relativePath);
+
+    /**
+     * 将请求的尺寸对齐到配置的档位
+     */
+    int resolveSize(int requestedSize);
+
+    /**
+     * 获取缩略图，缓存未命中时生成，同一缩略图并发请求只生成一次
+     *
+     * @param relativePath 相对上传根路径的原图路径
+     * @return 缩略图文件，原图不存在、无法解码或生成超时时返回null
+     */
+    Path getThumbnail(String relativePath, int size);
+
+    /**
+     * 后台预生成所有尺寸的缩略图
+     *
+     * @param accessUrl 原图访问路径（以 accessPath 开头）
+     */
+    void generateAsync(String accessUrl);
+}
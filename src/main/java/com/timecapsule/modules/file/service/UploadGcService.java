@@ -0,0 +1,13 @@
+package com.timecapsule.modules.file.service;
+
+/**
+ * 孤立上传文件回收服务接口
+ */
+public interface UploadGcService {
+
+    /**
+     * 扫描上传目录，回收没有被引用的文件
+     * 按检查点增量执行，单次执行受时间和速率限制，未扫描完的部分下次继续
+     */
+    void collectOrphans();
+}
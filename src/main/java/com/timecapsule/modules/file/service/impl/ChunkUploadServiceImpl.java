@@ -0,0 +1,369 @@
+package com.timecapsule.modules.file.service.impl;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.upload.UploadPolicy;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.ChunkUploadInitRequest;
+import com.timecapsule.modules.file.service.ChunkUploadService;
+import com.timecapsule.modules.file.vo.ChunkUploadVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 分片上传服务实现
+ * 初始化时按文件大小预分配临时文件，各分片通过 FileChannel 按偏移量直接写入最终位置，
+ * 分片可乱序、并行上传；全部接收后临时文件直接移动为正式文件，不再复制合并。
+ * 会话保存在本节点内存中，同一上传的请求需路由到同一节点。
+ * 临时文件在初始化时即占用磁盘，按用户限制进行中的会话数，并限制本节点预分配的总大小。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkUploadServiceImpl implements ChunkUploadService {
+
+    private static final String CHUNK_DIR = "chunks";
+
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    private static final int MAX_CHUNK_SIZE = 50 * 1024 * 1024;
+
+    private final FileUploadConfig fileUploadConfig;
+    private final FileUploadUtil fileUploadUtil;
+    private final UploadPolicy uploadPolicy;
+
+    private Path chunkDirectory;
+
+    private Cache<String, ChunkSession> sessions;
+
+    /**
+     * 各用户进行中的会话数，与 reservedBytes 一起由 reservationLock 保护
+     */
+    private final Map<String, Integer> sessionsByUser = new HashMap<>();
+
+    /**
+     * 进行中的会话预分配的总字节数
+     */
+    private long reservedBytes;
+
+    private final Object reservationLock = new Object();
+
+    @PostConstruct
+    public void init() throws IOException {
+        chunkDirectory = fileUploadUtil.getTempDirectory().resolve(CHUNK_DIR);
+        // 会话只保存在内存中，重启前未完成的临时文件已无法续传
+        FileUtil.del(chunkDirectory);
+        Files.createDirectories(chunkDirectory);
+
+        sessions = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofHours(fileUploadConfig.getChunkSessionExpireHours()))
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String uploadId, ChunkSession session, RemovalCause cause) -> {
+                    if (session != null) {
+                        session.release();
+                        releaseReservation(session);
+                    }
+                })
+                .build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sessions.invalidateAll();
+    }
+
+    @Override
+    public ChunkUploadVO init(ChunkUploadInitRequest request, String userId) {
+        uploadPolicy.check(UploadPolicy.Category.CHUNKED, request.getFileName(), request.getFileSize());
+
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : fileUploadConfig.getChunkSize() * 1024;
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new BusinessException(ResultCode.PARAM_VALUE_ERROR,
+                    "分片大小需在" + MIN_CHUNK_SIZE / 1024 + "KB到" + MAX_CHUNK_SIZE / 1024 / 1024 + "MB之间");
+        }
+
+        reserve(userId, request.getFileSize());
+
+        String uploadId = IdUtil.simpleUUID();
+        Path partFile = chunkDirectory.resolve(uploadId + ".part");
+        FileChannel channel;
+        try (RandomAccessFile file = new RandomAccessFile(partFile.toFile(), "rw")) {
+            // 预分配文件长度，分片直接写入对应偏移量
+            file.setLength(request.getFileSize());
+            channel = FileChannel.open(partFile, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            FileUtil.del(partFile);
+            unreserve(userId, request.getFileSize());
+            log.error("分片上传初始化失败", e);
+            throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
+        }
+
+        ChunkSession session = new ChunkSession(uploadId, userId, request.getFileName(), request.getFileSize(),
+                chunkSize, request.getSha256(), partFile, channel);
+        sessions.put(uploadId, session);
+        log.info("分片上传初始化 - 用户: {}, 上传ID: {}, 文件: {}, 大小: {}, 分片数: {}",
+                userId, uploadId, request.getFileName(), request.getFileSize(), session.totalChunks);
+        return session.toVO();
+    }
+
+    @Override
+    public ChunkUploadVO uploadChunk(String uploadId, int index, InputStream content, String userId) {
+        ChunkSession session = getSession(uploadId, userId);
+        if (index < 0 || index >= session.totalChunks) {
+            throw new BusinessException(ResultCode.PARAM_VALUE_ERROR, "分片序号超出范围");
+        }
+
+        long position = (long) index * session.chunkSize;
+        long expectedLength = Math.min(session.chunkSize, session.fileSize - position);
+
+        // 写入期间持有读锁，完成或释放会话时等待写入结束，之后的写入被拒绝
+        session.lock.readLock().lock();
+        try {
+            if (session.closed) {
+                throw new BusinessException(ResultCode.NOT_FOUND, "上传会话不存在或已过期");
+            }
+
+            // 按偏移量写入，不改变通道位置，多个分片可并发写入
+            long written = 0;
+            try {
+                ReadableByteChannel in = Channels.newChannel(content);
+                long transferred;
+                while (written < expectedLength
+                        && (transferred = session.channel.transferFrom(in, position + written, expectedLength - written)) > 0) {
+                    written += transferred;
+                }
+                // 多余的内容说明分片边界不一致
+                if (written == expectedLength && content.read() != -1) {
+                    written++;
+                }
+            } catch (IOException e) {
+                log.warn("分片写入失败 - 上传ID: {}, 分片: {}, 原因: {}", uploadId, index, e.getMessage());
+                throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED, "分片写入失败，请重试");
+            }
+
+            if (written != expectedLength) {
+                throw new BusinessException(ResultCode.PARAM_VALUE_ERROR,
+                        "分片" + index + "大小应为" + expectedLength + "字节");
+            }
+
+            session.markReceived(index);
+        } finally {
+            session.lock.readLock().unlock();
+        }
+        return session.toVO();
+    }
+
+    @Override
+    public ChunkUploadVO getStatus(String uploadId, String userId) {
+        return getSession(uploadId, userId).toVO();
+    }
+
+    @Override
+    public FileUploadUtil.FileUploadResult complete(String uploadId, String userId) {
+        ChunkSession session = getSession(uploadId, userId);
+        // 写锁等待进行中的分片写入结束，并发的完成请求只有一个能执行
+        session.lock.writeLock().lock();
+        try {
+            if (session.closed) {
+                throw new BusinessException(ResultCode.NOT_FOUND, "上传会话不存在或已过期");
+            }
+            int missing = session.totalChunks - session.receivedCount();
+            if (missing > 0) {
+                throw new BusinessException(ResultCode.OPERATION_FAILED, "还有" + missing + "个分片未上传");
+            }
+            session.closed = true;
+
+            try {
+                session.channel.force(false);
+                session.channel.close();
+            } catch (IOException e) {
+                log.error("分片文件落盘失败 - 上传ID: {}", uploadId, e);
+                throw new BusinessException(ResultCode.FILE_UPLOAD_FAILED);
+            }
+
+            FileUploadUtil.FileUploadResult result =
+                    fileUploadUtil.storeAssembledFile(session.partFile, session.fileName, session.sha256, userId);
+            log.info("分片上传完成 - 用户: {}, 上传ID: {}, 路径: {}", userId, uploadId, result.getFilePath());
+            return result;
+        } finally {
+            if (session.closed) {
+                sessions.invalidate(uploadId);
+                releaseReservation(session);
+            }
+            session.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void abort(String uploadId, String userId) {
+        ChunkSession session = getSession(uploadId, userId);
+        sessions.invalidate(uploadId);
+        // 移除监听异步执行，名额在这里立即归还
+        releaseReservation(session);
+        log.info("分片上传已取消 - 用户: {}, 上传ID: {}", userId, uploadId);
+    }
+
+    /**
+     * 占用一个会话名额和预分配空间，超出上限时拒绝
+     */
+    private void reserve(String userId, long fileSize) {
+        long maxReservedBytes = fileUploadConfig.getChunkMaxReservedSize() * 1024 * 1024;
+        synchronized (reservationLock) {
+            int open = sessionsByUser.getOrDefault(userId, 0);
+            if (open >= fileUploadConfig.getChunkMaxSessionsPerUser()) {
+                throw new BusinessException(ResultCode.TOO_MANY_REQUESTS,
+                        "进行中的分片上传不能超过" + fileUploadConfig.getChunkMaxSessionsPerUser() + "个，请先完成或取消");
+            }
+            if (reservedBytes + fileSize > maxReservedBytes) {
+                log.warn("分片上传预分配空间已满 - 用户: {}, 已占用: {}, 请求: {}", userId, reservedBytes, fileSize);
+                throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "上传繁忙，请稍后再试");
+            }
+            sessionsByUser.put(userId, open + 1);
+            reservedBytes += fileSize;
+        }
+    }
+
+    /**
+     * 归还会话占用的名额，完成、取消和过期都会调用，只生效一次
+     */
+    private void releaseReservation(ChunkSession session) {
+        if (session.reserved.compareAndSet(true, false)) {
+            unreserve(session.userId, session.fileSize);
+        }
+    }
+
+    private void unreserve(String userId, long fileSize) {
+        synchronized (reservationLock) {
+            sessionsByUser.computeIfPresent(userId, (key, open) -> open > 1 ? open - 1 : null);
+            reservedBytes -= fileSize;
+        }
+    }
+
+    private ChunkSession getSession(String uploadId, String userId) {
+        ChunkSession session = sessions.getIfPresent(uploadId);
+        if (session == null) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "上传会话不存在或已过期");
+        }
+        if (!session.userId.equals(userId)) {
+            throw new BusinessException(ResultCode.FORBIDDEN);
+        }
+        return session;
+    }
+
+    /**
+     * 分片上传会话
+     */
+    private static class ChunkSession {
+
+        private final String uploadId;
+        private final String userId;
+        private final String fileName;
+        private final long fileSize;
+        private final int chunkSize;
+        private final int totalChunks;
+        private final String sha256;
+        private final Path partFile;
+        private final FileChannel channel;
+
+        /**
+         * 已接收的分片，读写均需持有会话锁
+         */
+        private final BitSet received;
+
+        /**
+         * 分片写入持有读锁，可并发；完成和释放持有写锁
+         */
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        /**
+         * 是否仍占用会话名额和预分配空间
+         */
+        private final AtomicBoolean reserved = new AtomicBoolean(true);
+
+        /**
+         * 已完成或已释放，之后的写入被拒绝，需持有 lock 读写
+         */
+        private boolean closed;
+
+        ChunkSession(String uploadId, String userId, String fileName, long fileSize, int chunkSize,
+                     String sha256, Path partFile, FileChannel channel) {
+            this.uploadId = uploadId;
+            this.userId = userId;
+            this.fileName = fileName;
+            this.fileSize = fileSize;
+            this.chunkSize = chunkSize;
+            this.totalChunks = (int) ((fileSize + chunkSize - 1) / chunkSize);
+            this.sha256 = sha256;
+            this.partFile = partFile;
+            this.channel = channel;
+            this.received = new BitSet(totalChunks);
+        }
+
+        synchronized void markReceived(int index) {
+            received.set(index);
+        }
+
+        synchronized int receivedCount() {
+            return received.cardinality();
+        }
+
+        synchronized ChunkUploadVO toVO() {
+            List<Integer> receivedChunks = new ArrayList<>(received.cardinality());
+            received.stream().forEach(receivedChunks::add);
+
+            ChunkUploadVO vo = new ChunkUploadVO();
+            vo.setUploadId(uploadId);
+            vo.setFileName(fileName);
+            vo.setFileSize(fileSize);
+            vo.setChunkSize(chunkSize);
+            vo.setTotalChunks(totalChunks);
+            vo.setReceivedChunks(receivedChunks);
+            return vo;
+        }
+
+        /**
+         * 关闭通道并删除未完成的临时文件（已完成的文件已被移走）
+         */
+        void release() {
+            lock.writeLock().lock();
+            try {
+                closed = true;
+                channel.close();
+                Files.deleteIfExists(partFile);
+            } catch (IOException e) {
+                log.warn("清理分片临时文件失败: {}", partFile, e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.timecapsule.modules.file.service.impl;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.storage.BlobStorage;
+import com.timecapsule.common.storage.PresignedUpload;
+import com.timecapsule.common.upload.UploadPolicy;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.DirectUploadRequest;
+import com.timecapsule.modules.file.service.DirectUploadService;
+import com.timecapsule.modules.file.vo.DirectUploadVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 直传服务实现
+ * 上传地址按内容SHA-256生成，与服务端去重保存的路径一致；预签名包含摘要，存储拒绝内容不一致的上传。
+ * 内容不经过本服务，因此只校验大小和文件头，不执行完整的内容检查链。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DirectUploadServiceImpl implements DirectUploadService {
+
+    private final FileUploadConfig fileUploadConfig;
+    private final FileUploadUtil fileUploadUtil;
+    private final UploadPolicy uploadPolicy;
+    private final BlobStorage blobStorage;
+
+    @Override
+    public DirectUploadVO init(DirectUploadRequest request, String userId) {
+        uploadPolicy.check(UploadPolicy.Category.CHUNKED, request.getFileName(), request.getFileSize());
+        if (blobStorage.isLocal()) {
+            throw new BusinessException(ResultCode.OPERATION_FAILED, "当前存储不支持直传，请使用分片上传");
+        }
+
+        DirectUploadVO vo = new DirectUploadVO();
+        FileUploadUtil.FileUploadResult existing = fileUploadUtil.reuseBlob(request.getSha256(), request.getFileName(), userId);
+        if (existing != null) {
+            log.info("直传秒传 - 用户: {}, 文件: {}", userId, request.getFileName());
+            vo.setInstant(true);
+            vo.setFile(existing);
+            return vo;
+        }
+
+        String key = fileUploadUtil.directUploadKey(request.getSha256(), request.getFileName());
+        String contentType = MediaTypeFactory.getMediaType(request.getFileName())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+        PresignedUpload presigned = blobStorage.presignUpload(key, contentType, request.getFileSize(),
+                request.getSha256(), Duration.ofMinutes(fileUploadConfig.getStorage().getPresignExpireMinutes()));
+
+        vo.setInstant(false);
+        vo.setUploadUrl(presigned.url());
+        vo.setMethod(presigned.method());
+        vo.setHeaders(presigned.headers());
+        vo.setExpireTime(LocalDateTime.ofInstant(presigned.expireTime(), ZoneId.systemDefault()));
+        log.info("直传地址已生成 - 用户: {}, 文件: {}, key: {}", userId, request.getFileName(), key);
+        return vo;
+    }
+
+    @Override
+    public FileUploadUtil.FileUploadResult complete(DirectUploadRequest request, String userId) {
+        uploadPolicy.check(UploadPolicy.Category.CHUNKED, request.getFileName(), request.getFileSize());
+        FileUploadUtil.FileUploadResult result =
+                fileUploadUtil.registerDirectUpload(request.getSha256(), request.getFileName(), request.getFileSize(),
+                        userId);
+        log.info("直传完成 - 用户: {}, 路径: {}", userId, result.getFilePath());
+        return result;
+    }
+}
@@ -0,0 +1,277 @@
+package com.timecapsule.modules.file.service.impl;
+
+import cn.hutool.core.io.FileUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.modules.file.service.ThumbnailService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * 图片缩略图服务实现
+ * 使用 ImageIO + Java2D 居中裁剪为正方形并逐级缩小，不依赖本地图像库。
+ * 缩略图保存在独立的缓存目录中，按总大小淘汰；缓存可随时清空，下次访问时重新生成。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThumbnailServiceImpl implements ThumbnailService {
+
+    private static final Set<String> SUPPORTED_TYPES = Set.of("jpg", "jpeg", "png", "gif");
+
+    private final FileUploadConfig fileUploadConfig;
+
+    private Path uploadRoot;
+
+    private Path thumbnailRoot;
+
+    private int[] sizes;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 缩略图索引：相对缩略图目录的路径 -> 文件大小，淘汰时删除对应文件
+     */
+    private Cache<String, Long> index;
+
+    /**
+     * 生成中的缩略图，同一缩略图的并发请求共享同一次生成
+     */
+    private final ConcurrentMap<String, CompletableFuture<Path>> inflight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        uploadRoot = Path.of(fileUploadConfig.getUploadPath()).toAbsolutePath().normalize();
+        thumbnailRoot = Path.of(fileUploadConfig.getUploadPath() + fileUploadConfig.getThumbnailPath()).toAbsolutePath().normalize();
+        Files.createDirectories(thumbnailRoot);
+        sizes = Arrays.stream(fileUploadConfig.getThumbnailSizes()).mapToInt(Integer::intValue).sorted().toArray();
+
+        executor = new ThreadPoolExecutor(fileUploadConfig.getThumbnailThreads(), fileUploadConfig.getThumbnailThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileUploadConfig.getThumbnailQueueCapacity()),
+                new CustomizableThreadFactory("thumbnail-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        index = Caffeine.newBuilder()
+                .maximumWeight(fileUploadConfig.getThumbnailCacheMaxSize() * 1024 * 1024)
+                .weigher((String key, Long size) -> (int) Math.min(size, Integer.MAX_VALUE))
+                .removalListener((String key, Long size, RemovalCause cause) -> {
+                    if (key != null && cause.wasEvicted()) {
+                        FileUtil.del(thumbnailRoot.resolve(key));
+                    }
+                })
+                .build();
+
+        // 重建已有缩略图的索引
+        try (Stream<Path> files = Files.walk(thumbnailRoot)) {
+            files.filter(Files::isRegularFile).forEach(file -> index.put(
+                    FileUtil.normalize(thumbnailRoot.relativize(file).toString()), file.toFile().length()));
+        }
+        log.info("缩略图服务初始化完成，已有缩略图：{}，尺寸：{}", index.estimatedSize(), Arrays.toString(sizes));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean supports(String relativePath) {
+        return SUPPORTED_TYPES.contains(FileUtil.getSuffix(relativePath).toLowerCase());
+    }
+
+    @Override
+    public int resolveSize(int requestedSize) {
+        for (int size : sizes) {
+            if (size >= requestedSize) {
+                return size;
+            }
+        }
+        return sizes[sizes.length - 1];
+    }
+
+    @Override
+    public Path getThumbnail(String relativePath, int size) {
+        String key = thumbnailKey(relativePath, size);
+        if (key == null) {
+            return null;
+        }
+
+        // 原图已删除时不再返回缓存的缩略图
+        if (!Files.isRegularFile(uploadRoot.resolve(stripLeadingSlash(relativePath)))) {
+            return null;
+        }
+
+        Path thumbnail = thumbnailRoot.resolve(key);
+        if (index.getIfPresent(key) != null && Files.exists(thumbnail)) {
+            return thumbnail;
+        }
+
+        CompletableFuture<Path> future = submit(relativePath, size, key);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get(fileUploadConfig.getThumbnailWaitMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.debug("缩略图生成超时，返回原图: {}", key);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void generateAsync(String accessUrl) {
+        if (accessUrl == null || !accessUrl.startsWith(fileUploadConfig.getAccessPath() + "/")) {
+            return;
+        }
+        String relativePath = accessUrl.substring(fileUploadConfig.getAccessPath().length());
+        if (!supports(relativePath)) {
+            return;
+        }
+        for (int size : sizes) {
+            String key = thumbnailKey(relativePath, size);
+            if (key != null && index.getIfPresent(key) == null) {
+                submit(relativePath, size, key);
+            }
+        }
+    }
+
+    /**
+     * 提交生成任务，已有相同任务时复用
+     *
+     * @return 线程池已满时返回null
+     */
+    private CompletableFuture<Path> submit(String relativePath, int size, String key) {
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inflight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(generate(relativePath, size, key));
+                } catch (Exception e) {
+                    log.warn("缩略图生成失败: {}, 原因: {}", relativePath, e.getMessage());
+                    future.completeExceptionally(e);
+                } finally {
+                    inflight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inflight.remove(key, future);
+            log.debug("缩略图生成队列已满: {}", key);
+            return null;
+        }
+        return future;
+    }
+
+    private Path generate(String relativePath, int size, String key) throws IOException {
+        Path target = thumbnailRoot.resolve(key);
+        if (Files.exists(target)) {
+            index.put(key, Files.size(target));
+            return target;
+        }
+
+        Path source = uploadRoot.resolve(stripLeadingSlash(relativePath)).normalize();
+        if (!source.startsWith(uploadRoot) || source.startsWith(thumbnailRoot) || !Files.isRegularFile(source)) {
+            return null;
+        }
+
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            // ImageIO 无法解码的格式直接返回原图
+            return null;
+        }
+
+        String format = FileUtil.getSuffix(key);
+        BufferedImage thumbnail = resize(image, size, "png".equals(format));
+
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".thumb-", ".tmp");
+        try {
+            ImageIO.write(thumbnail, format, temp.toFile());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        index.put(key, Files.size(target));
+        return target;
+    }
+
+    /**
+     * 居中裁剪为正方形后缩放；每次最多缩小一半，避免一次大比例缩放产生锯齿
+     */
+    private BufferedImage resize(BufferedImage source, int size, boolean keepAlpha) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        BufferedImage current = source.getSubimage(
+                (source.getWidth() - side) / 2, (source.getHeight() - side) / 2, side, side);
+        int imageType = keepAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        int currentSize = side;
+        do {
+            currentSize = Math.max(size, currentSize / 2);
+            BufferedImage next = new BufferedImage(currentSize, currentSize, imageType);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!keepAlpha) {
+                    // JPEG 不支持透明，透明区域填充白色
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, currentSize, currentSize);
+                }
+                graphics.drawImage(current, 0, 0, currentSize, currentSize, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (currentSize > size);
+
+        return current;
+    }
+
+    /**
+     * 缩略图相对路径：{原图路径去掉后缀}_{size}.{jpg|png}，不合法的路径返回null
+     */
+    private String thumbnailKey(String relativePath, int size) {
+        String path = stripLeadingSlash(FileUtil.normalize(relativePath));
+        if (path.isEmpty() || path.startsWith("..") || path.contains("/../") || !supports(path)) {
+            return null;
+        }
+        String suffix = FileUtil.getSuffix(path).toLowerCase();
+        String format = "jpg".equals(suffix) || "jpeg".equals(suffix) ? "jpg" : "png";
+        return path.substring(0, path.length() - suffix.length() - 1) + "_" + size + "." + format;
+    }
+
+    private String stripLeadingSlash(String path) {
+        int start = 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        return path.substring(start);
+    }
+}
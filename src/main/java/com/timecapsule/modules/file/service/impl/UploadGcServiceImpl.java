@@ -0,0 +1,402 @@
+package com.timecapsule.modules.file.service.impl;
+
+import cn.hutool.core.io.FileUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.mapper.FileBlobMapper;
+import com.timecapsule.modules.file.service.UploadGcService;
+import com.timecapsule.modules.user.mapper.UserMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 孤立上传文件回收服务实现
+ * 扫描两类目录：
+ * - 头像目录（yyyy/MM/dd，去重存储之前的旧头像）：tc_user.avatar 不再引用的文件
+ * - 去重存储目录（ab/cd）：tc_file_blob 中没有记录的文件（保存中途失败遗留）
+ * 附件没有独立的引用表，其生命周期由 tc_file_blob 的引用数管理。
+ * <p>
+ * 目录按名称有序遍历，每完成一个目录记录一次检查点（保存在上传根目录下的隐藏文件中），
+ * 时间预算用完后停止，下次从检查点之后继续；同一目录中的文件按批查询引用，并按速率上限节流。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UploadGcServiceImpl implements UploadGcService {
+
+    private static final String QUARANTINE_DIR = ".quarantine";
+
+    private static final String CHECKPOINT_FILE = ".gc-checkpoint";
+
+    private final FileUploadConfig fileUploadConfig;
+    private final FileUploadUtil fileUploadUtil;
+    private final FileBlobMapper fileBlobMapper;
+    private final UserMapper userMapper;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Path uploadRoot;
+
+    private Path quarantineRoot;
+
+    private Path checkpointFile;
+
+    /**
+     * 扫描的目录，按名称排序，与检查点的比较顺序一致
+     */
+    private List<ScanRoot> scanRoots;
+
+    @PostConstruct
+    public void init() {
+        uploadRoot = Path.of(fileUploadConfig.getUploadPath()).toAbsolutePath().normalize();
+        quarantineRoot = uploadRoot.resolve(QUARANTINE_DIR);
+        checkpointFile = uploadRoot.resolve(CHECKPOINT_FILE);
+
+        List<ScanRoot> roots = new ArrayList<>();
+        roots.add(new ScanRoot(trimSlash(fileUploadConfig.getAvatarPath()), false));
+        roots.add(new ScanRoot(trimSlash(fileUploadConfig.getBlobPath()), true));
+        roots.sort(Comparator.comparing(ScanRoot::name));
+        scanRoots = List.copyOf(roots);
+    }
+
+    @Override
+    @Scheduled(cron = "${app.file.gc.cron:0 30 3 * * ?}")
+    public void collectOrphans() {
+        FileUploadConfig.Gc config = fileUploadConfig.getGc();
+        if (!Boolean.TRUE.equals(config.getEnabled()) || !running.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            purgeQuarantine(config);
+            purgeTempFiles(config);
+
+            List<String> checkpoint = readCheckpoint();
+            Run run = new Run(config, checkpoint);
+            log.info("孤立文件回收开始，检查点: {}", checkpoint == null ? "无" : String.join("/", checkpoint));
+
+            boolean completed = true;
+            for (ScanRoot root : scanRoots) {
+                Path directory = uploadRoot.resolve(root.name());
+                List<String> segments = List.of(root.name());
+                if (!Files.isDirectory(directory) || run.isDone(segments)) {
+                    continue;
+                }
+                if (!walk(directory, segments, root, run)) {
+                    completed = false;
+                    break;
+                }
+            }
+
+            // 全部扫描完成后清除检查点，下次从头开始
+            writeCheckpoint(completed ? null : run.checkpoint);
+            log.info("孤立文件回收{} - 检查: {}, 回收: {}, 释放: {}KB, 耗时: {}ms",
+                    completed ? "完成" : "暂停（时间预算用完）", run.scanned, run.reclaimed,
+                    run.reclaimedBytes / 1024, System.currentTimeMillis() - run.startTime);
+        } catch (IOException e) {
+            log.error("孤立文件回收失败", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 有序遍历目录
+     * 先按批检查本目录中的文件，再按名称顺序进入子目录，全部完成后把本目录记为检查点。
+     *
+     * @return 时间预算用完时返回false
+     */
+    private boolean walk(Path directory, List<String> segments, ScanRoot root, Run run) throws IOException {
+        // 检查点位于本目录之下时，本目录中的文件上次已经检查过
+        boolean filesDone = run.contains(segments);
+
+        List<Path> subdirectories = new ArrayList<>();
+        List<Path> batch = new ArrayList<>(run.batchSize);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (entry.getFileName().toString().startsWith(".")) {
+                    continue;
+                }
+                BasicFileAttributes attributes =
+                        Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isDirectory()) {
+                    subdirectories.add(entry);
+                    continue;
+                }
+                run.scanned++;
+                if (filesDone || !attributes.isRegularFile()
+                        || attributes.lastModifiedTime().toMillis() > run.cutoffTime) {
+                    continue;
+                }
+                batch.add(entry);
+                if (batch.size() >= run.batchSize) {
+                    if (!processBatch(batch, root, run)) {
+                        return false;
+                    }
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty() && !processBatch(batch, root, run)) {
+            return false;
+        }
+        if (!run.throttle()) {
+            return false;
+        }
+
+        subdirectories.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        for (Path subdirectory : subdirectories) {
+            List<String> childSegments = new ArrayList<>(segments);
+            childSegments.add(subdirectory.getFileName().toString());
+            if (run.isDone(childSegments)) {
+                continue;
+            }
+            if (!walk(subdirectory, childSegments, root, run)) {
+                return false;
+            }
+        }
+
+        run.checkpoint = segments;
+        return true;
+    }
+
+    /**
+     * 批量查询引用，回收未被引用的文件
+     *
+     * @return 时间预算用完时返回false
+     */
+    private boolean processBatch(List<Path> batch, ScanRoot root, Run run) throws IOException {
+        if (!run.throttle()) {
+            return false;
+        }
+
+        if (root.contentAddressed()) {
+            Map<String, Path> bySha256 = new HashMap<>();
+            for (Path file : batch) {
+                String sha256 = FileUtil.mainName(file.getFileName().toString());
+                if (sha256 != null && sha256.length() == 64) {
+                    bySha256.put(sha256, file);
+                }
+            }
+            if (bySha256.isEmpty()) {
+                return true;
+            }
+            fileBlobMapper.selectExistingSha256(bySha256.keySet()).forEach(bySha256::remove);
+            for (Path file : bySha256.values()) {
+                long size = Files.size(file);
+                Path target = run.quarantine ? quarantineTarget(file) : null;
+                // 再次确认没有记录后回收，避免与同一内容的并发上传冲突
+                if (fileUploadUtil.reclaimOrphanBlob(file, target)) {
+                    reclaimed(file, target, size, run);
+                }
+            }
+        } else {
+            Map<String, Path> byAccessUrl = new HashMap<>();
+            for (Path file : batch) {
+                byAccessUrl.put(fileUploadConfig.getAccessPath() + "/"
+                        + FileUtil.normalize(uploadRoot.relativize(file).toString()), file);
+            }
+            userMapper.selectReferencedAvatars(byAccessUrl.keySet()).forEach(byAccessUrl::remove);
+            for (Path file : byAccessUrl.values()) {
+                long size = Files.size(file);
+                Path target = run.quarantine ? quarantineTarget(file) : null;
+                if (target == null) {
+                    Files.deleteIfExists(file);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                reclaimed(file, target, size, run);
+            }
+        }
+        return true;
+    }
+
+    private void reclaimed(Path file, Path quarantineTarget, long size, Run run) throws IOException {
+        if (quarantineTarget != null) {
+            // 隔离区按移入时间计算保留期
+            Files.setLastModifiedTime(quarantineTarget, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+        run.reclaimed++;
+        run.reclaimedBytes += size;
+        log.debug("回收孤立文件: {}{}", uploadRoot.relativize(file), quarantineTarget != null ? "（已隔离）" : "");
+    }
+
+    private Path quarantineTarget(Path file) {
+        return quarantineRoot.resolve(uploadRoot.relativize(file));
+    }
+
+    /**
+     * 删除超过保留期的隔离文件及空目录
+     */
+    private void purgeQuarantine(FileUploadConfig.Gc config) throws IOException {
+        if (!Files.isDirectory(quarantineRoot)) {
+            return;
+        }
+        long expireTime = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.getQuarantineRetentionDays());
+        Files.walkFileTree(quarantineRoot, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                if (attributes.lastModifiedTime().toMillis() < expireTime) {
+                    Files.deleteIfExists(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                if (!directory.equals(quarantineRoot)) {
+                    try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                        if (!entries.iterator().hasNext()) {
+                            Files.delete(directory);
+                        }
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 删除进程异常退出时遗留的上传临时文件
+     */
+    private void purgeTempFiles(FileUploadConfig.Gc config) throws IOException {
+        long cutoffTime = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(config.getMinAgeHours());
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(fileUploadUtil.getTempDirectory(), "upload-*.tmp")) {
+            for (Path entry : entries) {
+                if (Files.getLastModifiedTime(entry).toMillis() < cutoffTime) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        }
+    }
+
+    private List<String> readCheckpoint() {
+        try {
+            if (!Files.exists(checkpointFile)) {
+                return null;
+            }
+            String value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+            return value.isEmpty() ? null : List.of(value.split("/"));
+        } catch (IOException e) {
+            log.warn("读取回收检查点失败，从头开始扫描: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 先写临时文件再原子替换，进程中途退出不会留下半个检查点
+     */
+    private void writeCheckpoint(List<String> checkpoint) throws IOException {
+        if (checkpoint == null) {
+            Files.deleteIfExists(checkpointFile);
+            return;
+        }
+        Path temp = Files.createTempFile(uploadRoot, CHECKPOINT_FILE, ".tmp");
+        try {
+            Files.writeString(temp, String.join("/", checkpoint), StandardCharsets.UTF_8);
+            Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String trimSlash(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+
+    /**
+     * @param contentAddressed 是否为去重存储目录（文件名为SHA-256）
+     */
+    private record ScanRoot(String name, boolean contentAddressed) {
+    }
+
+    /**
+     * 单次执行的状态
+     */
+    private static class Run {
+
+        private final long startTime = System.currentTimeMillis();
+        private final long deadline;
+        private final long cutoffTime;
+        private final int batchSize;
+        private final int maxFilesPerSecond;
+        private final boolean quarantine;
+
+        /**
+         * 最后一个已完成的目录（相对上传根路径的各级名称）
+         */
+        private List<String> checkpoint;
+
+        private long scanned;
+        private long reclaimed;
+        private long reclaimedBytes;
+
+        Run(FileUploadConfig.Gc config, List<String> checkpoint) {
+            this.deadline = startTime + TimeUnit.MINUTES.toMillis(config.getMaxRunMinutes());
+            this.cutoffTime = startTime - TimeUnit.HOURS.toMillis(config.getMinAgeHours());
+            this.batchSize = Math.max(1, config.getBatchSize());
+            this.maxFilesPerSecond = Math.max(1, config.getMaxFilesPerSecond());
+            this.quarantine = Boolean.TRUE.equals(config.getQuarantine());
+            this.checkpoint = checkpoint;
+        }
+
+        /**
+         * 目录是否已在检查点之前完成
+         */
+        boolean isDone(List<String> segments) {
+            return checkpoint != null && compare(segments, checkpoint) <= 0 && !contains(segments);
+        }
+
+        /**
+         * 检查点是否位于该目录之下
+         */
+        boolean contains(List<String> segments) {
+            return checkpoint != null && checkpoint.size() > segments.size()
+                    && checkpoint.subList(0, segments.size()).equals(segments);
+        }
+
+        /**
+         * 按速率上限等待，超出时间预算时返回false
+         */
+        boolean throttle() {
+            long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                return false;
+            }
+            long expectedElapsed = scanned * 1000 / maxFilesPerSecond;
+            long wait = Math.min(expectedElapsed - (now - startTime), deadline - now);
+            if (wait > 0) {
+                try {
+                    Thread.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int compare(List<String> a, List<String> b) {
+            for (int i = 0; i < Math.min(a.size(), b.size()); i++) {
+                int result = a.get(i).compareTo(b.get(i));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return Integer.compare(a.size(), b.size());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.timecapsule.modules.file.vo;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 分片上传状态VO
+ */
+@Data
+public class ChunkUploadVO {
+
+    private String uploadId;
+
+    private String fileName;
+
+    private Long fileSize;
+
+    private Integer chunkSize;
+
+    private Integer totalChunks;
+
+    /**
+     * 已接收的分片序号（从0开始），断点续传时只需上传缺失的分片
+     */
+    private List<Integer> receivedChunks;
+}
@@ -0,0 +1,32 @@
+package com.timecapsule.modules.file.vo;
+
+import com.timecapsule.common.utils.FileUploadUtil;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 直传地址VO
+ */
+@Data
+public class DirectUploadVO {
+
+    /**
+     * 内容已存在（秒传），无需上传，file 为保存结果
+     */
+    private Boolean instant;
+
+    private FileUploadUtil.FileUploadResult file;
+
+    /**
+     * 上传地址，客户端以 method 方法、携带 headers 中的请求头，将文件原始字节作为请求体上传
+     */
+    private String uploadUrl;
+
+    private String method;
+
+    private Map<String, String> headers;
+
+    private LocalDateTime expireTime;
+}
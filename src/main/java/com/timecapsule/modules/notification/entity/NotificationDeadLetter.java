@@ -0,0 +1,40 @@
+package com.timecapsule.modules.notification.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.timecapsule.common.entity.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 通知死信实体（重试耗尽或无法投递的消息）
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("tc_notification_dead_letter")
+public class NotificationDeadLetter extends BaseEntity {
+
+    /**
+     * 渠道：email/sms
+     */
+    private String channel;
+
+    /**
+     * 目标（邮箱或手机号）
+     */
+    private String target;
+
+    /**
+     * 消息内容
+     */
+    private String content;
+
+    /**
+     * 已尝试次数
+     */
+    private Integer attempts;
+
+    /**
+     * 失败原因
+     */
+    private String reason;
+}
@@ -0,0 +1,50 @@
+package com.timecapsule.modules.notification.entity;
+
+import lombok.Data;
+
+/**
+ * 待发送的通知消息（仅在内存队列中流转，不落库）
+ */
+@Data
+public class NotificationMessage {
+
+    /**
+     * 渠道：email/sms
+     */
+    private String channel;
+
+    /**
+     * 目标（邮箱或手机号）
+     */
+    private String target;
+
+    /**
+     * 消息内容
+     */
+    private String content;
+
+    /**
+     * 脱敏后的消息内容，写入死信表时使用
+     */
+    private String redactedContent;
+
+    /**
+     * 已尝试次数
+     */
+    private int attempts;
+
+    /**
+     * 最近一次失败原因
+     */
+    private String lastError;
+
+    public NotificationMessage() {
+    }
+
+    public NotificationMessage(String channel, String target, String content) {
+        this.channel = channel;
+        this.target = target;
+        this.content = content;
+        this.redactedContent = content;
+    }
+}
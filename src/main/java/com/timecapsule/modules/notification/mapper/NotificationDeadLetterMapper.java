@@ -0,0 +1,12 @@
+package com.timecapsule.modules.notification.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.timecapsule.modules.notification.entity.NotificationDeadLetter;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 通知死信Mapper
+ */
+@Mapper
+public interface NotificationDeadLetterMapper extends BaseMapper<NotificationDeadLetter> {
+}
@@ -0,0 +1,31 @@
+package com.timecapsule.modules.notification.sender;
+
+import com.timecapsule.modules.notification.entity.NotificationMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 本地通知发送（仅打印日志），用于开发和测试环境
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.notification.sender", havingValue = "local", matchIfMissing = true)
+public class LocalNotificationSender implements NotificationSender {
+
+    @Override
+    public boolean supports(String channel) {
+        return true;
+    }
+
+    @Override
+    public List<NotificationMessage> sendBatch(List<NotificationMessage> messages) {
+        for (NotificationMessage message : messages) {
+            log.info("[{}] 发送至 {}: {}", message.getChannel(), message.getTarget(), message.getContent());
+        }
+        return Collections.emptyList();
+    }
+}
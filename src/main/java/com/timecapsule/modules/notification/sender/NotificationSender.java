@@ -0,0 +1,27 @@
+package com.timecapsule.modules.notification.sender;
+
+import com.timecapsule.modules.notification.entity.NotificationMessage;
+
+import java.util.List;
+
+/**
+ * 通知发送渠道SPI
+ * 每个渠道（邮件、短信服务商）提供一个实现并注册为Spring Bean。
+ */
+public interface NotificationSender {
+
+    /**
+     * 是否支持该渠道
+     *
+     * @param channel email/sms
+     */
+    boolean supports(String channel);
+
+    /**
+     * 批量发送同一渠道的消息
+     *
+     * @param messages 待发送消息
+     * @return 发送失败的消息，全部成功时返回空列表
+     */
+    List<NotificationMessage> sendBatch(List<NotificationMessage> messages);
+}
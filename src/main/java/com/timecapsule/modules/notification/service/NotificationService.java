@@ -0,0 +1,23 @@
+package com.timecapsule.modules.notification.service;
+
+/**
+ * 通知服务接口
+ */
+public interface NotificationService {
+
+    /**
+     * 提交通知，异步发送后立即返回
+     *
+     * @param channel 渠道：email/sms
+     * @param target  目标（邮箱或手机号）
+     * @param content 消息内容
+     */
+    void send(String channel, String target, String content);
+
+    /**
+     * 提交包含验证码等敏感信息的通知，写入死信表时只保存脱敏后的内容
+     *
+     * @param redactedContent 脱敏后的消息内容
+     */
+    void send(String channel, String target, String content, String redactedContent);
+}
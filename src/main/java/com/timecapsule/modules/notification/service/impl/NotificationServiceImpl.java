@@ -0,0 +1,218 @@
+package com.timecapsule.modules.notification.service.impl;
+
+import com.timecapsule.common.config.NotificationConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.modules.notification.entity.NotificationDeadLetter;
+import com.timecapsule.modules.notification.entity.NotificationMessage;
+import com.timecapsule.modules.notification.mapper.NotificationDeadLetterMapper;
+import com.timecapsule.modules.notification.sender.NotificationSender;
+import com.timecapsule.modules.notification.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * 通知服务实现
+ * 消息进入有界队列后由发送线程批量取出，按渠道分组交给对应的 NotificationSender；
+ * 失败的消息按指数退避重试，超过最大次数后写入死信表。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationServiceImpl implements NotificationService {
+
+    private final NotificationConfig notificationConfig;
+    private final List<NotificationSender> senders;
+    private final NotificationDeadLetterMapper notificationDeadLetterMapper;
+
+    private BlockingQueue<NotificationMessage> queue;
+
+    private ExecutorService workers;
+
+    private ScheduledExecutorService retryScheduler;
+
+    /**
+     * 等待退避重试的消息，停机时转入死信表
+     */
+    private final Set<RetryTask> pendingRetries = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(notificationConfig.getQueueCapacity());
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("notification-retry-"));
+        workers = Executors.newFixedThreadPool(notificationConfig.getWorkerThreads(),
+                new CustomizableThreadFactory("notification-worker-"));
+
+        running = true;
+        for (int i = 0; i < notificationConfig.getWorkerThreads(); i++) {
+            workers.execute(this::drainLoop);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        retryScheduler.shutdownNow();
+        try {
+            // 正在执行的重试任务把消息放回队列后再统一处理
+            retryScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (RetryTask task : pendingRetries) {
+            if (pendingRetries.remove(task)) {
+                deadLetter(task.message, "服务停机时未发送");
+            }
+        }
+
+        workers.shutdownNow();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 未发送的消息转入死信表，便于重放
+        List<NotificationMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(message -> deadLetter(message, "服务停机时未发送"));
+    }
+
+    @Override
+    public void send(String channel, String target, String content) {
+        send(channel, target, content, content);
+    }
+
+    @Override
+    public void send(String channel, String target, String content, String redactedContent) {
+        NotificationMessage message = new NotificationMessage(channel, target, content);
+        message.setRedactedContent(redactedContent);
+        if (!queue.offer(message)) {
+            log.warn("通知队列已满，拒绝发送 - 渠道: {}, 目标: {}", channel, target);
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "消息发送繁忙，请稍后再试");
+        }
+    }
+
+    private void drainLoop() {
+        List<NotificationMessage> batch = new ArrayList<>(notificationConfig.getBatchSize());
+        while (running) {
+            try {
+                NotificationMessage first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, notificationConfig.getBatchSize() - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // 已取出但未发送的消息放回队列，停机时转入死信表
+                batch.forEach(queue::offer);
+                return;
+            } catch (Exception e) {
+                log.error("通知发送线程异常: {}", e.getMessage(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * 按渠道分组后批量发送
+     */
+    private void dispatch(List<NotificationMessage> batch) {
+        Map<String, List<NotificationMessage>> byChannel = new HashMap<>();
+        for (NotificationMessage message : batch) {
+            byChannel.computeIfAbsent(message.getChannel(), key -> new ArrayList<>()).add(message);
+        }
+
+        byChannel.forEach((channel, messages) -> {
+            NotificationSender sender = findSender(channel);
+            if (sender == null) {
+                messages.forEach(message -> deadLetter(message, "不支持的渠道: " + channel));
+                return;
+            }
+
+            List<NotificationMessage> failed;
+            try {
+                // 发送渠道可在失败消息上设置 lastError 说明原因
+                failed = sender.sendBatch(messages);
+            } catch (Exception e) {
+                failed = messages;
+                failed.forEach(message -> message.setLastError(e.getMessage()));
+            }
+            failed.forEach(this::retryOrDeadLetter);
+        });
+    }
+
+    private void retryOrDeadLetter(NotificationMessage message) {
+        message.setAttempts(message.getAttempts() + 1);
+        if (message.getAttempts() >= notificationConfig.getMaxAttempts()) {
+            deadLetter(message, message.getLastError() != null ? message.getLastError() : "发送失败");
+            return;
+        }
+
+        long delay = notificationConfig.getRetryBaseDelayMillis() << (message.getAttempts() - 1);
+        RetryTask task = new RetryTask(message);
+        pendingRetries.add(task);
+        try {
+            retryScheduler.schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (pendingRetries.remove(task)) {
+                deadLetter(message, "服务停机时未发送");
+            }
+        }
+    }
+
+    /**
+     * 退避结束后把消息放回队列；与停机处理通过 pendingRetries 的移除结果保证只处理一次
+     */
+    private final class RetryTask implements Runnable {
+
+        private final NotificationMessage message;
+
+        private RetryTask(NotificationMessage message) {
+            this.message = message;
+        }
+
+        @Override
+        public void run() {
+            if (pendingRetries.remove(this) && !queue.offer(message)) {
+                deadLetter(message, "重试时队列已满");
+            }
+        }
+    }
+
+    private NotificationSender findSender(String channel) {
+        for (NotificationSender sender : senders) {
+            if (sender.supports(channel)) {
+                return sender;
+            }
+        }
+        return null;
+    }
+
+    private void deadLetter(NotificationMessage message, String reason) {
+        log.error("通知发送失败，写入死信表 - 渠道: {}, 目标: {}, 原因: {}",
+                message.getChannel(), message.getTarget(), reason);
+        try {
+            NotificationDeadLetter deadLetter = new NotificationDeadLetter();
+            deadLetter.setChannel(message.getChannel());
+            deadLetter.setTarget(message.getTarget());
+            deadLetter.setContent(message.getRedactedContent());
+            deadLetter.setAttempts(message.getAttempts());
+            deadLetter.setReason(reason);
+            notificationDeadLetterMapper.insert(deadLetter);
+        } catch (Exception e) {
+            log.error("写入通知死信表失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.timecapsule.modules.system.cache;
+
+import java.lang.annotation.*;
+
+/**
+ * 把系统配置绑定到单例 bean 的字段
+ * 启动时和每次配置刷新后按字段类型转换并写入字段，热点代码直接读取字段，不再查找和解析配置。
+ * 支持 String、int/Integer、long/Long、boolean/Boolean、Duration、List&lt;String&gt;，其他类型按 JSON 解析。
+ * 配置不存在、已禁用或无法解析时恢复为字段的初始值。
+ * <p>
+ * 字段应声明为 volatile；每个字段只做一次写入，需要多个值保持一致时绑定为一个 JSON 对象。
+ *
+ * <pre>
+ * &#64;ConfigBinding("letter.max_attachments")
+ * private volatile int maxAttachments = 5;
+ * </pre>
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConfigBinding {
+
+    /**
+     * 配置键
+     */
+    String value();
+}
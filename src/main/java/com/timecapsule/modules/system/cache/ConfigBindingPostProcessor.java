@@ -0,0 +1,126 @@
+package com.timecapsule.modules.system.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 处理 {@link ConfigBinding}
+ * bean 初始化前登记并按当前快照绑定一次，之后每次快照版本变化时重新绑定全部字段。
+ * 不依赖其他 bean，快照通过 {@link SysConfigRefreshedEvent} 获得，避免提前初始化。
+ * 登记会一直持有 bean 的引用，只允许用于单例 bean，原型等其他作用域的 bean 创建时直接报错。
+ */
+@Slf4j
+@Component
+public class ConfigBindingPostProcessor implements BeanPostProcessor, BeanFactoryAware,
+        ApplicationListener<SysConfigRefreshedEvent> {
+
+    private final List<Binding> bindings = new ArrayList<>();
+
+    private ConfigurableListableBeanFactory beanFactory;
+
+    private SysConfigSnapshot snapshot = SysConfigSnapshot.EMPTY;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        if (beanFactory instanceof ConfigurableListableBeanFactory listableBeanFactory) {
+            this.beanFactory = listableBeanFactory;
+        }
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        ReflectionUtils.doWithFields(bean.getClass(), field -> register(bean, beanName, field),
+                field -> field.isAnnotationPresent(ConfigBinding.class));
+        return bean;
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(SysConfigRefreshedEvent event) {
+        snapshot = event.getSnapshot();
+        for (Binding binding : bindings) {
+            binding.bind(snapshot);
+        }
+        if (!bindings.isEmpty()) {
+            log.debug("配置绑定已刷新，字段: {}, 版本: {}", bindings.size(), snapshot.getVersion());
+        }
+    }
+
+    private synchronized void register(Object bean, String beanName, Field field) {
+        if (!isSingleton(beanName)) {
+            throw new IllegalStateException("@ConfigBinding 只能用于单例 bean: " + beanName + "." + field.getName());
+        }
+        int modifiers = field.getModifiers();
+        if (Modifier.isFinal(modifiers) || Modifier.isStatic(modifiers)) {
+            throw new IllegalStateException("@ConfigBinding 不能用于 static 或 final 字段: "
+                    + beanName + "." + field.getName());
+        }
+        if (!Modifier.isVolatile(modifiers)) {
+            log.warn("@ConfigBinding 字段未声明为 volatile，刷新后其他线程可能读到旧值: {}.{}", beanName, field.getName());
+        }
+
+        ReflectionUtils.makeAccessible(field);
+        Binding binding = new Binding(bean, field, field.getAnnotation(ConfigBinding.class).value(),
+                ReflectionUtils.getField(field, bean), converter(field.getType()));
+        binding.bind(snapshot);
+        bindings.add(binding);
+    }
+
+    /**
+     * 内部 bean 等没有独立定义的 bean 视为非单例
+     */
+    private boolean isSingleton(String beanName) {
+        return beanFactory != null && beanFactory.containsBeanDefinition(beanName)
+                && beanFactory.getMergedBeanDefinition(beanName).isSingleton();
+    }
+
+    private static Function<ConfigValue, Object> converter(Class<?> type) {
+        if (type == String.class) {
+            return ConfigValue::getString;
+        }
+        if (type == int.class || type == Integer.class) {
+            return ConfigValue::getInt;
+        }
+        if (type == long.class || type == Long.class) {
+            return ConfigValue::getLong;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return ConfigValue::getBoolean;
+        }
+        if (type == Duration.class) {
+            return ConfigValue::getDuration;
+        }
+        if (type == List.class) {
+            return ConfigValue::getList;
+        }
+        return value -> value.getJson(type);
+    }
+
+    /**
+     * @param defaultValue 字段初始值，配置缺失或无法解析时恢复
+     */
+    private record Binding(Object bean, Field field, String configKey, Object defaultValue,
+                           Function<ConfigValue, Object> converter) {
+
+        void bind(SysConfigSnapshot snapshot) {
+            ConfigValue value = snapshot.getValue(configKey);
+            Object converted = value != null ? converter.apply(value) : null;
+            if (value != null && converted == null) {
+                log.warn("配置{}无法转换为{}，使用默认值", configKey, field.getType().getSimpleName());
+            }
+            ReflectionUtils.setField(field, bean, converted != null ? converted : defaultValue);
+        }
+    }
+}
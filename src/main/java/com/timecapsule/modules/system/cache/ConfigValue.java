@@ -0,0 +1,191 @@
+package com.timecapsule.modules.system.cache;
+
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.modules.system.entity.SysConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 解析后的配置值
+ * 随快照一起创建，数字、布尔、时长、列表在创建时解析一次；JSON 按目标类型在首次读取时解析并缓存，
+ * 快照替换后随之失效。无法按某种类型解析时该类型的值为null，由调用方使用默认值。
+ */
+@Slf4j
+public final class ConfigValue {
+
+    private static final Object INVALID = new Object();
+
+    private final SysConfig config;
+
+    private final Long longValue;
+
+    private final Boolean booleanValue;
+
+    private final Duration durationValue;
+
+    private final List<String> listValue;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 按目标类型缓存的 JSON 解析结果，解析失败缓存为 {@link #INVALID}
+     */
+    private final Map<Class<?>, Object> jsonValues = new ConcurrentHashMap<>(2);
+
+    ConfigValue(SysConfig config, ObjectMapper objectMapper) {
+        this.config = config;
+        this.objectMapper = objectMapper;
+        String raw = StrUtil.trim(config.getConfigValue());
+        this.longValue = parseLong(raw);
+        this.booleanValue = parseBoolean(raw);
+        this.durationValue = parseDuration(raw);
+        this.listValue = parseList(raw, objectMapper);
+
+        if ("number".equals(config.getConfigType()) && longValue == null && !isDecimal(raw)) {
+            log.warn("配置{}声明为number，但值无法解析: {}", config.getConfigKey(), raw);
+        } else if ("boolean".equals(config.getConfigType()) && booleanValue == null) {
+            log.warn("配置{}声明为boolean，但值无法解析: {}", config.getConfigKey(), raw);
+        }
+    }
+
+    public SysConfig getConfig() {
+        return config;
+    }
+
+    public String getString() {
+        return config.getConfigValue();
+    }
+
+    public Long getLong() {
+        return longValue;
+    }
+
+    /**
+     * @return 超出 int 范围时返回null
+     */
+    public Integer getInt() {
+        return longValue != null && longValue == longValue.intValue() ? longValue.intValue() : null;
+    }
+
+    public Boolean getBoolean() {
+        return booleanValue;
+    }
+
+    public Duration getDuration() {
+        return durationValue;
+    }
+
+    /**
+     * @return 不可变列表
+     */
+    public List<String> getList() {
+        return listValue;
+    }
+
+    /**
+     * 按目标类型解析 JSON，同一快照内每种类型只解析一次
+     * 返回的对象由所有调用方共享，不应修改
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getJson(Class<T> type) {
+        if (type == String.class) {
+            return (T) config.getConfigValue();
+        }
+        Object value = jsonValues.computeIfAbsent(type, this::parseJson);
+        return value == INVALID ? null : (T) value;
+    }
+
+    private Object parseJson(Class<?> type) {
+        if (StrUtil.isBlank(config.getConfigValue())) {
+            return INVALID;
+        }
+        try {
+            Object value = objectMapper.readValue(config.getConfigValue(), type);
+            return value != null ? value : INVALID;
+        } catch (Exception e) {
+            log.warn("配置{}无法解析为{}: {}", config.getConfigKey(), type.getSimpleName(), e.getMessage());
+            return INVALID;
+        }
+    }
+
+    private static Long parseLong(String raw) {
+        if (StrUtil.isEmpty(raw)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDecimal(String raw) {
+        try {
+            Double.parseDouble(raw);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 支持 true/false 和 1/0（与表中其他开关字段一致）
+     */
+    private static Boolean parseBoolean(String raw) {
+        if ("true".equalsIgnoreCase(raw) || "1".equals(raw)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(raw) || "0".equals(raw)) {
+            return Boolean.FALSE;
+        }
+        return null;
+    }
+
+    /**
+     * 支持 30s、5m、PT1H 等写法，纯数字按秒解析
+     */
+    private static Duration parseDuration(String raw) {
+        if (StrUtil.isEmpty(raw)) {
+            return null;
+        }
+        try {
+            return DurationStyle.detectAndParse(raw, ChronoUnit.SECONDS);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * JSON 数组或逗号分隔的字符串，忽略空元素
+     */
+    private static List<String> parseList(String raw, ObjectMapper objectMapper) {
+        if (StrUtil.isEmpty(raw)) {
+            return List.of();
+        }
+        if (raw.startsWith("[")) {
+            try {
+                List<String> values = objectMapper.readValue(raw, new TypeReference<List<String>>() {
+                });
+                return values.stream().filter(StrUtil::isNotBlank).toList();
+            } catch (Exception e) {
+                // 不是合法的字符串数组，按逗号分隔处理
+            }
+        }
+        List<String> values = new ArrayList<>();
+        for (String value : StrUtil.splitTrim(raw, ',')) {
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+        return List.copyOf(values);
+    }
+}
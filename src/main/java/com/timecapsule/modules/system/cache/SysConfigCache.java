@@ -0,0 +1,190 @@
+package com.timecapsule.modules.system.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.common.config.SysConfigCacheConfig;
+import com.timecapsule.modules.system.entity.SysConfig;
+import com.timecapsule.modules.system.mapper.SysConfigMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 系统配置缓存
+ * 启动时把 tc_sys_config 全表加载为不可变快照，读取只访问内存；
+ * 配置变更后重新加载并原子替换快照，同时通过Redis发布订阅通知其他节点重新加载。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SysConfigCache {
+
+    private final SysConfigMapper sysConfigMapper;
+    private final SysConfigCacheConfig sysConfigCacheConfig;
+    private final ObjectProvider<RedissonClient> redissonClientProvider;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 本节点标识，收到自己发出的通知时忽略
+     */
+    private final String nodeId = IdUtil.simpleUUID();
+
+    private volatile SysConfigSnapshot snapshot = SysConfigSnapshot.EMPTY;
+
+    /**
+     * 等待配置变更的请求，版本变化时全部完成；请求超时或取消时自行移除，不会随轮询次数累积
+     */
+    private final Set<CompletableFuture<SysConfigSnapshot>> waiters = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 后台刷新线程，不在Redis回调线程中查询数据库
+     */
+    private ExecutorService refreshExecutor;
+
+    /**
+     * 已有待执行的后台刷新时，新的刷新请求直接合并
+     */
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private RTopic topic;
+
+    private int listenerId;
+
+    @PostConstruct
+    public void init() {
+        refreshExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("sys-config-refresh-"));
+        try {
+            reload();
+        } catch (Exception e) {
+            // 数据库暂不可用时先以空配置启动，由定时刷新恢复
+            log.error("系统配置加载失败: {}", e.getMessage());
+        }
+
+        if (Boolean.TRUE.equals(sysConfigCacheConfig.getBroadcastEnabled())) {
+            RedissonClient redissonClient = redissonClientProvider.getIfAvailable();
+            if (redissonClient == null) {
+                log.warn("未找到RedissonClient，系统配置变更只在本节点生效");
+                return;
+            }
+            topic = redissonClient.getTopic(sysConfigCacheConfig.getTopic(), StringCodec.INSTANCE);
+            listenerId = topic.addListener(String.class, (channel, sender) -> {
+                if (!nodeId.equals(sender)) {
+                    reloadAsync();
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (topic != null) {
+            topic.removeListener(listenerId);
+        }
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 当前快照
+     */
+    public SysConfigSnapshot get() {
+        return snapshot;
+    }
+
+    /**
+     * 等待版本号大于 sinceVersion 的快照
+     * 当前版本已经更新时立即完成；调用方需自行设置超时，超时后取消返回的 future 以停止等待
+     */
+    public CompletableFuture<SysConfigSnapshot> awaitChange(long sinceVersion) {
+        CompletableFuture<SysConfigSnapshot> future = new CompletableFuture<>();
+        // 完成、取消或超时后移出等待集合
+        future.whenComplete((changed, error) -> waiters.remove(future));
+        waiters.add(future);
+        // 先登记再读快照，避免两次操作之间发生的变化被错过
+        SysConfigSnapshot current = snapshot;
+        if (current.getVersion() > sinceVersion) {
+            future.complete(current);
+        }
+        return future;
+    }
+
+    /**
+     * 正在等待配置变更的请求数
+     */
+    public int waitingCount() {
+        return waiters.size();
+    }
+
+    /**
+     * 重新加载本节点的快照
+     */
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        // 包括已删除的配置，用于计算版本号和增量
+        List<SysConfig> configs = sysConfigMapper.selectAllIncludingDeleted();
+        SysConfigSnapshot previous = snapshot;
+        snapshot = SysConfigSnapshot.of(configs, previous, objectMapper);
+        log.info("系统配置已加载，条目: {}, 版本: {}, 耗时: {}ms",
+                snapshot.size(), snapshot.getVersion(), System.currentTimeMillis() - start);
+
+        if (snapshot.getVersion() > previous.getVersion()) {
+            // 先重新绑定 @ConfigBinding 字段，再唤醒等待变更的请求
+            eventPublisher.publishEvent(new SysConfigRefreshedEvent(this, snapshot));
+            for (CompletableFuture<SysConfigSnapshot> waiting : waiters) {
+                waiting.complete(snapshot);
+            }
+        }
+    }
+
+    /**
+     * 重新加载并通知其他节点
+     */
+    public void refresh() {
+        reload();
+        if (topic != null) {
+            try {
+                topic.publish(nodeId);
+            } catch (Exception e) {
+                log.error("发布系统配置变更通知失败，其他节点将在定时刷新时更新: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sys-config.reload-interval-seconds:300}",
+            initialDelayString = "${app.sys-config.reload-interval-seconds:300}", timeUnit = TimeUnit.SECONDS)
+    public void scheduledReload() {
+        reloadAsync();
+    }
+
+    private void reloadAsync() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            refreshPending.set(false);
+            try {
+                reload();
+            } catch (Exception e) {
+                log.error("系统配置刷新失败: {}", e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,20 @@
+package com.timecapsule.modules.system.cache;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 系统配置快照版本变化事件，在刷新线程中同步发布，发布顺序与快照替换顺序一致
+ */
+public class SysConfigRefreshedEvent extends ApplicationEvent {
+
+    private final SysConfigSnapshot snapshot;
+
+    public SysConfigRefreshedEvent(Object source, SysConfigSnapshot snapshot) {
+        super(source);
+        this.snapshot = snapshot;
+    }
+
+    public SysConfigSnapshot getSnapshot() {
+        return snapshot;
+    }
+}
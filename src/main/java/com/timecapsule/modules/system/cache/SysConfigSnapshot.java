@@ -0,0 +1,220 @@
+package com.timecapsule.modules.system.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.modules.system.entity.SysConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * 系统配置快照
+ * 启用状态的全部配置，按配置键建立索引，并预先生成各模块和前端的有序只读视图；创建后不再修改，刷新时整体替换。
+ * <p>
+ * 版本号为所有配置（包括已删除、已禁用的）中最大的更新时间（毫秒），各节点读取同一份数据得到相同的版本号；
+ * 增量同步时，更新时间晚于客户端版本号的配置即为变更。内容变化而最大更新时间没有增加时（同一秒内多次修改），
+ * 版本号在上一版本的基础上加1，保证内容变化时版本号一定递增。
+ */
+@Slf4j
+public final class SysConfigSnapshot {
+
+    static final SysConfigSnapshot EMPTY = new SysConfigSnapshot(0, 0, Map.of(), Map.of(), Map.of(), Map.of(),
+            new String[0], new long[0]);
+
+    /**
+     * update_time 为秒级精度时，同一秒内的变更共享同一时间戳，增量多回退1秒；重复下发的配置对客户端没有影响
+     */
+    private static final long DELTA_OVERLAP_MILLIS = 1000;
+
+    private static final Comparator<SysConfig> SORT_ORDER = Comparator
+            .comparing(SysConfig::getSortOrder, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(SysConfig::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final long version;
+
+    /**
+     * 启用配置内容的摘要，用于判断内容是否变化
+     */
+    private final int contentHash;
+
+    private final Map<String, SysConfig> byKey;
+
+    /**
+     * 按类型预先解析的配置值
+     */
+    private final Map<String, ConfigValue> values;
+
+    /**
+     * 各模块的配置（键 -> 值），按排序号、id升序，不可修改
+     */
+    private final Map<String, Map<String, String>> byModule;
+
+    /**
+     * 前端可见的配置（键 -> 值），按排序号、id升序，不可修改
+     */
+    private final Map<String, String> frontend;
+
+    /**
+     * 所有配置的键和更新时间，按更新时间升序，用于计算增量
+     */
+    private final String[] changeKeys;
+
+    private final long[] changeTimes;
+
+    private SysConfigSnapshot(long version, int contentHash, Map<String, SysConfig> byKey, Map<String, ConfigValue> values,
+                              Map<String, Map<String, String>> byModule, Map<String, String> frontend,
+                              String[] changeKeys, long[] changeTimes) {
+        this.version = version;
+        this.contentHash = contentHash;
+        this.byKey = byKey;
+        this.values = values;
+        this.byModule = byModule;
+        this.frontend = frontend;
+        this.changeKeys = changeKeys;
+        this.changeTimes = changeTimes;
+    }
+
+    /**
+     * @param configs      按id升序的全部配置（包括已逻辑删除的）；同一配置键重复时保留id最小的一条
+     * @param previous     上一个快照，保证版本号不回退
+     * @param objectMapper 解析 JSON 类型的配置
+     */
+    static SysConfigSnapshot of(List<SysConfig> configs, SysConfigSnapshot previous, ObjectMapper objectMapper) {
+        Map<String, SysConfig> byKey = new HashMap<>();
+        List<SysConfig> changes = new ArrayList<>(configs.size());
+        long version = 0;
+        for (SysConfig config : configs) {
+            if (config.getConfigKey() == null) {
+                continue;
+            }
+            changes.add(config);
+            version = Math.max(version, changeTime(config));
+            if (Integer.valueOf(1).equals(config.getDeleted()) || !Integer.valueOf(1).equals(config.getStatus())) {
+                continue;
+            }
+            SysConfig existing = byKey.putIfAbsent(config.getConfigKey(), config);
+            if (existing != null) {
+                log.warn("配置键重复，忽略id={}的配置: {}", config.getId(), config.getConfigKey());
+            }
+        }
+
+        Map<String, ConfigValue> values = new HashMap<>(byKey.size() * 2);
+        // 配置键已去重，按排序号依次放入保持插入顺序的Map，值为null时原样保留
+        List<SysConfig> sorted = new ArrayList<>(byKey.values());
+        sorted.sort(SORT_ORDER);
+        Map<String, Map<String, String>> byModule = new HashMap<>();
+        Map<String, String> frontend = new LinkedHashMap<>();
+        for (SysConfig config : sorted) {
+            values.put(config.getConfigKey(), new ConfigValue(config, objectMapper));
+            if (config.getModule() != null) {
+                byModule.computeIfAbsent(config.getModule(), module -> new LinkedHashMap<>())
+                        .put(config.getConfigKey(), config.getConfigValue());
+            }
+            if (Integer.valueOf(1).equals(config.getIsFrontend())) {
+                frontend.put(config.getConfigKey(), config.getConfigValue());
+            }
+        }
+        byModule.replaceAll((module, moduleConfigs) -> Collections.unmodifiableMap(moduleConfigs));
+
+        int contentHash = contentHash(byKey);
+        if (version <= previous.version) {
+            version = contentHash == previous.contentHash ? previous.version : previous.version + 1;
+        }
+
+        changes.sort(Comparator.comparingLong(SysConfigSnapshot::changeTime));
+        String[] changeKeys = new String[changes.size()];
+        long[] changeTimes = new long[changes.size()];
+        for (int i = 0; i < changes.size(); i++) {
+            changeKeys[i] = changes.get(i).getConfigKey();
+            changeTimes[i] = changeTime(changes.get(i));
+        }
+
+        return new SysConfigSnapshot(version, contentHash, Map.copyOf(byKey), Map.copyOf(values), Map.copyOf(byModule),
+                Collections.unmodifiableMap(frontend), changeKeys, changeTimes);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return 不存在或已禁用时返回null
+     */
+    public SysConfig get(String configKey) {
+        return configKey == null ? null : byKey.get(configKey);
+    }
+
+    /**
+     * @return 不存在或已禁用时返回null
+     */
+    public ConfigValue getValue(String configKey) {
+        return configKey == null ? null : values.get(configKey);
+    }
+
+    /**
+     * 模块下的配置（键 -> 值），按排序号升序
+     *
+     * @return 不可修改的Map，快照创建时生成，各请求共享
+     */
+    public Map<String, String> getModule(String module) {
+        return module == null ? Map.of() : byModule.getOrDefault(module, Map.of());
+    }
+
+    /**
+     * 前端可见的配置（键 -> 值），按排序号升序
+     *
+     * @return 不可修改的Map，快照创建时生成，各请求共享
+     */
+    public Map<String, String> getFrontend() {
+        return frontend;
+    }
+
+    /**
+     * 版本号之后变更过的前端配置
+     *
+     * @param changed 变更或新增的配置（键 -> 值）
+     * @param removed 已删除、禁用或不再对前端可见的配置键
+     */
+    public void collectFrontendChanges(long sinceVersion, Map<String, String> changed, Set<String> removed) {
+        long from = sinceVersion - DELTA_OVERLAP_MILLIS;
+        int index = Arrays.binarySearch(changeTimes, from);
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // 定位到第一个等于 from 的位置
+            while (index > 0 && changeTimes[index - 1] == from) {
+                index--;
+            }
+        }
+        for (int i = index; i < changeKeys.length; i++) {
+            String key = changeKeys[i];
+            SysConfig config = byKey.get(key);
+            if (config != null && Integer.valueOf(1).equals(config.getIsFrontend())) {
+                changed.put(key, config.getConfigValue());
+                removed.remove(key);
+            } else if (!changed.containsKey(key)) {
+                removed.add(key);
+            }
+        }
+    }
+
+    public int size() {
+        return byKey.size();
+    }
+
+    private static int contentHash(Map<String, SysConfig> byKey) {
+        int hash = 0;
+        for (SysConfig config : byKey.values()) {
+            // 与顺序无关的累加
+            hash += Objects.hash(config.getConfigKey(), config.getConfigValue(), config.getModule(),
+                    config.getIsFrontend(), config.getSortOrder());
+        }
+        return hash;
+    }
+
+    private static long changeTime(SysConfig config) {
+        LocalDateTime time = config.getUpdateTime() != null ? config.getUpdateTime() : config.getCreateTime();
+        return time == null ? 0 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -3,20 +3,25 @@ package com.timecapsule.modules.system.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.timecapsule.common.cache.ResponseCached;
 import com.timecapsule.common.result.PageResult;
 import com.timecapsule.common.result.Result;
 import com.timecapsule.modules.system.entity.SysConfig;
 import com.timecapsule.modules.system.service.SysConfigService;
+import com.timecapsule.modules.system.vo.ConfigSyncVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 系统配置控制器 - 优化版
@@ -29,6 +34,11 @@ import java.util.Map;
 @Tag(name = "系统配置", description = "系统配置管理接口")
 public class SysConfigController {
 
+    /**
+     * 长轮询最长等待时间（秒）
+     */
+    private static final long MAX_WAIT_SECONDS = 60;
+
     private final SysConfigService sysConfigService;
 
     @GetMapping("/page")
@@ -81,6 +91,7 @@ public class SysConfigController {
 
         // 直接使用 save
         sysConfigService.save(config);
+        sysConfigService.refreshCache();
         return Result.success();
     }
 
@@ -89,6 +100,8 @@ public class SysConfigController {
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> update(@PathVariable Long id, @Valid @RequestBody SysConfig config) {
         config.setId(id);
+        // 由自动填充写入更新时间，作为增量同步的版本依据
+        config.setUpdateTime(null);
         // 直接使用 updateById
         sysConfigService.updateById(config);
         sysConfigService.refreshCache();
@@ -99,8 +112,8 @@ public class SysConfigController {
     @Operation(summary = "删除系统配置")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> delete(@PathVariable Long id) {
-        // 直接使用 removeById
-        sysConfigService.removeById(id);
+        // 逻辑删除时同时填充更新时间，增量同步据此下发删除
+        sysConfigService.removeById(id, true);
         sysConfigService.refreshCache();
         return Result.success();
     }
@@ -109,31 +122,63 @@ public class SysConfigController {
     @Operation(summary = "批量删除系统配置")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> deleteBatch(@RequestBody List<Long> ids) {
-        // 直接使用 removeByIds
-        sysConfigService.removeByIds(ids);
+        // 逻辑删除时同时填充更新时间，增量同步据此下发删除
+        sysConfigService.removeByIds(ids, true);
         sysConfigService.refreshCache();
         return Result.success();
     }
 
     // 业务方法保持不变
     @GetMapping("/value/{configKey}")
+    @ResponseCached(tags = SysConfigService.RESPONSE_CACHE_TAG)
     @Operation(summary = "根据配置键获取配置值")
     public Result<String> getConfigValue(@PathVariable String configKey) {
         return Result.success(sysConfigService.getConfigValue(configKey));
     }
 
     @GetMapping("/module/{module}")
+    @ResponseCached(tags = SysConfigService.RESPONSE_CACHE_TAG)
     @Operation(summary = "根据模块获取配置")
     public Result<Map<String, String>> getConfigsByModule(@PathVariable String module) {
         return Result.success(sysConfigService.getConfigsByModule(module));
     }
 
     @GetMapping("/frontend")
+    @ResponseCached(tags = SysConfigService.RESPONSE_CACHE_TAG)
     @Operation(summary = "获取前端可见配置")
-    public Result<Map<String, String>> getFrontendConfigs() {
+    public Result<Map<String, String>> getFrontendConfigs(WebRequest webRequest) {
+        // 先取版本再取配置，并发刷新时最多返回偏旧的版本号，客户端下次仍会拿到新配置
+        long version = sysConfigService.getConfigVersion();
+        if (webRequest.checkNotModified("W/\"" + version + "\"")) {
+            return null;
+        }
         return Result.success(sysConfigService.getFrontendConfigs());
     }
 
+    @GetMapping("/frontend/sync")
+    @Operation(summary = "前端配置增量同步",
+            description = "返回 sinceVersion 之后变化的配置和已删除的键，sinceVersion 为0时返回全量；"
+                    + "wait 大于0时没有变化则最多等待 wait 秒（上限60秒）")
+    public DeferredResult<Result<ConfigSyncVO>> syncFrontendConfigs(
+            @RequestParam(defaultValue = "0") Long sinceVersion,
+            @RequestParam(defaultValue = "0") Long wait) {
+        if (wait <= 0) {
+            DeferredResult<Result<ConfigSyncVO>> result = new DeferredResult<>();
+            result.setResult(Result.success(sysConfigService.syncFrontendConfigs(sinceVersion)));
+            return result;
+        }
+
+        DeferredResult<Result<ConfigSyncVO>> result =
+                new DeferredResult<>(Math.min(wait, MAX_WAIT_SECONDS) * 1000);
+        // 超时时没有变化，返回空增量
+        result.onTimeout(() -> result.setResult(Result.success(sysConfigService.syncFrontendConfigs(sinceVersion))));
+        CompletableFuture<ConfigSyncVO> change = sysConfigService.awaitFrontendConfigs(sinceVersion);
+        change.thenAccept(vo -> result.setResult(Result.success(vo)));
+        // 请求结束（超时、出错或客户端断开）后取消等待，不再被配置缓存引用
+        result.onCompletion(() -> change.cancel(false));
+        return result;
+    }
+
     @PostMapping("/refresh-cache")
     @Operation(summary = "刷新配置缓存")
     @PreAuthorize("hasRole('ADMIN')")
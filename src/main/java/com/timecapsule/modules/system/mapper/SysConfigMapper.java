@@ -3,6 +3,9 @@ package com.timecapsule.modules.system.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.timecapsule.modules.system.entity.SysConfig;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 /**
  * 系统配置Mapper
@@ -10,5 +13,10 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface SysConfigMapper extends BaseMapper<SysConfig> {
-    // 不需要任何额外方法，BaseMapper 已经够用
+
+    /**
+     * 全部配置（包括已逻辑删除的），按id升序，用于构建配置快照
+     */
+    @Select("SELECT * FROM tc_sys_config ORDER BY id")
+    List<SysConfig> selectAllIncludingDeleted();
 }
\ No newline at end of file
@@ -2,18 +2,80 @@ package com.timecapsule.modules.system.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.timecapsule.modules.system.entity.SysConfig;
+import com.timecapsule.modules.system.vo.ConfigSyncVO;
+
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface SysConfigService extends IService<SysConfig> {
 
+    /**
+     * 配置查询接口的响应缓存标签，配置版本变化时失效
+     */
+    String RESPONSE_CACHE_TAG = "sys-config";
+
     // 只定义业务方法
     String getConfigValue(String configKey);
 
     String getConfigValue(String configKey, String defaultValue);
 
+    /**
+     * 以下类型化读取使用快照创建时已解析的值，不存在、已禁用或无法解析时返回默认值
+     */
+    int getInt(String configKey, int defaultValue);
+
+    long getLong(String configKey, long defaultValue);
+
+    /**
+     * 支持 true/false、1/0
+     */
+    boolean getBoolean(String configKey, boolean defaultValue);
+
+    /**
+     * 支持 30s、5m、PT1H 等写法，纯数字按秒解析
+     */
+    Duration getDuration(String configKey, Duration defaultValue);
+
+    /**
+     * 按 JSON 解析，同一版本的配置每种类型只解析一次，返回的对象为共享实例，不应修改
+     *
+     * @return 不存在或无法解析时返回null
+     */
+    <T> T getJson(String configKey, Class<T> type);
+
+    /**
+     * JSON 字符串数组或逗号分隔的字符串
+     *
+     * @return 不可变列表，不存在时返回空列表
+     */
+    List<String> getList(String configKey);
+
     Map<String, String> getConfigsByModule(String module);
 
     Map<String, String> getFrontendConfigs();
 
+    /**
+     * 当前配置版本，配置内容变化时递增
+     */
+    long getConfigVersion();
+
+    /**
+     * 前端配置增量同步
+     *
+     * @param sinceVersion 客户端已有的版本，为0时返回全量
+     */
+    ConfigSyncVO syncFrontendConfigs(long sinceVersion);
+
+    /**
+     * 等待配置版本超过 sinceVersion 后返回增量
+     * 不再需要结果时（如请求超时）需取消返回的 future，否则等待会保留到下次配置变更
+     */
+    CompletableFuture<ConfigSyncVO> awaitFrontendConfigs(long sinceVersion);
+
+    /**
+     * 重新加载配置快照，并通知其他节点
+     */
     void refreshCache();
 }
\ No newline at end of file
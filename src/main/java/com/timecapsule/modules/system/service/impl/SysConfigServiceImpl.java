@@ -1,76 +1,150 @@
 package com.timecapsule.modules.system.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.timecapsule.common.cache.ResponseCache;
+import com.timecapsule.modules.system.cache.ConfigValue;
+import com.timecapsule.modules.system.cache.SysConfigCache;
+import com.timecapsule.modules.system.cache.SysConfigRefreshedEvent;
+import com.timecapsule.modules.system.cache.SysConfigSnapshot;
 import com.timecapsule.modules.system.entity.SysConfig;
 import com.timecapsule.modules.system.mapper.SysConfigMapper;
 import com.timecapsule.modules.system.service.SysConfigService;
+import com.timecapsule.modules.system.vo.ConfigSyncVO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 系统配置服务实现
+ * 查询全部走 SysConfigCache 的内存快照，不访问数据库
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper, SysConfig> implements SysConfigService {
 
-    private static final String CACHE_KEY = "sysConfig";
+    private final SysConfigCache sysConfigCache;
+    private final ResponseCache responseCache;
 
     @Override
-    @Cacheable(value = CACHE_KEY, key = "#configKey")
     public String getConfigValue(String configKey) {
         return getConfigValue(configKey, null);
     }
 
     @Override
-    @Cacheable(value = CACHE_KEY, key = "#configKey")
     public String getConfigValue(String configKey, String defaultValue) {
-        // 使用 lambdaQuery
-        SysConfig config = this.lambdaQuery()
-                .eq(SysConfig::getConfigKey, configKey)
-                .eq(SysConfig::getStatus, 1)
-                .one();
-
+        SysConfig config = sysConfigCache.get().get(configKey);
         return config != null ? config.getConfigValue() : defaultValue;
     }
 
     @Override
-    @Cacheable(value = CACHE_KEY, key = "#module")
+    public int getInt(String configKey, int defaultValue) {
+        ConfigValue value = sysConfigCache.get().getValue(configKey);
+        Integer parsed = value != null ? value.getInt() : null;
+        return parsed != null ? parsed : defaultValue;
+    }
+
+    @Override
+    public long getLong(String configKey, long defaultValue) {
+        ConfigValue value = sysConfigCache.get().getValue(configKey);
+        Long parsed = value != null ? value.getLong() : null;
+        return parsed != null ? parsed : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(String configKey, boolean defaultValue) {
+        ConfigValue value = sysConfigCache.get().getValue(configKey);
+        Boolean parsed = value != null ? value.getBoolean() : null;
+        return parsed != null ? parsed : defaultValue;
+    }
+
+    @Override
+    public Duration getDuration(String configKey, Duration defaultValue) {
+        ConfigValue value = sysConfigCache.get().getValue(configKey);
+        Duration parsed = value != null ? value.getDuration() : null;
+        return parsed != null ? parsed : defaultValue;
+    }
+
+    @Override
+    public <T> T getJson(String configKey, Class<T> type) {
+        ConfigValue value = sysConfigCache.get().getValue(configKey);
+        return value != null ? value.getJson(type) : null;
+    }
+
+    @Override
+    public List<String> getList(String configKey) {
+        ConfigValue value = sysConfigCache.get().getValue(configKey);
+        return value != null ? value.getList() : List.of();
+    }
+
+    @Override
     public Map<String, String> getConfigsByModule(String module) {
-        // 使用 lambdaQuery 和 stream
-        return this.lambdaQuery()
-                .eq(SysConfig::getModule, module)
-                .eq(SysConfig::getStatus, 1)
-                .orderByAsc(SysConfig::getSortOrder)
-                .list()
-                .stream()
-                .collect(Collectors.toMap(
-                        SysConfig::getConfigKey,
-                        SysConfig::getConfigValue
-                ));
+        return sysConfigCache.get().getModule(module);
     }
 
     @Override
-    @Cacheable(value = CACHE_KEY, key = "'frontend'")
     public Map<String, String> getFrontendConfigs() {
-        return this.lambdaQuery()
-                .eq(SysConfig::getIsFrontend, 1)
-                .eq(SysConfig::getStatus, 1)
-                .list()
-                .stream()
-                .collect(Collectors.toMap(
-                        SysConfig::getConfigKey,
-                        SysConfig::getConfigValue
-                ));
+        return sysConfigCache.get().getFrontend();
+    }
+
+    @Override
+    public long getConfigVersion() {
+        return sysConfigCache.get().getVersion();
+    }
+
+    @Override
+    public ConfigSyncVO syncFrontendConfigs(long sinceVersion) {
+        return toSyncVO(sysConfigCache.get(), sinceVersion);
+    }
+
+    @Override
+    public CompletableFuture<ConfigSyncVO> awaitFrontendConfigs(long sinceVersion) {
+        CompletableFuture<SysConfigSnapshot> change = sysConfigCache.awaitChange(sinceVersion);
+        CompletableFuture<ConfigSyncVO> result = change.thenApply(snapshot -> toSyncVO(snapshot, sinceVersion));
+        // 调用方取消返回的 future 时同时停止等待
+        result.whenComplete((vo, error) -> change.cancel(false));
+        return result;
     }
 
     @Override
-    @CacheEvict(value = CACHE_KEY, allEntries = true)
     public void refreshCache() {
+        sysConfigCache.refresh();
         log.info("系统配置缓存已刷新");
     }
-}
\ No newline at end of file
+
+    /**
+     * 本节点快照版本变化（包括其他节点通知的刷新）时使配置查询接口的响应缓存失效
+     */
+    @EventListener
+    public void onConfigRefreshed(SysConfigRefreshedEvent event) {
+        responseCache.invalidateTag(RESPONSE_CACHE_TAG);
+    }
+
+    private ConfigSyncVO toSyncVO(SysConfigSnapshot snapshot, long sinceVersion) {
+        ConfigSyncVO vo = new ConfigSyncVO();
+        // 客户端版本来自已刷新的其他节点时，本节点尚未刷新，按无变化处理
+        vo.setVersion(Math.max(snapshot.getVersion(), sinceVersion));
+        if (sinceVersion <= 0) {
+            // 首次同步返回全量
+            vo.setFull(true);
+            vo.setConfigs(snapshot.getFrontend());
+            vo.setRemoved(List.of());
+            return vo;
+        }
+
+        Map<String, String> changed = new LinkedHashMap<>();
+        Set<String> removed = new LinkedHashSet<>();
+        if (sinceVersion < snapshot.getVersion()) {
+            snapshot.collectFrontendChanges(sinceVersion, changed, removed);
+        }
+        vo.setFull(false);
+        vo.setConfigs(changed);
+        vo.setRemoved(new ArrayList<>(removed));
+        return vo;
+    }
+}
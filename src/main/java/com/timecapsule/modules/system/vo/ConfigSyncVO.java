@@ -0,0 +1,34 @@
+package com.timecapsule.modules.system.vo;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 前端配置增量同步VO
+ * 客户端保存 version，下次携带 sinceVersion 请求，把 configs 合并到本地并删除 removed 中的键
+ */
+@Data
+public class ConfigSyncVO {
+
+    /**
+     * 当前配置版本
+     */
+    private Long version;
+
+    /**
+     * 是否为全量数据（客户端应先清空本地配置）
+     */
+    private Boolean full;
+
+    /**
+     * 新增或变更的配置
+     */
+    private Map<String, String> configs;
+
+    /**
+     * 已删除或不再对前端可见的配置键
+     */
+    private List<String> removed;
+}
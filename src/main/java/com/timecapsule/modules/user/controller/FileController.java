@@ -2,7 +2,7 @@ package com.timecapsule.modules.user.controller;
 
 import com.timecapsule.common.result.Result;
 import com.timecapsule.common.utils.FileUploadUtil;
-import com.timecapsule.modules.user.entity.User;
+import com.timecapsule.modules.file.service.ThumbnailService;
 import com.timecapsule.modules.user.service.UserService;
 import com.timecapsule.modules.user.vo.UserVO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,6 +21,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class FileController {
 
     private final FileUploadUtil fileUploadUtil;
+    private final ThumbnailService thumbnailService;
     private final UserService userService;
 
     @PostMapping("/avatar")
@@ -29,14 +30,12 @@ public class FileController {
         // 获取当前用户
         UserVO currentUser = userService.getCurrentUser();
 
-        // 上传头像
+        // 上传头像，后台预生成缩略图
         String avatarUrl = fileUploadUtil.uploadAvatar(file, currentUser.getUserId());
+        thumbnailService.generateAsync(avatarUrl);
 
-        // 更新用户头像
-        userService.lambdaUpdate()
-                .eq(User::getUserId, currentUser.getUserId())
-                .set(User::getAvatar, avatarUrl)
-                .update();
+        // 原子替换头像，并释放实际被替换的旧头像的引用
+        userService.changeAvatar(currentUser.getUserId(), avatarUrl);
 
         return Result.success(avatarUrl);
     }
@@ -59,7 +58,9 @@ public class FileController {
     @DeleteMapping
     @Operation(summary = "删除文件")
     public Result<Void> deleteFile(@RequestParam String filePath) {
-        boolean success = fileUploadUtil.deleteFile(filePath);
+        UserVO currentUser = userService.getCurrentUser();
+        // 只能删除自己上传的文件
+        boolean success = fileUploadUtil.deleteFile(filePath, currentUser.getUserId());
         return success ? Result.success() : Result.fail("删除失败");
     }
 }
\ No newline at end of file
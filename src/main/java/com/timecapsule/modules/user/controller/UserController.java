@@ -2,11 +2,17 @@ package com.timecapsule.modules.user.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.timecapsule.common.cache.ResponseCached;
 import com.timecapsule.common.result.PageResult;
 import com.timecapsule.common.result.Result;
 import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.security.LoginUserCache;
+import com.timecapsule.common.security.PasswordHashService;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.common.utils.ScrollIdUtils;
 import com.timecapsule.modules.user.dto.request.*;
 import com.timecapsule.modules.user.entity.User;
+import com.timecapsule.modules.user.mapper.UserMapper;
 import com.timecapsule.modules.user.service.UserService;
 import com.timecapsule.modules.user.service.UserWalletService;
 import com.timecapsule.modules.user.service.VerifyCodeService;
@@ -16,11 +22,12 @@ import com.timecapsule.modules.user.vo.UserVO;
 import com.timecapsule.modules.user.vo.UserWalletVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -55,7 +62,19 @@ public class UserController {
     private VerifyCodeService verifyCodeService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashService passwordHashService;
+
+    @Autowired
+    private LoginUserCache loginUserCache;
+
+    @Autowired
+    private FileUploadUtil fileUploadUtil;
+
+    /**
+     * 关键词搜索是否使用全文索引
+     */
+    @Value("${app.user-search.fulltext:false}")
+    private Boolean fulltextSearch;
 
     // ========== 认证相关接口 ==========
 
@@ -94,6 +113,7 @@ public class UserController {
 
     @GetMapping("/user/{userId}")
     @Operation(summary = "获取指定用户信息")
+    @ResponseCached(tags = LoginUserCache.PROFILE_TAG_PREFIX + "{userId}")
     public Result<User> getUserById(@PathVariable String userId) {
         // 使用 MyBatis Plus 的 lambdaQuery
         User user = userService.lambdaQuery()
@@ -123,9 +143,6 @@ public class UserController {
         if (request.getNickname() != null) {
             updateUser.setNickname(request.getNickname());
         }
-        if (request.getAvatar() != null) {
-            updateUser.setAvatar(request.getAvatar());
-        }
         if (request.getBio() != null) {
             updateUser.setBio(request.getBio());
         }
@@ -135,6 +152,16 @@ public class UserController {
 
         // 使用 MyBatis Plus 的 updateById
         userService.updateById(updateUser);
+        loginUserCache.evict(currentUser.getUserId());
+
+        // 头像单独更换：本服务的文件必须是已存在的去重文件，并为头像新增一次引用
+        String avatar = request.getAvatar();
+        if (avatar != null) {
+            if (fileUploadUtil.isManagedPath(avatar) && !fileUploadUtil.acquireReference(avatar)) {
+                return Result.fail(ResultCode.PARAM_VALUE_ERROR.getCode(), "头像地址无效");
+            }
+            userService.changeAvatar(currentUser.getUserId(), avatar);
+        }
 
         return Result.success();
     }
@@ -151,7 +178,7 @@ public class UserController {
     // ========== 用户管理接口（管理员权限） ==========
 
     @GetMapping("/admin/users")
-    @Operation(summary = "分页查询用户列表")
+    @Operation(summary = "分页查询用户列表", description = "传入scroll=true或scrollId时使用滚动分页，按scrollId定位下一页，默认不统计总数")
     // @PreAuthorize("hasRole('ADMIN')")
     public PageResult<User> pageUsers(
             @RequestParam(defaultValue = "1") Integer pageNum,
@@ -159,22 +186,19 @@ public class UserController {
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) Integer status,
             @RequestParam(required = false) String startDate,
-            @RequestParam(required = false) String endDate) {
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "false") Boolean scroll,
+            @RequestParam(required = false) String scrollId,
+            @RequestParam(defaultValue = "false") Boolean withTotal) {
+
+        if (Boolean.TRUE.equals(scroll) || scrollId != null) {
+            return scrollUsers(pageSize, keyword, status, startDate, endDate, scrollId, withTotal);
+        }
 
         // 使用 MyBatis Plus 的分页查询
         Page<User> page = userService.page(
                 new Page<>(pageNum, pageSize),
-                new LambdaQueryWrapper<User>()
-                        .and(keyword != null, wrapper -> wrapper
-                                .like(User::getUsername, keyword)
-                                .or()
-                                .like(User::getNickname, keyword)
-                                .or()
-                                .like(User::getEmail, keyword)
-                        )
-                        .eq(status != null, User::getStatus, status)
-                        .ge(startDate != null, User::getCreateTime, startDate)
-                        .le(endDate != null, User::getCreateTime, endDate)
+                userFilter(keyword, status, startDate, endDate)
                         .orderByDesc(User::getCreateTime)
         );
 
@@ -186,6 +210,76 @@ public class UserController {
         );
     }
 
+    /**
+     * 滚动分页：按 (create_time, id) 倒序 seek 查询，多取一条判断是否有下一页
+     */
+    private PageResult<User> scrollUsers(Integer pageSize, String keyword, Integer status,
+                                         String startDate, String endDate, String scrollId, Boolean withTotal) {
+        ScrollIdUtils.Cursor cursor = ScrollIdUtils.decode(scrollId);
+        // 分页插件限制单次最多1000条，多取的一条也要算在内；小于1时按1处理
+        pageSize = Math.max(1, Math.min(pageSize, 999));
+
+        // searchCount=false，不执行 COUNT 查询
+        List<User> records = userService.page(
+                new Page<>(1, pageSize + 1, false),
+                userFilter(keyword, status, startDate, endDate)
+                        .and(cursor != null, wrapper -> wrapper
+                                .lt(User::getCreateTime, cursor.createTime())
+                                .or(w -> w
+                                        .eq(User::getCreateTime, cursor.createTime())
+                                        .lt(User::getId, cursor.id())))
+                        .orderByDesc(User::getCreateTime)
+                        .orderByDesc(User::getId)
+        ).getRecords();
+
+        boolean hasNext = records.size() > pageSize;
+        List<User> list = hasNext ? records.subList(0, pageSize) : records;
+
+        String nextScrollId = null;
+        if (hasNext) {
+            User last = list.get(list.size() - 1);
+            nextScrollId = ScrollIdUtils.encode(last.getCreateTime(), last.getId());
+        }
+
+        Long total = Boolean.TRUE.equals(withTotal)
+                ? userService.count(userFilter(keyword, status, startDate, endDate))
+                : null;
+
+        return PageResult.scroll(list, total, pageSize, hasNext, nextScrollId);
+    }
+
+    /**
+     * 关键词条件：开启全文检索时走 ngram 全文索引；关键词短于分词长度时退化为前缀匹配，仍可使用索引
+     */
+    private void keywordCondition(LambdaQueryWrapper<User> wrapper, String keyword) {
+        if (!Boolean.TRUE.equals(fulltextSearch)) {
+            wrapper.like(User::getUsername, keyword)
+                    .or()
+                    .like(User::getNickname, keyword)
+                    .or()
+                    .like(User::getEmail, keyword);
+        } else if (keyword.replace("\"", "").trim().length() < UserMapper.NGRAM_TOKEN_SIZE) {
+            wrapper.likeRight(User::getUsername, keyword)
+                    .or()
+                    .likeRight(User::getNickname, keyword)
+                    .or()
+                    .likeRight(User::getEmail, keyword);
+        } else {
+            wrapper.apply(UserMapper.KEYWORD_MATCH, UserMapper.toFulltextPhrase(keyword));
+        }
+    }
+
+    /**
+     * 用户列表筛选条件
+     */
+    private LambdaQueryWrapper<User> userFilter(String keyword, Integer status, String startDate, String endDate) {
+        return new LambdaQueryWrapper<User>()
+                .and(keyword != null, wrapper -> keywordCondition(wrapper, keyword.trim()))
+                .eq(status != null, User::getStatus, status)
+                .ge(startDate != null, User::getCreateTime, startDate)
+                .le(endDate != null, User::getCreateTime, endDate);
+    }
+
     @PutMapping("/admin/users/{id}/status")
     @Operation(summary = "启用/禁用用户")
     // @PreAuthorize("hasRole('ADMIN')")
@@ -198,6 +292,7 @@ public class UserController {
                 .eq(User::getId, id)
                 .set(User::getStatus, status)
                 .update();
+        loginUserCache.evictAll(userService.getUserIdsByIds(List.of(id)));
 
         return Result.success();
     }
@@ -225,8 +320,11 @@ public class UserController {
     @Operation(summary = "删除用户（逻辑删除）")
     // @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> deleteUser(@PathVariable Long id) {
+        // 逻辑删除后无法再查到userId，需提前获取
+        List<String> userIds = userService.getUserIdsByIds(List.of(id));
         // MyBatis Plus 会自动处理逻辑删除
         userService.removeById(id);
+        loginUserCache.evictAll(userIds);
         return Result.success();
     }
 
@@ -234,8 +332,10 @@ public class UserController {
     @Operation(summary = "批量删除用户")
     // @PreAuthorize("hasRole('ADMIN')")
     public Result<Void> batchDeleteUsers(@RequestBody List<Long> ids) {
+        List<String> userIds = userService.getUserIdsByIds(ids);
         // 批量删除
         userService.removeByIds(ids);
+        loginUserCache.evictAll(userIds);
         return Result.success();
     }
 
@@ -269,6 +369,7 @@ public class UserController {
                 .in(User::getId, request.getUserIds())
                 .set(User::getLevel, request.getLevel())
                 .update();
+        loginUserCache.evictAll(userService.getUserIdsByIds(request.getUserIds()));
 
         return Result.success();
     }
@@ -312,7 +413,8 @@ public class UserController {
     public Result<Map<String, Object>> sendVerifyCode(
             @NotBlank(message = "目标不能为空") @RequestParam String target,
             @NotBlank(message = "类型不能为空") @Pattern(regexp = "^(email|sms)$") @RequestParam String type,
-            @NotBlank(message = "用途不能为空") @Pattern(regexp = "^(register|reset|bind)$") @RequestParam String purpose) {
+            @NotBlank(message = "用途不能为空") @Pattern(regexp = "^(register|reset|bind)$") @RequestParam String purpose,
+            HttpServletRequest httpRequest) {
 
         // 如果是已登录用户的操作，获取用户ID
         String userId = null;
@@ -325,7 +427,9 @@ public class UserController {
             // 忽略，可能是未登录用户
         }
 
-        verifyCodeService.sendCode(target, type, purpose, userId);
+        // 只使用连接地址，X-Forwarded-For 等请求头可由客户端伪造；经过代理时由 server.forward-headers-strategy
+        // 在可信代理范围内还原真实地址
+        verifyCodeService.sendCode(target, type, purpose, userId, httpRequest.getRemoteAddr());
 
         Map<String, Object> result = new HashMap<>();
         result.put("expireTime", 300); // 5分钟
@@ -364,8 +468,9 @@ public class UserController {
         }
 
         // 更新密码
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashService.encode(newPassword));
         userService.updateById(user);
+        loginUserCache.evict(user.getUserId());
 
         return Result.success();
     }
@@ -7,6 +7,9 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 用户Mapper接口
  * 继承 BaseMapper 后自动拥有以下方法：
@@ -31,6 +34,25 @@ import org.apache.ibatis.annotations.Select;
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 关键词全文检索条件，用于 LambdaQueryWrapper.apply，参数为 toFulltextPhrase 的结果
+     * 依赖 ngram 全文索引：
+     * ALTER TABLE tc_user ADD FULLTEXT INDEX ft_user_keyword (username, nickname, email) WITH PARSER ngram;
+     */
+    String KEYWORD_MATCH = "MATCH(username, nickname, email) AGAINST({0} IN BOOLEAN MODE)";
+
+    /**
+     * ngram 分词长度（MySQL ngram_token_size 默认值），更短的关键词无法命中全文索引
+     */
+    int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * 将关键词转为布尔模式下的短语查询，ngram 短语匹配等价于子串匹配，同时屏蔽 +-*~ 等运算符
+     */
+    static String toFulltextPhrase(String keyword) {
+        return "\"" + keyword.replace("\"", " ").trim() + "\"";
+    }
+
     // 只需要定义 MyBatis Plus 没有提供的特殊查询方法
     // 如果使用 LambdaQueryWrapper，以下方法都可以不要
 
@@ -40,5 +62,12 @@ public interface UserMapper extends BaseMapper<User> {
     @Select("SELECT * FROM tc_user WHERE username = #{username} AND deleted = 0 LIMIT 1")
     User selectByUsername(@Param("username") String username);
 
+    /**
+     * 批量查询仍被引用的头像路径，包含已逻辑删除的用户，用于孤立文件回收
+     */
+    @Select("<script>SELECT DISTINCT avatar FROM tc_user WHERE avatar IN "
+            + "<foreach collection='avatars' item='avatar' open='(' separator=',' close=')'>#{avatar}</foreach></script>")
+    List<String> selectReferencedAvatars(@Param("avatars") Collection<String> avatars);
+
     // 复杂查询建议使用 XML 文件
 }
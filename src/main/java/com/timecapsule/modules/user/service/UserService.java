@@ -7,6 +7,9 @@ import com.timecapsule.modules.user.entity.User;
 import com.timecapsule.modules.user.vo.UserLoginVO;
 import com.timecapsule.modules.user.vo.UserVO;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * 用户服务接口
  * 继承 IService<User> 后自动拥有以下方法：
@@ -63,4 +66,16 @@ public interface UserService extends IService<User> {
      * 修改密码
      */
     void changePassword(String oldPassword, String newPassword);
+
+    /**
+     * 更换头像
+     * 以条件更新原子替换 tc_user.avatar，只释放实际被替换掉的旧头像的引用；
+     * 调用方需已为新头像持有一次引用（上传或 FileUploadUtil.acquireReference），更换失败时由本方法释放。
+     */
+    void changeAvatar(String userId, String avatar);
+
+    /**
+     * 根据主键ID批量获取用户唯一标识
+     */
+    List<String> getUserIdsByIds(Collection<Long> ids);
 }
\ No newline at end of file
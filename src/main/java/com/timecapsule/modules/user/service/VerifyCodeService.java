@@ -14,8 +14,9 @@ public interface VerifyCodeService extends IService<UserVerifyCode> {
      * @param type 类型：email/sms
      * @param purpose 用途：register/reset/bind
      * @param userId 用户ID（可选）
+     * @param ip 请求IP
      */
-    void sendCode(String target, String type, String purpose, String userId);
+    void sendCode(String target, String type, String purpose, String userId, String ip);
 
     /**
      * 验证验证码
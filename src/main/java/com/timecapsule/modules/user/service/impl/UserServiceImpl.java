@@ -7,6 +7,10 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.timecapsule.common.exception.BusinessException;
 import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.security.LoginUserCache;
+import com.timecapsule.common.security.PasswordHashService;
+import com.timecapsule.common.security.VerifiedToken;
+import com.timecapsule.common.utils.FileUploadUtil;
 import com.timecapsule.common.utils.JwtUtils;
 import com.timecapsule.modules.user.dto.request.UserLoginRequest;
 import com.timecapsule.modules.user.dto.request.UserRegisterRequest;
@@ -20,14 +24,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import java.time.LocalDateTime;
 
@@ -40,8 +45,15 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService, UserDetailsService {
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashService passwordHashService;
     private final JwtUtils jwtUtils;
+    private final LoginUserCache loginUserCache;
+    private final FileUploadUtil fileUploadUtil;
+
+    /**
+     * 更换头像时条件更新的最大尝试次数
+     */
+    private static final int AVATAR_UPDATE_ATTEMPTS = 5;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -67,7 +79,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         User user = new User();
         user.setUserId(generateUserId());
         user.setUsername(request.getUsername());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHashService.encode(request.getPassword()));
         user.setEmail(request.getEmail());
         user.setNickname(request.getUsername());
         user.setLevel(1);
@@ -95,7 +107,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         }
 
         // 验证密码
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashService.matches(request.getPassword(), user.getPassword())) {
             throw new BusinessException(ResultCode.PASSWORD_ERROR);
         }
 
@@ -104,6 +116,16 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             throw new BusinessException(ResultCode.ACCOUNT_DISABLED);
         }
 
+        // 哈希强度低于当前配置时异步升级，仅在密码未被并发修改时写回
+        if (passwordHashService.needsRehash(user.getPassword())) {
+            String oldPassword = user.getPassword();
+            passwordHashService.rehashAsync(request.getPassword(), encoded -> this.lambdaUpdate()
+                    .eq(User::getId, user.getId())
+                    .eq(User::getPassword, oldPassword)
+                    .set(User::getPassword, encoded)
+                    .update());
+        }
+
         // 使用 lambdaUpdate 更新最后登录时间
         this.lambdaUpdate()
                 .eq(User::getId, user.getId())
@@ -130,26 +152,62 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         }
 
         // 验证原密码
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashService.matches(oldPassword, user.getPassword())) {
             throw new BusinessException(ResultCode.OLD_PASSWORD_ERROR);
         }
 
         // 更新密码
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashService.encode(newPassword));
         this.updateById(user);
+        loginUserCache.evict(user.getUserId());
 
         log.info("用户 {} 修改密码成功", user.getUsername());
     }
 
+    @Override
+    public void changeAvatar(String userId, String avatar) {
+        for (int attempt = 0; attempt < AVATAR_UPDATE_ATTEMPTS; attempt++) {
+            // 从数据库读取当前头像，缓存中的认证用户可能已过时
+            User current = this.lambdaQuery()
+                    .eq(User::getUserId, userId)
+                    .select(User::getId, User::getAvatar)
+                    .one();
+            if (current == null) {
+                fileUploadUtil.releaseReference(avatar);
+                throw new BusinessException(ResultCode.USER_NOT_EXIST);
+            }
+
+            // 仅当头像仍是刚读到的值时才更新，并发更换时只有一个请求能替换同一个旧头像
+            String replaced = current.getAvatar();
+            boolean updated = this.lambdaUpdate()
+                    .eq(User::getId, current.getId())
+                    .eq(replaced != null, User::getAvatar, replaced)
+                    .isNull(replaced == null, User::getAvatar)
+                    .set(User::getAvatar, avatar)
+                    .update();
+            if (updated) {
+                loginUserCache.evict(userId);
+                // 与新头像相同时，抵消本次新增的引用
+                fileUploadUtil.releaseReference(replaced);
+                return;
+            }
+        }
+
+        fileUploadUtil.releaseReference(avatar);
+        throw new BusinessException(ResultCode.OPERATION_FAILED, "头像更新冲突，请重试");
+    }
+
     @Override
     public UserLoginVO refreshToken(String refreshToken) {
         // 验证刷新令牌
-        if (!jwtUtils.validateToken(refreshToken)) {
+        VerifiedToken verifiedToken = jwtUtils.verifyToken(refreshToken);
+        // 访问Token不能用于刷新
+        if (verifiedToken == null || !verifiedToken.isRefreshToken()) {
             throw new BusinessException(ResultCode.REFRESH_TOKEN_EXPIRED);
         }
 
         // 获取用户ID
-        String userId = jwtUtils.getUserId(refreshToken);
+        String userId = verifiedToken.getUserId();
 
         // 查询用户信息
         User user = this.lambdaQuery()
@@ -172,6 +230,13 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             return null;
         }
 
+        // 认证过滤器已加载用户信息，直接复用，避免重复查询
+        if (authentication.getPrincipal() instanceof LoginUser loginUser) {
+            UserVO vo = new UserVO();
+            BeanUtil.copyProperties(loginUser.getUser(), vo);
+            return vo;
+        }
+
         // 获取用户名
         String username = authentication.getName();
 
@@ -207,6 +272,19 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return vo;
     }
 
+    @Override
+    public List<String> getUserIdsByIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return this.lambdaQuery()
+                .select(User::getUserId)
+                .in(User::getId, ids)
+                .list()
+                .stream()
+                .map(User::getUserId)
+                .toList();
+    }
 
     /**
      * 构建登录响应
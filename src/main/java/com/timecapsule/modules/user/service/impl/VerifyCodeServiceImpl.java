@@ -3,15 +3,23 @@ package com.timecapsule.modules.user.service.impl;
 import cn.hutool.core.util.RandomUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.ratelimit.RateLimitRule;
+import com.timecapsule.common.ratelimit.RateLimiter;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.modules.notification.service.NotificationService;
 import com.timecapsule.modules.user.entity.UserVerifyCode;
 import com.timecapsule.modules.user.mapper.UserVerifyCodeMapper;
 import com.timecapsule.modules.user.service.VerifyCodeService;
+import com.timecapsule.modules.user.store.VerifyCodeAuditWriter;
+import com.timecapsule.modules.user.store.VerifyCodeStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 验证码服务实现
@@ -21,41 +29,56 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class VerifyCodeServiceImpl extends ServiceImpl<UserVerifyCodeMapper, UserVerifyCode> implements VerifyCodeService {
 
+    private final RateLimiter rateLimiter;
+    private final VerifyCodeStore verifyCodeStore;
+    private final VerifyCodeAuditWriter verifyCodeAuditWriter;
+    private final NotificationService notificationService;
+
     @Value("${app.verify-code.expire-minutes:5}")
     private Integer expireMinutes;
 
     @Value("${app.verify-code.daily-limit:10}")
     private Integer dailyLimit;
 
+    @Value("${app.verify-code.ip-hourly-limit:20}")
+    private Integer ipHourlyLimit;
+
     @Override
-    public void sendCode(String target, String type, String purpose, String userId) {
-        // 1. 检查发送频率（1分钟内只能发送一次）
-        LocalDateTime oneMinuteAgo = LocalDateTime.now().minusMinutes(1);
-        boolean recentlySent = this.lambdaQuery()
-                .eq(UserVerifyCode::getTarget, target)
-                .eq(UserVerifyCode::getPurpose, purpose)
-                .ge(UserVerifyCode::getCreateTime, oneMinuteAgo)
-                .exists();
-
-        if (recentlySent) {
-            throw new BusinessException("验证码发送过于频繁，请稍后再试");
+    public void sendCode(String target, String type, String purpose, String userId, String ip) {
+        // 1. 限流：同一目标同一用途1分钟1次、同一目标每日上限、同一IP每小时上限，检查与计数原子完成
+        List<RateLimitRule> rules = List.of(
+                new RateLimitRule("verify-code:target:" + purpose + ":" + target, 1,
+                        Duration.ofMinutes(1), "验证码发送过于频繁，请稍后再试"),
+                new RateLimitRule("verify-code:daily:" + target, dailyLimit,
+                        Duration.ofDays(1), "今日验证码发送次数已达上限"),
+                new RateLimitRule("verify-code:ip:" + ip, ipHourlyLimit,
+                        Duration.ofHours(1), "当前网络请求验证码过于频繁，请稍后再试")
+        );
+        RateLimitRule violated = rateLimiter.tryAcquire(rules);
+
+        if (violated != null) {
+            throw new BusinessException(ResultCode.CAPTCHA_FREQUENT, violated.getMessage());
         }
 
-        // 2. 检查每日发送次数限制
-        LocalDateTime todayStart = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-        long todayCount = this.lambdaQuery()
-                .eq(UserVerifyCode::getTarget, target)
-                .ge(UserVerifyCode::getCreateTime, todayStart)
-                .count();
+        // 2. 生成验证码
+        String code = generateCode(6);
 
-        if (todayCount >= dailyLimit) {
-            throw new BusinessException("今日验证码发送次数已达上限");
+        // 3. 保存验证码，需在提交发送之前，保证用户收到时已可校验
+        verifyCodeStore.save(purpose, target, code);
+
+        // 4. 提交发送任务，由通知服务异步投递；死信表中只保存脱敏内容
+        String template = "【时光信笺】您的验证码是: %s，%d分钟内有效。";
+        try {
+            notificationService.send(type, target, String.format(template, code, expireMinutes),
+                    String.format(template, "******", expireMinutes));
+        } catch (BusinessException e) {
+            // 队列已满未能提交：作废本次验证码并退还限流计数，用户可立即重试
+            verifyCodeStore.consume(purpose, target, code);
+            rateLimiter.release(rules);
+            throw e;
         }
 
-        // 3. 生成验证码
-        String code = generateCode(6);
-
-        // 4. 保存验证码记录
+        // 5. 审计记录异步批量写库
         UserVerifyCode verifyCode = new UserVerifyCode();
         verifyCode.setTarget(target);
         verifyCode.setCode(code);
@@ -64,42 +87,22 @@ public class VerifyCodeServiceImpl extends ServiceImpl<UserVerifyCodeMapper, Use
         verifyCode.setUserId(userId);
         verifyCode.setExpireTime(LocalDateTime.now().plusMinutes(expireMinutes));
         verifyCode.setIsUsed(0);
-        verifyCode.setIp("127.0.0.1"); // TODO: 获取真实IP
-
-        this.save(verifyCode);
+        verifyCode.setIp(ip);
+        verifyCode.setCreateTime(LocalDateTime.now());
 
-        // 5. 发送验证码
-        if ("email".equals(type)) {
-            sendEmailCode(target, code);
-        } else if ("sms".equals(type)) {
-            sendSmsCode(target, code);
-        }
+        verifyCodeAuditWriter.recordSent(verifyCode);
 
-        log.info("验证码发送成功 - 目标: {}, 类型: {}, 用途: {}", target, type, purpose);
+        log.info("验证码已提交发送 - 目标: {}, 类型: {}, 用途: {}", target, type, purpose);
     }
 
     @Override
     public boolean verifyCode(String target, String code, String purpose) {
-        // 查找有效的验证码
-        UserVerifyCode verifyCode = this.lambdaQuery()
-                .eq(UserVerifyCode::getTarget, target)
-                .eq(UserVerifyCode::getCode, code)
-                .eq(UserVerifyCode::getPurpose, purpose)
-                .eq(UserVerifyCode::getIsUsed, 0)
-                .gt(UserVerifyCode::getExpireTime, LocalDateTime.now())
-                .orderByDesc(UserVerifyCode::getCreateTime)
-                .last("limit 1")
-                .one();
-
-        if (verifyCode == null) {
+        // 比较与删除原子完成，并发提交时同一验证码只有一次能成功
+        if (!verifyCodeStore.consume(purpose, target, code)) {
             return false;
         }
 
-        // 标记为已使用
-        verifyCode.setIsUsed(1);
-        verifyCode.setUsedTime(LocalDateTime.now());
-        this.updateById(verifyCode);
-
+        verifyCodeAuditWriter.recordUsed(target, code, purpose);
         return true;
     }
 
@@ -107,20 +110,4 @@ public class VerifyCodeServiceImpl extends ServiceImpl<UserVerifyCodeMapper, Use
     public String generateCode(int length) {
         return RandomUtil.randomNumbers(length);
     }
-
-    /**
-     * 发送邮箱验证码
-     */
-    private void sendEmailCode(String email, String code) {
-        // TODO: 实现邮件发送逻辑
-        log.info("【时光信笺】您的验证码是: {}，{}分钟内有效。", code, expireMinutes);
-    }
-
-    /**
-     * 发送短信验证码
-     */
-    private void sendSmsCode(String phone, String code) {
-        // TODO: 实现短信发送逻辑
-        log.info("【时光信笺】您的验证码是: {}，{}分钟内有效。", code, expireMinutes);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.timecapsule.modules.user.store;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 本地内存验证码存储，适用于单节点部署、开发和测试环境
+ */
+@Component
+@ConditionalOnProperty(name = "app.verify-code.store", havingValue = "local", matchIfMissing = true)
+public class LocalVerifyCodeStore implements VerifyCodeStore {
+
+    @Value("${app.verify-code.expire-minutes:5}")
+    private Integer expireMinutes;
+
+    private Cache<String, String> codes;
+
+    @PostConstruct
+    public void init() {
+        codes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .build();
+    }
+
+    @Override
+    public void save(String purpose, String target, String code) {
+        codes.put(key(purpose, target), code);
+    }
+
+    @Override
+    public boolean consume(String purpose, String target, String code) {
+        // 条件删除：仅当值与验证码一致时删除，保证同一验证码只能消费一次
+        return codes.asMap().remove(key(purpose, target), code);
+    }
+
+    private String key(String purpose, String target) {
+        return purpose + ":" + target;
+    }
+}
@@ -0,0 +1,56 @@
+package com.timecapsule.modules.user.store;
+
+import lombok.RequiredArgsConstructor;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * 基于Redis的验证码存储，过期时间由Redis TTL控制
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.verify-code.store", havingValue = "redis")
+public class RedisVerifyCodeStore implements VerifyCodeStore {
+
+    /**
+     * 验证码一致时删除并返回1，否则返回0；验证码错误不会使其失效
+     */
+    private static final String CONSUME_SCRIPT =
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('DEL', KEYS[1]) " +
+            "  return 1 " +
+            "end " +
+            "return 0";
+
+    private static final String KEY_PREFIX = "tc:verify-code:";
+
+    private final RedissonClient redissonClient;
+
+    @Value("${app.verify-code.expire-minutes:5}")
+    private Integer expireMinutes;
+
+    @Override
+    public void save(String purpose, String target, String code) {
+        redissonClient.getBucket(key(purpose, target), StringCodec.INSTANCE)
+                .set(code, Duration.ofMinutes(expireMinutes));
+    }
+
+    @Override
+    public boolean consume(String purpose, String target, String code) {
+        Long result = redissonClient.getScript(StringCodec.INSTANCE)
+                .eval(RScript.Mode.READ_WRITE, CONSUME_SCRIPT, RScript.ReturnType.INTEGER,
+                        Collections.singletonList(key(purpose, target)), code);
+        return result != null && result == 1L;
+    }
+
+    private String key(String purpose, String target) {
+        return KEY_PREFIX + purpose + ":" + target;
+    }
+}
@@ -0,0 +1,127 @@
+package com.timecapsule.modules.user.store;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.toolkit.Db;
+import com.timecapsule.modules.user.entity.UserVerifyCode;
+import com.timecapsule.modules.user.mapper.UserVerifyCodeMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * 验证码审计日志写入器
+ * 验证码的有效性由 VerifyCodeStore 判断，tc_user_verify_code 仅作审计记录，
+ * 发送和使用记录先进入内存队列，由后台线程定时批量写库，不占用请求线程。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VerifyCodeAuditWriter {
+
+    private final UserVerifyCodeMapper userVerifyCodeMapper;
+
+    @Value("${app.verify-code.audit.batch-size:200}")
+    private Integer batchSize;
+
+    @Value("${app.verify-code.audit.flush-interval-millis:1000}")
+    private Long flushIntervalMillis;
+
+    @Value("${app.verify-code.audit.queue-capacity:10000}")
+    private Integer queueCapacity;
+
+    private BlockingQueue<AuditEvent> queue;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("verify-code-audit-"));
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 停机前写入剩余记录
+        flush();
+    }
+
+    /**
+     * 记录验证码发送
+     */
+    public void recordSent(UserVerifyCode verifyCode) {
+        offer(new AuditEvent(verifyCode, null));
+    }
+
+    /**
+     * 记录验证码使用
+     */
+    public void recordUsed(String target, String code, String purpose) {
+        UserVerifyCode used = new UserVerifyCode();
+        used.setTarget(target);
+        used.setCode(code);
+        used.setPurpose(purpose);
+        offer(new AuditEvent(used, LocalDateTime.now()));
+    }
+
+    private void offer(AuditEvent event) {
+        if (!queue.offer(event)) {
+            log.warn("验证码审计队列已满，丢弃记录 - 目标: {}", event.verifyCode().getTarget());
+        }
+    }
+
+    /**
+     * 批量写入：先插入发送记录，再标记使用记录，保证同一批次内的使用记录能找到对应的发送记录
+     */
+    synchronized void flush() {
+        List<AuditEvent> events = new ArrayList<>(batchSize);
+        while (queue.drainTo(events, batchSize) > 0) {
+            try {
+                List<UserVerifyCode> sent = new ArrayList<>();
+                List<AuditEvent> used = new ArrayList<>();
+                for (AuditEvent event : events) {
+                    if (event.usedTime() == null) {
+                        sent.add(event.verifyCode());
+                    } else {
+                        used.add(event);
+                    }
+                }
+
+                if (!sent.isEmpty()) {
+                    Db.saveBatch(sent, batchSize);
+                }
+                for (AuditEvent event : used) {
+                    UserVerifyCode verifyCode = event.verifyCode();
+                    userVerifyCodeMapper.update(null, new LambdaUpdateWrapper<UserVerifyCode>()
+                            .eq(UserVerifyCode::getTarget, verifyCode.getTarget())
+                            .eq(UserVerifyCode::getCode, verifyCode.getCode())
+                            .eq(UserVerifyCode::getPurpose, verifyCode.getPurpose())
+                            .eq(UserVerifyCode::getIsUsed, 0)
+                            .set(UserVerifyCode::getIsUsed, 1)
+                            .set(UserVerifyCode::getUsedTime, event.usedTime()));
+                }
+            } catch (Exception e) {
+                log.error("验证码审计记录写入失败，丢弃{}条记录: {}", events.size(), e.getMessage());
+            }
+            events.clear();
+        }
+    }
+
+    private record AuditEvent(UserVerifyCode verifyCode, LocalDateTime usedTime) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.timecapsule.modules.user.store;
+
+/**
+ * 验证码存储
+ * 同一目标同一用途只保留最新的验证码，过期后自动失效。
+ */
+public interface VerifyCodeStore {
+
+    /**
+     * 保存验证码，覆盖该目标该用途下尚未使用的旧验证码
+     *
+     * @param purpose 用途
+     * @param target  目标（邮箱或手机号）
+     * @param code    验证码
+     */
+    void save(String purpose, String target, String code);
+
+    /**
+     * 校验并消费验证码，比较与删除原子完成，同一验证码只能成功消费一次
+     *
+     * @return 验证码匹配且未过期时返回true
+     */
+    boolean consume(String purpose, String target, String code);
+}
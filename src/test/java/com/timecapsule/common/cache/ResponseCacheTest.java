@@ -0,0 +1,306 @@
+package com.timecapsule.common.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.common.config.ResponseCacheConfig;
+import com.timecapsule.common.interceptor.ResponseCacheInterceptor;
+import com.timecapsule.common.result.Result;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.common.utils.TraceIdUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 响应缓存的写入、命中与按标签失效
+ */
+class ResponseCacheTest {
+
+    private static final String TAG = "user:1";
+
+    private static final String JSON = "application/json";
+
+    private ResponseCacheConfig config;
+
+    private ResponseCache responseCache;
+
+    private ResponseCacheFilter filter;
+
+    private ResponseCacheInterceptor interceptor;
+
+    private HandlerMethod handler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 控制器被执行的次数
+     */
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = new ResponseCacheConfig();
+        responseCache = new ResponseCache(config, new SimpleMeterRegistry(), objectMapper);
+        responseCache.init();
+        filter = new ResponseCacheFilter(responseCache);
+        interceptor = new ResponseCacheInterceptor(responseCache);
+        handler = new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("profile"));
+    }
+
+    @Test
+    void staleSequenceIsNotCached() {
+        long seq = responseCache.invalidationSeq();
+        responseCache.invalidateTag("other");
+
+        responseCache.put("/api/a", result("old"), JSON, null, Set.of(TAG), seq);
+
+        // 读取数据之后发生过失效，即使标签不同也不缓存
+        assertThat(responseCache.get("/api/a")).isNull();
+    }
+
+    @Test
+    void invalidateTagRemovesOnlyTaggedEntries() {
+        responseCache.put("/api/a", result("a"), JSON, null, Set.of(TAG), responseCache.invalidationSeq());
+        responseCache.put("/api/b", result("b"), JSON, null, Set.of("user:2"), responseCache.invalidationSeq());
+
+        responseCache.invalidateTag(TAG);
+
+        assertThat(responseCache.get("/api/a")).isNull();
+        assertThat(responseCache.get("/api/b")).isNotNull();
+    }
+
+    @Test
+    void concurrentReadersNeverLeaveStaleEntryAfterInvalidation() throws Exception {
+        AtomicLong dataVersion = new AtomicLong();
+        int readers = 4;
+        int rounds = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        // 与拦截器一致：先取失效序号，再读取数据
+                        long seq = responseCache.invalidationSeq();
+                        String body = String.valueOf(dataVersion.get());
+                        responseCache.put("/api/user/1", result(body), JSON, null, Set.of(TAG), seq);
+                    }
+                    return null;
+                }));
+            }
+            tasks.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < rounds; i++) {
+                    // 与业务代码一致：先修改数据，再失效
+                    dataVersion.incrementAndGet();
+                    responseCache.invalidateTag(TAG);
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ResponseCache.CachedResponse cached = responseCache.get("/api/user/1");
+        if (cached != null) {
+            assertThat(cached.body().get("data").asText()).isEqualTo(String.valueOf(dataVersion.get()));
+        }
+    }
+
+    @Test
+    void secondRequestIsServedFromCacheWithEtag() throws Exception {
+        MockHttpServletResponse first = perform(request(), response -> write(response, "v1"));
+        assertThat(data(first)).isEqualTo("v1");
+
+        MockHttpServletResponse second = perform(request(), response -> write(response, "v2"));
+        assertThat(data(second)).isEqualTo("v1");
+        assertThat(invocations.get()).isEqualTo(1);
+
+        MockHttpServletRequest conditional = request();
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, "\"v1\"");
+        MockHttpServletResponse notModified = perform(conditional, response -> write(response, "v2"));
+        assertThat(notModified.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    void tagInvalidationResolvesPathVariables() throws Exception {
+        perform(request(), response -> write(response, "v1"));
+
+        responseCache.invalidateTag(TAG);
+
+        MockHttpServletResponse next = perform(request(), response -> write(response, "v2"));
+        assertThat(data(next)).isEqualTo("v2");
+        assertThat(invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationDuringRequestIsNotCached() throws Exception {
+        perform(request(), response -> {
+            // 控制器读取数据之后、响应写出之前数据发生变化
+            responseCache.invalidateTag(TAG);
+            write(response, "stale");
+        });
+
+        MockHttpServletResponse next = perform(request(), response -> write(response, "fresh"));
+        assertThat(data(next)).isEqualTo("fresh");
+    }
+
+    @Test
+    void errorResponsesAreNotCached() throws Exception {
+        perform(request(), response -> write(response, "error"), new IllegalStateException("failed"));
+
+        MockHttpServletResponse next = perform(request(), response -> write(response, "ok"));
+        assertThat(data(next)).isEqualTo("ok");
+    }
+
+    @Test
+    void oversizedResponsesAreNotCached() throws Exception {
+        config.setMaxEntryKb(1);
+        String large = "x".repeat(2048);
+
+        MockHttpServletResponse first = perform(request(), response -> write(response, large));
+        assertThat(data(first)).isEqualTo(large);
+
+        perform(request(), response -> write(response, "small"));
+        assertThat(invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void hitsCarryTheirOwnTraceIdAndTimestamp() throws Exception {
+        try {
+            TraceIdUtils.setTraceId("trace-first");
+            MockHttpServletResponse first = perform(request(), response -> write(response, "v1"));
+            long firstTimestamp = json(first).get("timestamp").asLong();
+
+            Thread.sleep(5);
+            TraceIdUtils.setTraceId("trace-second");
+            MockHttpServletResponse second = perform(request(), response -> write(response, "v2"));
+
+            assertThat(invocations.get()).isEqualTo(1);
+            JsonNode body = json(second);
+            assertThat(body.get("data").asText()).isEqualTo("v1");
+            assertThat(body.get("code").asInt()).isEqualTo(ResultCode.SUCCESS.getCode());
+            assertThat(body.get("traceId").asText()).isEqualTo("trace-second");
+            assertThat(body.get("timestamp").asLong()).isGreaterThan(firstTimestamp);
+            assertThat(second.getContentLength()).isEqualTo(second.getContentAsByteArray().length);
+        } finally {
+            TraceIdUtils.clear();
+        }
+    }
+
+    @Test
+    void failedResultsAreNotCached() throws Exception {
+        perform(request(), response -> write(response, "missing", Result.fail("用户不存在")));
+
+        MockHttpServletResponse next = perform(request(), response -> write(response, "found"));
+        assertThat(data(next)).isEqualTo("found");
+        assertThat(invocations.get()).isEqualTo(2);
+    }
+
+    @Test
+    void nonJsonBodiesAreNotCached() {
+        assertThat(responseCache.put("/api/raw", "plain text".getBytes(StandardCharsets.UTF_8), "text/plain", null, Set.of(TAG),
+                responseCache.invalidationSeq())).isFalse();
+        assertThat(responseCache.get("/api/raw")).isNull();
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request, Consumer<HttpServletResponse> controller)
+            throws Exception {
+        return perform(request, controller, null);
+    }
+
+    /**
+     * 依次执行过滤器、拦截器和控制器
+     */
+    private MockHttpServletResponse perform(MockHttpServletRequest request, Consumer<HttpServletResponse> controller,
+                                            Exception handlerException) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            try {
+                if (interceptor.preHandle((HttpServletRequest) req, (HttpServletResponse) res, handler)) {
+                    invocations.incrementAndGet();
+                    if (handlerException != null) {
+                        req.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, handlerException);
+                    }
+                    controller.accept((HttpServletResponse) res);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/1");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("userId", "1"));
+        return request;
+    }
+
+    private void write(HttpServletResponse response, String data) {
+        write(response, data, Result.success(data));
+    }
+
+    private void write(HttpServletResponse response, String etag, Result<?> result) {
+        try {
+            response.setContentType("application/json");
+            response.setHeader(HttpHeaders.ETAG, "\"" + etag + "\"");
+            response.getOutputStream().write(objectMapper.writeValueAsBytes(result));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode json(MockHttpServletResponse response) throws Exception {
+        return objectMapper.readTree(response.getContentAsByteArray());
+    }
+
+    private String data(MockHttpServletResponse response) throws Exception {
+        return json(response).path("data").asText();
+    }
+
+    private byte[] result(String data) {
+        try {
+            return objectMapper.writeValueAsBytes(Result.success(data));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Endpoints {
+
+        @ResponseCached(tags = "user:{userId}")
+        public String profile() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.timecapsule.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 本地滑动窗口限流
+ */
+class LocalRateLimiterTest {
+
+    private final LocalRateLimiter rateLimiter = new LocalRateLimiter();
+
+    @Test
+    void allowsUpToLimitWithinWindow() {
+        RateLimitRule rule = new RateLimitRule("daily", 3, Duration.ofDays(1), "daily");
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(List.of(rule))).isNull();
+        }
+        assertThat(rateLimiter.tryAcquire(List.of(rule))).isSameAs(rule);
+    }
+
+    @Test
+    void countsExpireWhenWindowSlides() throws InterruptedException {
+        RateLimitRule rule = new RateLimitRule("short", 1, Duration.ofMillis(100), "short");
+
+        assertThat(rateLimiter.tryAcquire(List.of(rule))).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(rule))).isSameAs(rule);
+
+        Thread.sleep(150);
+
+        assertThat(rateLimiter.tryAcquire(List.of(rule))).isNull();
+    }
+
+    @Test
+    void violatedRuleDoesNotCountOtherRules() {
+        RateLimitRule perTarget = new RateLimitRule("target", 1, Duration.ofMinutes(1), "target");
+        RateLimitRule perIp = new RateLimitRule("ip", 2, Duration.ofHours(1), "ip");
+
+        assertThat(rateLimiter.tryAcquire(List.of(perTarget))).isNull();
+        // target 超限，本次请求不计入 ip 窗口
+        assertThat(rateLimiter.tryAcquire(List.of(perIp, perTarget))).isSameAs(perTarget);
+        assertThat(rateLimiter.tryAcquire(List.of(perIp))).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(perIp))).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(perIp))).isSameAs(perIp);
+    }
+
+    @Test
+    void keysAreCountedIndependently() {
+        RateLimitRule first = new RateLimitRule("target:a", 1, Duration.ofMinutes(1), "a");
+        RateLimitRule second = new RateLimitRule("target:b", 1, Duration.ofMinutes(1), "b");
+
+        assertThat(rateLimiter.tryAcquire(List.of(first))).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(second))).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(first))).isSameAs(first);
+    }
+
+    @Test
+    void releaseRefundsLatestCountOfEveryRule() {
+        RateLimitRule perTarget = new RateLimitRule("target", 1, Duration.ofMinutes(1), "target");
+        RateLimitRule perIp = new RateLimitRule("ip", 2, Duration.ofHours(1), "ip");
+        List<RateLimitRule> rules = List.of(perTarget, perIp);
+
+        assertThat(rateLimiter.tryAcquire(rules)).isNull();
+        assertThat(rateLimiter.tryAcquire(rules)).isSameAs(perTarget);
+
+        rateLimiter.release(rules);
+
+        // 被拒绝的请求不计数，退还后 ip 窗口内只剩重试这一次
+        assertThat(rateLimiter.tryAcquire(rules)).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(perIp))).isNull();
+        assertThat(rateLimiter.tryAcquire(List.of(perIp))).isSameAs(perIp);
+    }
+
+    @Test
+    void releaseOfUnknownKeyIsIgnored() {
+        RateLimitRule rule = new RateLimitRule("unknown", 1, Duration.ofMinutes(1), "unknown");
+
+        rateLimiter.release(List.of(rule));
+
+        assertThat(rateLimiter.tryAcquire(List.of(rule))).isNull();
+    }
+}
@@ -0,0 +1,101 @@
+package com.timecapsule.common.security;
+
+import com.timecapsule.common.utils.JwtUtils;
+import com.timecapsule.modules.user.entity.LoginUser;
+import com.timecapsule.modules.user.entity.User;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authorization.AuthenticatedAuthorizationManager;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.ExceptionTranslationFilter;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 按Token类型认证：只有访问Token可以调用接口
+ */
+class JwtAuthenticationFilterTest {
+
+    private JwtUtils jwtUtils;
+
+    private LoginUserCache loginUserCache;
+
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", "s".repeat(64));
+        ReflectionTestUtils.setField(jwtUtils, "expireTime", 7200L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpireTime", 604800L);
+        jwtUtils.init();
+
+        User user = new User();
+        user.setUserId("u1");
+        user.setUsername("alice");
+        user.setStatus(1);
+        loginUserCache = mock(LoginUserCache.class);
+        when(loginUserCache.get("u1")).thenReturn(new LoginUser(user, List.of()));
+
+        filter = new JwtAuthenticationFilter(jwtUtils, loginUserCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessTokenIsAuthenticated() throws Exception {
+        MockHttpServletResponse response = perform(jwtUtils.generateToken("u1", "alice"));
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void refreshTokenIsRejected() throws Exception {
+        MockHttpServletResponse response = perform(jwtUtils.generateRefreshToken("u1"));
+
+        assertThat(response.getStatus()).isEqualTo(401);
+        verifyNoInteractions(loginUserCache);
+    }
+
+    @Test
+    void callerClaimsCannotOverrideTokenType() throws Exception {
+        String token = jwtUtils.generateToken("u1", "alice", Map.of(JwtUtils.CLAIM_TYPE, JwtUtils.TYPE_REFRESH));
+
+        assertThat(jwtUtils.verifyToken(token).isAccessToken()).isTrue();
+    }
+
+    /**
+     * 按 SecurityConfig 的顺序执行认证过滤器、异常转换和要求已认证的授权检查
+     */
+    private MockHttpServletResponse perform(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/user/info");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(HttpServletResponse.SC_OK);
+            }
+        }, filter, new ExceptionTranslationFilter(new JwtAuthenticationEntryPoint()),
+                new AuthorizationFilter(AuthenticatedAuthorizationManager.authenticated()));
+        chain.doFilter(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,83 @@
+package com.timecapsule.common.upload.inspector;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 读取、跳过的内容都交给检查器，读到末尾时只 finish 一次
+ */
+class InspectingInputStreamTest {
+
+    @Test
+    void skippedContentIsInspected() throws IOException {
+        byte[] content = content(20_000);
+        Recording inspection = new Recording();
+
+        try (InputStream in = new InspectingInputStream(new ByteArrayInputStream(content), inspection)) {
+            assertThat(in.read()).isEqualTo(content[0] & 0xff);
+            assertThat(in.skip(12_345)).isEqualTo(12_345);
+            assertThat(in.readAllBytes()).hasSize(content.length - 1 - 12_345);
+        }
+
+        assertThat(inspection.received.toByteArray()).isEqualTo(content);
+        assertThat(inspection.finishCount).isEqualTo(1);
+    }
+
+    @Test
+    void skipPastEndStopsAtEnd() throws IOException {
+        Recording inspection = new Recording();
+
+        try (InputStream in = new InspectingInputStream(new ByteArrayInputStream(content(100)), inspection)) {
+            assertThat(in.skip(1000)).isEqualTo(100);
+            assertThat(in.skip(10)).isZero();
+            assertThat(in.skip(-1)).isZero();
+        }
+
+        assertThat(inspection.received.size()).isEqualTo(100);
+        assertThat(inspection.finishCount).isEqualTo(1);
+    }
+
+    @Test
+    void transferToInspectsEverything() throws IOException {
+        byte[] content = content(50_000);
+        Recording inspection = new Recording();
+
+        try (InputStream in = new InspectingInputStream(new ByteArrayInputStream(content), inspection)) {
+            in.transferTo(new ByteArrayOutputStream());
+        }
+
+        assertThat(inspection.received.toByteArray()).isEqualTo(content);
+        assertThat(inspection.finishCount).isEqualTo(1);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        return content;
+    }
+
+    private static class Recording implements UploadInspector.Inspection {
+
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        private int finishCount;
+
+        @Override
+        public void update(byte[] buffer, int offset, int length) {
+            received.write(buffer, offset, length);
+        }
+
+        @Override
+        public void finish() {
+            finishCount++;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.timecapsule.common.upload.inspector;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PDF结构检查：%%EOF 校验与主动内容识别
+ */
+class PdfStructureInspectorTest {
+
+    private static final String CATALOG = "<< /Type /Catalog /Pages 2 0 R >>";
+
+    private static final String PAGES = "<< /Type /Pages /Kids [3 0 R] /Count 1 >>";
+
+    private static final String PAGE = "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] /Contents 4 0 R >>";
+
+    private FileUploadConfig config;
+
+    private PdfStructureInspector inspector;
+
+    @BeforeEach
+    void setUp() {
+        config = new FileUploadConfig();
+        inspector = new PdfStructureInspector(config);
+    }
+
+    @Test
+    void compressedStreamsContainingActiveContentBytesAreAccepted() {
+        // 压缩流中大量出现 /JS、/JavaScript 字节序列，按原来的字节匹配必然误判
+        byte[] noise = new byte[1024 * 1024];
+        new Random(42).nextBytes(noise);
+        byte[] marker = "/JS /JavaScript /Launch ".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i + marker.length < noise.length; i += 4096) {
+            System.arraycopy(marker, 0, noise, i, marker.length);
+        }
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .object(PAGES)
+                .object(PAGE)
+                .stream("/Filter /FlateDecode", deflate(noise))
+                .stream("/Subtype /Image /Filter /DCTDecode", noise)
+                .build();
+
+        assertAccepted(pdf, 8192);
+    }
+
+    @Test
+    void javaScriptActionIsRejected() {
+        byte[] pdf = new PdfBuilder()
+                .object("<< /Type /Catalog /Pages 2 0 R /OpenAction 5 0 R >>")
+                .object(PAGES)
+                .object(PAGE)
+                .stream("/Filter /FlateDecode", deflate(ascii("BT /F1 12 Tf (hello) Tj ET")))
+                .object("<< /S /JavaScript /JS (app.alert\\(1\\)) >>")
+                .build();
+
+        assertRejected(pdf, 8192);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 7, 64})
+    void namesSplitAcrossChunksAreRecognized(int chunkSize) {
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .object("<< /S /Launch /F (calc.exe) >>")
+                .build();
+
+        assertRejected(pdf, chunkSize);
+    }
+
+    @Test
+    void escapedNamesAreDecoded() {
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .object("<< /S /J#61va#53cript /JS (x) >>")
+                .build();
+
+        assertRejected(pdf, 8192);
+    }
+
+    @Test
+    void namesMustMatchWholeToken() {
+        // /JSON、字符串和注释中的 /JavaScript 都不是主动内容
+        byte[] pdf = new PdfBuilder()
+                .object("<< /Type /Catalog /Pages 2 0 R /JSON true /Title (see /JavaScript docs) >>")
+                .object(PAGES)
+                .object("% /Launch in a comment\n" + PAGE)
+                .stream("", ascii("<4a53> Tj"))
+                .build();
+
+        assertAccepted(pdf, 8192);
+    }
+
+    @Test
+    void javaScriptInsideCompressedObjectStreamIsRejected() {
+        byte[] objects = ascii("5 0 6 40 << /S /JavaScript /JS 6 0 R >> (app.alert\\(1\\))");
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .object(PAGES)
+                .object(PAGE)
+                .stream("/Filter /FlateDecode", deflate(ascii("BT ET")))
+                .stream("/Type /ObjStm /N 2 /First 8 /Filter /FlateDecode", deflate(objects))
+                .build();
+
+        assertRejected(pdf, 8192);
+        assertRejected(pdf, 5);
+    }
+
+    @Test
+    void benignCompressedObjectStreamIsAccepted() {
+        byte[] objects = ascii("5 0 << /Type /Annot /Subtype /Link /Rect [0 0 10 10] /JSON 1 >>");
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .object(PAGES)
+                .object(PAGE)
+                .stream("/Filter /FlateDecode", deflate(ascii("BT ET")))
+                .stream("/Type /ObjStm /N 1 /First 4 /Filter /FlateDecode", deflate(objects))
+                .build();
+
+        assertAccepted(pdf, 3);
+    }
+
+    @Test
+    void objectStreamWithUnsupportedFilterIsRejected() {
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .stream("/Type /ObjStm /N 1 /First 4 /Filter /LZWDecode", new byte[]{1, 2, 3, 4})
+                .build();
+
+        assertRejected(pdf, 8192);
+    }
+
+    @Test
+    void truncatedObjectStreamIsRejected() {
+        byte[] compressed = deflate(ascii("5 0 << /Type /Annot >>"));
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .stream("/Type /ObjStm /N 1 /First 4 /Filter /FlateDecode", truncated)
+                .build();
+
+        assertRejected(pdf, 8192);
+    }
+
+    @Test
+    void activeContentIsAllowedWhenDisabled() {
+        config.getInspection().setPdfRejectActiveContent(false);
+        byte[] pdf = new PdfBuilder()
+                .object(CATALOG)
+                .object("<< /S /JavaScript /JS (x) >>")
+                .build();
+
+        assertAccepted(pdf, 8192);
+    }
+
+    @Test
+    void missingEofMarkerIsRejected() {
+        byte[] pdf = new PdfBuilder().object(CATALOG).build();
+        byte[] truncated = Arrays.copyOf(pdf, pdf.length - 8);
+
+        assertThatThrownBy(() -> feed(truncated, 8192))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("不完整");
+    }
+
+    @Test
+    void otherFormatsAreNotInspected() {
+        assertThat(inspector.begin("png")).isNull();
+    }
+
+    private void assertAccepted(byte[] pdf, int chunkSize) {
+        assertThatCode(() -> feed(pdf, chunkSize)).doesNotThrowAnyException();
+    }
+
+    private void assertRejected(byte[] pdf, int chunkSize) {
+        assertThatThrownBy(() -> feed(pdf, chunkSize)).isInstanceOf(BusinessException.class);
+    }
+
+    private void feed(byte[] content, int chunkSize) {
+        UploadInspector.Inspection inspection = inspector.begin("pdf");
+        for (int offset = 0; offset < content.length; offset += chunkSize) {
+            inspection.update(content, offset, Math.min(chunkSize, content.length - offset));
+        }
+        inspection.finish();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    /**
+     * 按顺序编号对象，生成带交叉引用表的PDF
+     */
+    private static class PdfBuilder {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        private final List<Integer> offsets = new ArrayList<>();
+
+        PdfBuilder() {
+            write(ascii("%PDF-1.7\n"));
+            write(new byte[]{'%', (byte) 0xe2, (byte) 0xe3, (byte) 0xcf, (byte) 0xd3, '\n'});
+        }
+
+        PdfBuilder object(String body) {
+            begin();
+            write(ascii(body + "\nendobj\n"));
+            return this;
+        }
+
+        PdfBuilder stream(String dictionary, byte[] data) {
+            begin();
+            write(ascii("<< " + dictionary + " /Length " + data.length + " >>\nstream\r\n"));
+            write(data);
+            write(ascii("\nendstream\nendobj\n"));
+            return this;
+        }
+
+        byte[] build() {
+            int xref = out.size();
+            StringBuilder table = new StringBuilder("xref\n0 ").append(offsets.size() + 1).append('\n')
+                    .append("0000000000 65535 f \n");
+            for (int offset : offsets) {
+                table.append(String.format("%010d 00000 n \n", offset));
+            }
+            table.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root 1 0 R >>\n")
+                    .append("startxref\n").append(xref).append("\n%%EOF\n");
+            write(ascii(table.toString()));
+            return out.toByteArray();
+        }
+
+        private void begin() {
+            offsets.add(out.size());
+            write(ascii(offsets.size() + " 0 obj\n"));
+        }
+
+        private void write(byte[] data) {
+            out.write(data, 0, data.length);
+        }
+    }
+}
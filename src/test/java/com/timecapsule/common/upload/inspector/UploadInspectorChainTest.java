@@ -0,0 +1,100 @@
+package com.timecapsule.common.upload.inspector;
+
+import cn.hutool.core.util.HexUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.upload.UploadPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 检查链按顺序组合各检查器，内容分段流式送入
+ */
+class UploadInspectorChainTest {
+
+    private static final byte[] PDF = ("%PDF-1.7\n1 0 obj\n<< /Type /Catalog >>\nendobj\ntrailer\n<< /Root 1 0 R >>\n%%EOF\n")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private FileUploadConfig config;
+
+    private UploadInspectorChain chain;
+
+    @BeforeEach
+    void setUp() {
+        config = new FileUploadConfig();
+        UploadPolicy uploadPolicy = new UploadPolicy(config);
+        uploadPolicy.init();
+        SignatureScanInspector signatureScanInspector = new SignatureScanInspector(config);
+        signatureScanInspector.init();
+        chain = new UploadInspectorChain(List.of(new MagicByteInspector(uploadPolicy),
+                new ImageDimensionInspector(config), new PdfStructureInspector(config), signatureScanInspector));
+    }
+
+    @Test
+    void validContentPassesEveryInspector() {
+        assertThatCode(() -> feed("pdf", PDF, 5)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void contentNotMatchingSuffixIsRejected() {
+        assertThatThrownBy(() -> feed("png", PDF, 8192))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("格式不符");
+    }
+
+    @Test
+    void malwareSignatureSplitAcrossChunksIsDetected() {
+        byte[] eicar = HexUtil.decodeHex(config.getInspection().getMalwareSignatures().get(0));
+        byte[] content = new byte[PDF.length + eicar.length];
+        System.arraycopy(PDF, 0, content, 0, 9);
+        System.arraycopy(eicar, 0, content, 9, eicar.length);
+        System.arraycopy(PDF, 9, content, 9 + eicar.length, PDF.length - 9);
+
+        assertThatThrownBy(() -> feed("pdf", content, 7))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("安全检查");
+    }
+
+    @Test
+    void inspectionsRunInOrderAndFinishOnce() {
+        List<String> calls = new ArrayList<>();
+        UploadInspectorChain ordered = new UploadInspectorChain(List.of(
+                recording("a", calls), suffix -> null, recording("b", calls)));
+
+        UploadInspector.Inspection inspection = ordered.begin("txt");
+        inspection.update(new byte[4], 0, 4);
+        inspection.finish();
+
+        assertThat(calls).containsExactly("a:update", "b:update", "a:finish", "b:finish");
+    }
+
+    private void feed(String suffix, byte[] content, int chunkSize) {
+        UploadInspector.Inspection inspection = chain.begin(suffix);
+        for (int offset = 0; offset < content.length; offset += chunkSize) {
+            inspection.update(content, offset, Math.min(chunkSize, content.length - offset));
+        }
+        inspection.finish();
+    }
+
+    private static UploadInspector recording(String name, List<String> calls) {
+        return suffix -> new UploadInspector.Inspection() {
+            @Override
+            public void update(byte[] buffer, int offset, int length) {
+                calls.add(name + ":update");
+            }
+
+            @Override
+            public void finish() {
+                calls.add(name + ":finish");
+            }
+        };
+    }
+}
@@ -0,0 +1,332 @@
+package com.timecapsule.common.utils;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.storage.BlobStorage;
+import com.timecapsule.common.storage.LocalBlobStorage;
+import com.timecapsule.common.storage.StorageUrlBuilder;
+import com.timecapsule.common.upload.FileSignature;
+import com.timecapsule.common.upload.UploadPolicy;
+import com.timecapsule.common.upload.inspector.UploadInspector;
+import com.timecapsule.common.upload.inspector.UploadInspectorChain;
+import com.timecapsule.modules.file.entity.FileBlob;
+import com.timecapsule.modules.file.entity.FileRef;
+import com.timecapsule.modules.file.mapper.FileBlobMapper;
+import com.timecapsule.modules.file.mapper.FileRefMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 去重文件的引用计数与删除归属，以及流式上传
+ */
+class FileUploadUtilTest {
+
+    private static final String SHA256 = "ab".repeat(32);
+
+    private static final String BLOB_PATH = "/blob/ab/ab/" + SHA256 + ".png";
+
+    private static final String BLOB_URL = "/upload" + BLOB_PATH;
+
+    private FileBlobMapper fileBlobMapper;
+
+    private FileRefMapper fileRefMapper;
+
+    private BlobStorage blobStorage;
+
+    private FileUploadUtil fileUploadUtil;
+
+    @BeforeEach
+    void setUp() {
+        fileBlobMapper = mock(FileBlobMapper.class);
+        fileRefMapper = mock(FileRefMapper.class);
+        blobStorage = mock(BlobStorage.class);
+        fileUploadUtil = new FileUploadUtil(new FileUploadConfig(), fileBlobMapper, fileRefMapper,
+                mock(UploadPolicy.class), mock(UploadInspectorChain.class), blobStorage, mock(StorageUrlBuilder.class));
+
+        FileBlob blob = new FileBlob();
+        blob.setSha256(SHA256);
+        blob.setPath(BLOB_PATH);
+        when(fileBlobMapper.selectBySha256(SHA256)).thenReturn(blob);
+    }
+
+    @Test
+    void deleteFileWithoutOwnedReferenceDoesNotReleaseBlob() {
+        when(fileRefMapper.deleteOne("u1", SHA256)).thenReturn(0);
+
+        assertThat(fileUploadUtil.deleteFile(BLOB_URL, "u1")).isFalse();
+
+        verify(fileBlobMapper, never()).decrementRef(anyString());
+    }
+
+    @Test
+    void deleteFileReleasesOwnedReferenceAndRemovesLastCopy() throws Exception {
+        when(fileRefMapper.deleteOne("u1", SHA256)).thenReturn(1);
+        when(fileBlobMapper.decrementRef(SHA256)).thenReturn(1);
+        when(fileBlobMapper.deleteUnreferenced(SHA256)).thenReturn(1);
+
+        assertThat(fileUploadUtil.deleteFile(BLOB_URL, "u1")).isTrue();
+
+        verify(fileBlobMapper).decrementRef(SHA256);
+        verify(blobStorage).delete(BLOB_PATH.substring(1));
+    }
+
+    @Test
+    void releaseKeepsFileWhileOtherReferencesRemain() throws Exception {
+        when(fileBlobMapper.decrementRef(SHA256)).thenReturn(1);
+        when(fileBlobMapper.deleteUnreferenced(SHA256)).thenReturn(0);
+
+        fileUploadUtil.releaseReference(BLOB_URL);
+
+        verify(blobStorage, never()).delete(anyString());
+    }
+
+    @Test
+    void releaseDeletesStoredPathNotCallerSuffix() throws Exception {
+        when(fileBlobMapper.decrementRef(SHA256)).thenReturn(1);
+        when(fileBlobMapper.deleteUnreferenced(SHA256)).thenReturn(1);
+
+        fileUploadUtil.releaseReference("/upload/blob/ab/ab/" + SHA256 + ".jpg");
+
+        verify(blobStorage).delete(BLOB_PATH.substring(1));
+    }
+
+    @Test
+    void legacyAndForeignPathsAreNeitherDeletedNorReferenced() {
+        assertThat(fileUploadUtil.deleteFile("/upload/avatar/2024/01/01/a.png", "u1")).isFalse();
+        assertThat(fileUploadUtil.deleteFile("/upload/blob/../avatar/" + SHA256 + ".png", "u1")).isFalse();
+        assertThat(fileUploadUtil.acquireReference("https://example.com/a.png")).isFalse();
+        fileUploadUtil.releaseReference(null);
+
+        verifyNoInteractions(fileRefMapper);
+        verify(fileBlobMapper, never()).incrementRef(anyString());
+        verify(fileBlobMapper, never()).decrementRef(anyString());
+    }
+
+    @Test
+    void acquireReferenceFailsForUnknownContent() {
+        when(fileBlobMapper.incrementRef(SHA256)).thenReturn(0);
+
+        assertThat(fileUploadUtil.acquireReference(BLOB_URL)).isFalse();
+    }
+
+    /**
+     * 上传内容流式写入临时文件后按SHA-256去重保存，使用本地存储
+     */
+    @Nested
+    class StreamingUpload {
+
+        @TempDir
+        Path uploadRoot;
+
+        private FileUploadUtil uploadUtil;
+
+        @BeforeEach
+        void setUp() {
+            uploadUtil = newUploadUtil(List.of());
+        }
+
+        @Test
+        void storesContentUnderItsSha256() throws Exception {
+            byte[] content = content(3 * 1024 * 1024 + 17);
+            String sha256 = DigestUtil.sha256Hex(content);
+
+            FileUploadUtil.FileUploadResult result = uploadUtil.uploadFile(
+                    new MockMultipartFile("file", "a.pdf", "application/pdf", content), "u1", "letter");
+
+            String relativePath = "/blob/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + ".pdf";
+            assertThat(result.getChecksum()).isEqualTo(sha256);
+            assertThat(result.getFileSize()).isEqualTo(content.length);
+            assertThat(result.getFilePath()).isEqualTo("/upload" + relativePath);
+            assertThat(Files.readAllBytes(uploadRoot.resolve(relativePath.substring(1)))).isEqualTo(content);
+            verify(fileRefMapper).insert(any());
+            assertThat(tempFiles()).isEmpty();
+        }
+
+        @Test
+        void identicalContentReusesExistingFile() throws Exception {
+            byte[] content = content(1024);
+            String sha256 = DigestUtil.sha256Hex(content);
+            FileBlob existing = new FileBlob();
+            existing.setSha256(sha256);
+            existing.setPath("/blob/existing/" + sha256 + ".pdf");
+            when(fileBlobMapper.selectBySha256(sha256)).thenReturn(existing);
+            when(fileBlobMapper.incrementRef(sha256)).thenReturn(1);
+            Path existingFile = uploadRoot.resolve("blob/existing/" + sha256 + ".pdf");
+            Files.createDirectories(existingFile.getParent());
+            Files.write(existingFile, content);
+
+            FileUploadUtil.FileUploadResult result = uploadUtil.uploadFile(
+                    new MockMultipartFile("file", "b.pdf", "application/pdf", content), "u1", "letter");
+
+            assertThat(result.getFilePath()).isEqualTo("/upload" + existing.getPath());
+            verify(fileBlobMapper, never()).insert(any(FileBlob.class));
+            assertThat(tempFiles()).isEmpty();
+        }
+
+        @Test
+        void rejectedContentLeavesNothingBehind() throws Exception {
+            uploadUtil = newUploadUtil(List.of(suffix -> new UploadInspector.Inspection() {
+                @Override
+                public void update(byte[] buffer, int offset, int length) {
+                }
+
+                @Override
+                public void finish() {
+                    throw new BusinessException("文件内容不合法");
+                }
+            }));
+
+            assertThatThrownBy(() -> uploadUtil.uploadFile(
+                    new MockMultipartFile("file", "c.pdf", "application/pdf", content(2048)), "u1", "letter"))
+                    .isInstanceOf(BusinessException.class);
+
+            assertThat(tempFiles()).isEmpty();
+            verifyNoInteractions(fileRefMapper);
+            try (Stream<Path> blobs = Files.walk(uploadRoot.resolve("blob"))) {
+                assertThat(blobs.filter(Files::isRegularFile)).isEmpty();
+            }
+        }
+
+        private FileUploadUtil newUploadUtil(List<UploadInspector> inspectors) {
+            FileUploadConfig config = new FileUploadConfig();
+            config.setUploadPath(uploadRoot.toString());
+            LocalBlobStorage localStorage = new LocalBlobStorage(config);
+            localStorage.init();
+            UploadPolicy uploadPolicy = mock(UploadPolicy.class);
+            when(uploadPolicy.check(any(), any(), anyLong())).thenReturn("pdf");
+
+            FileUploadUtil util = new FileUploadUtil(config, fileBlobMapper, fileRefMapper, uploadPolicy,
+                    new UploadInspectorChain(inspectors), localStorage, mock(StorageUrlBuilder.class));
+            util.init();
+            return util;
+        }
+
+        private List<Path> tempFiles() throws Exception {
+            try (Stream<Path> files = Files.list(uploadUtil.getTempDirectory())) {
+                return files.toList();
+            }
+        }
+
+        private byte[] content(int size) {
+            byte[] content = new byte[size];
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte) (i * 7 + i / 251);
+            }
+            return content;
+        }
+    }
+
+    /**
+     * 客户端直传到存储后的登记，存储使用mock
+     */
+    @Nested
+    class DirectUpload {
+
+        private static final String NEW_SHA256 = "cd".repeat(32);
+
+        private static final String NEW_KEY = "blob/cd/cd/" + NEW_SHA256 + ".png";
+
+        private final byte[] pngHeader = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13};
+
+        private UploadPolicy uploadPolicy;
+
+        private FileUploadUtil uploadUtil;
+
+        @BeforeEach
+        void setUp() {
+            uploadPolicy = mock(UploadPolicy.class);
+            uploadUtil = new FileUploadUtil(new FileUploadConfig(), fileBlobMapper, fileRefMapper,
+                    uploadPolicy, mock(UploadInspectorChain.class), blobStorage, mock(StorageUrlBuilder.class));
+        }
+
+        @Test
+        void existingContentIsReusedWithoutTouchingStorage() {
+            fileBlobMapper.selectBySha256(SHA256).setSize(100L);
+            when(fileBlobMapper.incrementRef(SHA256)).thenReturn(1);
+
+            FileUploadUtil.FileUploadResult result =
+                    uploadUtil.registerDirectUpload(SHA256.toUpperCase(), "a.png", 100, "u1");
+
+            assertThat(result.getFilePath()).isEqualTo(BLOB_URL);
+            assertThat(result.getChecksum()).isEqualTo(SHA256);
+            assertThat(result.getFileSize()).isEqualTo(100L);
+            verify(fileRefMapper).insert(argThat((FileRef ref) -> "u1".equals(ref.getUserId())
+                    && SHA256.equals(ref.getSha256())));
+            verifyNoInteractions(blobStorage);
+            verify(fileBlobMapper, never()).insert(any(FileBlob.class));
+        }
+
+        @Test
+        void uploadedContentIsRegistered() throws Exception {
+            when(blobStorage.size(NEW_KEY)).thenReturn(100L);
+            when(blobStorage.readHead(NEW_KEY, FileSignature.HEADER_LENGTH)).thenReturn(pngHeader);
+            when(uploadPolicy.matchesContent("png", pngHeader, pngHeader.length)).thenReturn(true);
+
+            FileUploadUtil.FileUploadResult result = uploadUtil.registerDirectUpload(NEW_SHA256, "a.png", 100, "u1");
+
+            assertThat(result.getFilePath()).isEqualTo("/upload/" + NEW_KEY);
+            assertThat(result.getFileSize()).isEqualTo(100L);
+            verify(fileBlobMapper).insert(argThat((FileBlob blob) -> NEW_SHA256.equals(blob.getSha256())
+                    && blob.getRefCount() == 1));
+            verify(fileRefMapper).insert(any(FileRef.class));
+        }
+
+        @Test
+        void missingObjectIsNotRegistered() throws Exception {
+            when(blobStorage.size(NEW_KEY)).thenReturn(-1L);
+
+            assertThatThrownBy(() -> uploadUtil.registerDirectUpload(NEW_SHA256, "a.png", 100, "u1"))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("文件尚未上传完成");
+
+            verify(blobStorage, never()).delete(anyString());
+            verifyNoInteractions(fileRefMapper);
+        }
+
+        @Test
+        void sizeMismatchDeletesObject() throws Exception {
+            when(blobStorage.size(NEW_KEY)).thenReturn(99L);
+
+            assertThatThrownBy(() -> uploadUtil.registerDirectUpload(NEW_SHA256, "a.png", 100, "u1"))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("文件大小不一致，请重新上传");
+
+            verify(blobStorage).delete(NEW_KEY);
+            verify(fileBlobMapper, never()).insert(any(FileBlob.class));
+            verifyNoInteractions(fileRefMapper);
+        }
+
+        @Test
+        void headerMismatchDeletesObject() throws Exception {
+            byte[] header = "<html><body>".getBytes();
+            when(blobStorage.size(NEW_KEY)).thenReturn(100L);
+            when(blobStorage.readHead(NEW_KEY, FileSignature.HEADER_LENGTH)).thenReturn(header);
+            when(uploadPolicy.matchesContent("png", header, header.length)).thenReturn(false);
+
+            assertThatThrownBy(() -> uploadUtil.registerDirectUpload(NEW_SHA256, "a.png", 100, "u1"))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessage("文件内容与格式不符");
+
+            verify(blobStorage).delete(NEW_KEY);
+            verify(fileBlobMapper, never()).insert(any(FileBlob.class));
+            verifyNoInteractions(fileRefMapper);
+        }
+    }
+}
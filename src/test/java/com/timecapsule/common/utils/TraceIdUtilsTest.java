@@ -0,0 +1,67 @@
+package com.timecapsule.common.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 追踪ID生成与 traceparent 解析
+ */
+class TraceIdUtilsTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @Test
+    void generatedTraceIdsAreLowerHex() {
+        String traceId = TraceIdUtils.generateTraceId();
+
+        assertThat(traceId).matches("[0-9a-f]{32}");
+        assertThat(TraceIdUtils.generateTraceId()).isNotEqualTo(traceId);
+    }
+
+    @Test
+    void acceptsVersion00() {
+        assertThat(TraceIdUtils.fromTraceparent("00-" + TRACE_ID + "-00f067aa0ba902b7-01")).isEqualTo(TRACE_ID);
+    }
+
+    @Test
+    void acceptsPrefixOfHigherVersions() {
+        assertThat(TraceIdUtils.fromTraceparent("01-" + TRACE_ID + "-00f067aa0ba902b7-01")).isEqualTo(TRACE_ID);
+        assertThat(TraceIdUtils.fromTraceparent("cc-" + TRACE_ID + "-00f067aa0ba902b7-09-future")).isEqualTo(TRACE_ID);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // 版本 ff 无效
+            "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            // 版本不是十六进制或不是小写
+            "0x-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "0A-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            // 版本 00 不允许多余内容
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra",
+            // 更高版本前缀之后必须以 - 分隔
+            "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01x",
+            // trace-id 大写或全0
+            "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+            "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+            // parent-id 非十六进制或全0
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902bz-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+            // flags 非十六进制
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-0g",
+            // 分隔符错误或长度不足
+            "00_4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-1",
+            ""
+    })
+    void rejectsMalformedTraceparent(String traceparent) {
+        assertThat(TraceIdUtils.fromTraceparent(traceparent)).isNull();
+    }
+
+    @Test
+    void rejectsMissingHeader() {
+        assertThat(TraceIdUtils.fromTraceparent(null)).isNull();
+    }
+}
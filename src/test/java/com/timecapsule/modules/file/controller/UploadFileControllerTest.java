@@ -0,0 +1,95 @@
+package com.timecapsule.modules.file.controller;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.storage.BlobStorage;
+import com.timecapsule.common.storage.StorageUrlBuilder;
+import com.timecapsule.modules.file.service.ThumbnailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 缩略图与原图的缓存头
+ */
+class UploadFileControllerTest {
+
+    private static final String SHA256 = "cd".repeat(32);
+
+    private static final String RELATIVE_PATH = "blob/cd/cd/" + SHA256 + ".png";
+
+    @TempDir
+    Path uploadRoot;
+
+    private ThumbnailService thumbnailService;
+
+    private UploadFileController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(uploadRoot.resolve(RELATIVE_PATH).getParent());
+        Files.write(uploadRoot.resolve(RELATIVE_PATH), new byte[]{1, 2, 3, 4});
+
+        FileUploadConfig config = new FileUploadConfig();
+        config.setUploadPath(uploadRoot.toString());
+        thumbnailService = mock(ThumbnailService.class);
+        when(thumbnailService.supports(anyString())).thenReturn(true);
+        when(thumbnailService.resolveSize(anyInt())).thenReturn(64);
+        BlobStorage blobStorage = mock(BlobStorage.class);
+        when(blobStorage.isLocal()).thenReturn(true);
+
+        controller = new UploadFileController(config, thumbnailService, blobStorage, mock(StorageUrlBuilder.class));
+        controller.init();
+    }
+
+    @Test
+    void originalIsImmutable() throws Exception {
+        MockHttpServletResponse response = serve(null);
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + SHA256 + "\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+    }
+
+    @Test
+    void generatedThumbnailIsImmutable() throws Exception {
+        Path thumbnail = Files.write(uploadRoot.resolve("thumb.png"), new byte[]{5});
+        when(thumbnailService.getThumbnail(RELATIVE_PATH, 64)).thenReturn(thumbnail);
+
+        MockHttpServletResponse response = serve("64");
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"" + SHA256 + "-64\"");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+        assertThat(response.getContentLength()).isEqualTo(1);
+    }
+
+    @Test
+    void originalServedInPlaceOfThumbnailIsNotCachedLongTerm() throws Exception {
+        when(thumbnailService.getThumbnail(RELATIVE_PATH, 64)).thenReturn(null);
+
+        MockHttpServletResponse response = serve("64");
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).startsWith("W/");
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        assertThat(response.getContentLength()).isEqualTo(4);
+    }
+
+    private MockHttpServletResponse serve(String size) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/upload/" + RELATIVE_PATH);
+        if (size != null) {
+            request.setParameter("size", size);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(request, response);
+        return response;
+    }
+}
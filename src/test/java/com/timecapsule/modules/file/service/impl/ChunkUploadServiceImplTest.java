@@ -0,0 +1,268 @@
+package com.timecapsule.modules.file.service.impl;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.upload.UploadPolicy;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.dto.request.ChunkUploadInitRequest;
+import com.timecapsule.modules.file.vo.ChunkUploadVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 分片写入与合并，会话数与预分配空间的限制
+ */
+class ChunkUploadServiceImplTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @TempDir
+    Path tempDirectory;
+
+    private FileUploadUtil fileUploadUtil;
+
+    private FileUploadConfig config;
+
+    private ChunkUploadServiceImpl chunkUploadService;
+
+    /**
+     * storeAssembledFile 被调用时临时文件的内容
+     */
+    private final AtomicReference<byte[]> assembled = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fileUploadUtil = mock(FileUploadUtil.class);
+        when(fileUploadUtil.getTempDirectory()).thenReturn(tempDirectory);
+        when(fileUploadUtil.storeAssembledFile(any(), any(), any(), any())).thenAnswer(invocation -> {
+            assembled.set(Files.readAllBytes(invocation.getArgument(0)));
+            return new FileUploadUtil.FileUploadResult();
+        });
+
+        config = new FileUploadConfig();
+        chunkUploadService = new ChunkUploadServiceImpl(config, fileUploadUtil, mock(UploadPolicy.class));
+        chunkUploadService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        chunkUploadService.destroy();
+    }
+
+    @Test
+    void chunksUploadedOutOfOrderAreAssembledInPlace() {
+        byte[] content = content(CHUNK_SIZE * 2 + 100);
+        String uploadId = init(content.length).getUploadId();
+
+        upload(uploadId, 2, content);
+        upload(uploadId, 0, content);
+        ChunkUploadVO status = upload(uploadId, 1, content);
+        assertThat(status.getReceivedChunks()).containsExactly(0, 1, 2);
+
+        chunkUploadService.complete(uploadId, "u1");
+
+        assertThat(assembled.get()).isEqualTo(content);
+        verify(fileUploadUtil).storeAssembledFile(any(), eq("a.bin"), eq(null), eq("u1"));
+    }
+
+    @Test
+    void completeRejectsMissingChunks() {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String uploadId = init(content.length).getUploadId();
+        upload(uploadId, 0, content);
+
+        assertThatThrownBy(() -> chunkUploadService.complete(uploadId, "u1"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("1个分片未上传");
+
+        // 会话仍然有效，补齐后可以完成
+        upload(uploadId, 1, content);
+        chunkUploadService.complete(uploadId, "u1");
+        assertThat(assembled.get()).isEqualTo(content);
+    }
+
+    @Test
+    void chunkWithWrongSizeIsRejected() {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String uploadId = init(content.length).getUploadId();
+
+        assertThatThrownBy(() -> chunkUploadService.uploadChunk(uploadId, 0,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE + 1]), "u1"))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> chunkUploadService.uploadChunk(uploadId, 1,
+                new ByteArrayInputStream(new byte[CHUNK_SIZE - 1]), "u1"))
+                .isInstanceOf(BusinessException.class);
+
+        assertThat(chunkUploadService.getStatus(uploadId, "u1").getReceivedChunks()).isEmpty();
+    }
+
+    @Test
+    void otherUsersCannotWriteChunks() {
+        byte[] content = content(CHUNK_SIZE);
+        String uploadId = init(content.length).getUploadId();
+
+        assertThatThrownBy(() -> chunkUploadService.uploadChunk(uploadId, 0, new ByteArrayInputStream(content), "u2"))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void completeWaitsForInFlightChunkWrite() throws Exception {
+        byte[] content = content(CHUNK_SIZE * 2);
+        String uploadId = init(content.length).getUploadId();
+        upload(uploadId, 0, content);
+        upload(uploadId, 1, content);
+
+        // 重传分片0，写入一半后阻塞
+        byte[] retried = content(CHUNK_SIZE);
+        Arrays.fill(retried, (byte) 7);
+        CountDownLatch halfWritten = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        InputStream blocking = new BlockingInputStream(retried, CHUNK_SIZE / 2, halfWritten, resume);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> write = executor.submit(() -> chunkUploadService.uploadChunk(uploadId, 0, blocking, "u1"));
+            assertThat(halfWritten.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> complete = executor.submit(() -> chunkUploadService.complete(uploadId, "u1"));
+            assertThatThrownBy(() -> complete.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+            resume.countDown();
+            write.get(5, TimeUnit.SECONDS);
+            complete.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 合并的文件包含完整写入的重传分片
+        assertThat(Arrays.copyOfRange(assembled.get(), 0, CHUNK_SIZE)).isEqualTo(retried);
+        assertThatThrownBy(() -> upload(uploadId, 0, content)).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void openSessionsArePerUserCapped() {
+        config.setChunkMaxSessionsPerUser(2);
+        String first = init(CHUNK_SIZE).getUploadId();
+        init(CHUNK_SIZE);
+
+        assertThatThrownBy(() -> init(CHUNK_SIZE))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("不能超过2个");
+        // 其他用户不受影响
+        init(CHUNK_SIZE, "u2");
+
+        chunkUploadService.abort(first, "u1");
+        init(CHUNK_SIZE);
+    }
+
+    @Test
+    void totalReservedSizeIsCapped() throws IOException {
+        config.setChunkMaxReservedSize(1L);
+        byte[] content = content(600 * 1024);
+        String first = init(content.length).getUploadId();
+
+        assertThatThrownBy(() -> init(content.length, "u2"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("繁忙");
+        try (Stream<Path> files = Files.list(tempDirectory.resolve("chunks"))) {
+            // 被拒绝的请求不创建临时文件
+            assertThat(files.count()).isEqualTo(1);
+        }
+
+        // 完成后归还空间
+        for (int i = 0; i < 10; i++) {
+            upload(first, i, content);
+        }
+        chunkUploadService.complete(first, "u1");
+        init(content.length, "u2");
+    }
+
+    private ChunkUploadVO init(long size) {
+        return init(size, "u1");
+    }
+
+    private ChunkUploadVO init(long size, String userId) {
+        ChunkUploadInitRequest request = new ChunkUploadInitRequest();
+        request.setFileName("a.bin");
+        request.setFileSize(size);
+        request.setChunkSize(CHUNK_SIZE);
+        return chunkUploadService.init(request, userId);
+    }
+
+    private ChunkUploadVO upload(String uploadId, int index, byte[] content) {
+        int from = index * CHUNK_SIZE;
+        byte[] chunk = Arrays.copyOfRange(content, from, Math.min(from + CHUNK_SIZE, content.length));
+        return chunkUploadService.uploadChunk(uploadId, index, new ByteArrayInputStream(chunk), "u1");
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i * 31 + i / CHUNK_SIZE);
+        }
+        return content;
+    }
+
+    /**
+     * 读到指定位置后阻塞，直到放行
+     */
+    private static class BlockingInputStream extends InputStream {
+
+        private final byte[] data;
+        private final int pauseAt;
+        private final CountDownLatch paused;
+        private final CountDownLatch resume;
+        private int position;
+
+        BlockingInputStream(byte[] data, int pauseAt, CountDownLatch paused, CountDownLatch resume) {
+            this.data = data;
+            this.pauseAt = pauseAt;
+            this.paused = paused;
+            this.resume = resume;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position == pauseAt) {
+                paused.countDown();
+                try {
+                    resume.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            if (position >= data.length) {
+                return -1;
+            }
+            int limit = position < pauseAt ? pauseAt : data.length;
+            int n = Math.min(len, limit - position);
+            System.arraycopy(data, position, b, off, n);
+            position += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.timecapsule.modules.file.service.impl;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+
+/**
+ * 缩略图生成与并发请求合并
+ */
+class ThumbnailServiceImplTest {
+
+    private static final String IMAGE_PATH = "/avatar/a.png";
+
+    @TempDir
+    Path uploadRoot;
+
+    private ThumbnailServiceImpl thumbnailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.createDirectories(uploadRoot.resolve("avatar"));
+        ImageIO.write(new BufferedImage(400, 300, BufferedImage.TYPE_INT_ARGB), "png",
+                uploadRoot.resolve("avatar/a.png").toFile());
+
+        FileUploadConfig config = new FileUploadConfig();
+        config.setUploadPath(uploadRoot.toString());
+        // 单线程、队列只能容纳一个任务，重复提交的生成任务会被拒绝
+        config.setThumbnailThreads(1);
+        config.setThumbnailQueueCapacity(1);
+        config.setThumbnailWaitMillis(5000L);
+        thumbnailService = new ThumbnailServiceImpl(config);
+        thumbnailService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.destroy();
+    }
+
+    @Test
+    void resolvesSizeToConfiguredStep() {
+        assertThat(thumbnailService.resolveSize(1)).isEqualTo(64);
+        assertThat(thumbnailService.resolveSize(64)).isEqualTo(64);
+        assertThat(thumbnailService.resolveSize(65)).isEqualTo(128);
+        assertThat(thumbnailService.resolveSize(10000)).isEqualTo(256);
+    }
+
+    @Test
+    void generatesSquareThumbnailAndReusesIt() throws Exception {
+        Path thumbnail = thumbnailService.getThumbnail(IMAGE_PATH, 64);
+
+        assertThat(thumbnail).isNotNull();
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertThat(image.getWidth()).isEqualTo(64);
+        assertThat(image.getHeight()).isEqualTo(64);
+
+        assertThat(thumbnailService.getThumbnail(IMAGE_PATH, 64)).isEqualTo(thumbnail);
+        assertThat(executor().getTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentRequestsShareOneGeneration() throws Exception {
+        ThreadPoolExecutor executor = executor();
+        CountDownLatch release = new CountDownLatch(1);
+        // 占住唯一的生成线程，使生成任务停在队列中
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        int requests = 8;
+        ExecutorService callers = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<Path>> results = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                results.add(callers.submit(() -> thumbnailService.getThumbnail(IMAGE_PATH, 128)));
+            }
+            // 等待所有请求都在等待生成结果
+            Thread.sleep(200);
+            release.countDown();
+
+            Path first = results.get(0).get(5, TimeUnit.SECONDS);
+            assertThat(first).isNotNull();
+            for (Future<Path> result : results) {
+                // 重复提交会因队列已满被拒绝并返回null
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(first);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertThat(executor.getTaskCount()).isEqualTo(2);
+    }
+
+    @Test
+    void missingOriginalHasNoThumbnail() throws Exception {
+        assertThat(thumbnailService.getThumbnail(IMAGE_PATH, 64)).isNotNull();
+
+        Files.delete(uploadRoot.resolve("avatar/a.png"));
+
+        assertThat(thumbnailService.getThumbnail(IMAGE_PATH, 64)).isNull();
+    }
+
+    @Test
+    void pathsOutsideUploadRootAreRejected() {
+        assertThat(thumbnailService.getThumbnail("/../outside.png", 64)).isNull();
+        assertThat(thumbnailService.getThumbnail("/avatar/../../outside.png", 64)).isNull();
+    }
+
+    private ThreadPoolExecutor executor() {
+        return (ThreadPoolExecutor) getField(thumbnailService, "executor");
+    }
+}
@@ -0,0 +1,163 @@
+package com.timecapsule.modules.file.service.impl;
+
+import com.timecapsule.common.config.FileUploadConfig;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.modules.file.mapper.FileBlobMapper;
+import com.timecapsule.modules.user.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 孤立文件回收与检查点续扫
+ */
+class UploadGcServiceImplTest {
+
+    private static final String SHA256_KNOWN = "aa".repeat(32);
+
+    private static final String SHA256_ORPHAN = "bb".repeat(32);
+
+    @TempDir
+    Path uploadRoot;
+
+    private FileUploadConfig config;
+
+    private FileUploadUtil fileUploadUtil;
+
+    private FileBlobMapper fileBlobMapper;
+
+    private UserMapper userMapper;
+
+    private UploadGcServiceImpl gcService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        config = new FileUploadConfig();
+        config.setUploadPath(uploadRoot.toString());
+        config.getGc().setQuarantine(false);
+
+        fileUploadUtil = mock(FileUploadUtil.class);
+        when(fileUploadUtil.getTempDirectory()).thenReturn(Files.createDirectories(uploadRoot.resolve(".tmp")));
+        fileBlobMapper = mock(FileBlobMapper.class);
+        userMapper = mock(UserMapper.class);
+        // 只有 2024/01/referenced.png 仍被用户引用
+        when(userMapper.selectReferencedAvatars(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> avatars = invocation.getArgument(0);
+            return avatars.stream().filter(avatar -> avatar.endsWith("/referenced.png")).toList();
+        });
+
+        gcService = new UploadGcServiceImpl(config, fileUploadUtil, fileBlobMapper, userMapper);
+        gcService.init();
+    }
+
+    @Test
+    void reclaimsUnreferencedAvatarsAndClearsCheckpoint() throws Exception {
+        Path referenced = oldFile("avatar/2024/01/referenced.png");
+        Path orphan = oldFile("avatar/2024/01/orphan.png");
+        Path recent = newFile("avatar/2024/02/recent.png");
+
+        gcService.collectOrphans();
+
+        assertThat(referenced).exists();
+        assertThat(orphan).doesNotExist();
+        // 未超过最短保留时间的文件不处理
+        assertThat(recent).exists();
+        assertThat(uploadRoot.resolve(".gc-checkpoint")).doesNotExist();
+    }
+
+    @Test
+    void resumesAfterCheckpoint() throws Exception {
+        Path before = oldFile("avatar/2024/01/orphan.png");
+        Path after = oldFile("avatar/2024/02/orphan.png");
+        Path deeper = oldFile("avatar/2025/01/orphan.png");
+        Files.writeString(uploadRoot.resolve(".gc-checkpoint"), "avatar/2024/01");
+
+        gcService.collectOrphans();
+
+        // 检查点及之前的目录上次已完成，不再扫描
+        assertThat(before).exists();
+        assertThat(after).doesNotExist();
+        assertThat(deeper).doesNotExist();
+        assertThat(uploadRoot.resolve(".gc-checkpoint")).doesNotExist();
+    }
+
+    @Test
+    void checkpointInsideDirectorySkipsItsFilesButNotLaterSubdirectories() throws Exception {
+        Path parentFile = oldFile("avatar/2024/orphan.png");
+        Path doneChild = oldFile("avatar/2024/01/orphan.png");
+        Path laterChild = oldFile("avatar/2024/02/orphan.png");
+        Files.writeString(uploadRoot.resolve(".gc-checkpoint"), "avatar/2024/01");
+
+        gcService.collectOrphans();
+
+        // 目录中的文件在进入子目录之前检查，检查点在子目录中说明这些文件已处理过
+        assertThat(parentFile).exists();
+        assertThat(doneChild).exists();
+        assertThat(laterChild).doesNotExist();
+    }
+
+    @Test
+    void pausedRunKeepsCheckpoint() throws Exception {
+        Path orphan = oldFile("avatar/2024/02/orphan.png");
+        Files.writeString(uploadRoot.resolve(".gc-checkpoint"), "avatar/2024/01");
+        // 时间预算为0，开始后立即暂停
+        config.getGc().setMaxRunMinutes(0);
+
+        gcService.collectOrphans();
+
+        assertThat(orphan).exists();
+        assertThat(Files.readString(uploadRoot.resolve(".gc-checkpoint"))).isEqualTo("avatar/2024/01");
+    }
+
+    @Test
+    void reclaimsOnlyBlobsWithoutRecord() throws Exception {
+        Path known = oldFile("blob/aa/aa/" + SHA256_KNOWN + ".png");
+        Path orphan = oldFile("blob/bb/bb/" + SHA256_ORPHAN + ".png");
+        when(fileBlobMapper.selectExistingSha256(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> sha256s = invocation.getArgument(0);
+            return sha256s.stream().filter(SHA256_KNOWN::equals).toList();
+        });
+
+        gcService.collectOrphans();
+
+        verify(fileUploadUtil).reclaimOrphanBlob(orphan, null);
+        verify(fileUploadUtil, never()).reclaimOrphanBlob(eq(known), any());
+    }
+
+    @Test
+    void quarantinesInsteadOfDeleting() throws Exception {
+        config.getGc().setQuarantine(true);
+        Path orphan = oldFile("avatar/2024/01/orphan.png");
+
+        gcService.collectOrphans();
+
+        assertThat(orphan).doesNotExist();
+        assertThat(uploadRoot.resolve(".quarantine/avatar/2024/01/orphan.png")).exists();
+        verify(userMapper).selectReferencedAvatars(argThat(avatars -> avatars.contains("/upload/avatar/2024/01/orphan.png")));
+    }
+
+    private Path oldFile(String relativePath) throws Exception {
+        Path file = newFile(relativePath);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+        return file;
+    }
+
+    private Path newFile(String relativePath) throws Exception {
+        Path file = uploadRoot.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, new byte[]{1});
+    }
+}
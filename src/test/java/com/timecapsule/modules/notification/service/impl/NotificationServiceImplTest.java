@@ -0,0 +1,85 @@
+package com.timecapsule.modules.notification.service.impl;
+
+import com.timecapsule.common.config.NotificationConfig;
+import com.timecapsule.modules.notification.entity.NotificationDeadLetter;
+import com.timecapsule.modules.notification.mapper.NotificationDeadLetterMapper;
+import com.timecapsule.modules.notification.sender.NotificationSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 死信表中的消息内容，停机时未发送的消息
+ */
+class NotificationServiceImplTest {
+
+    private NotificationDeadLetterMapper deadLetterMapper;
+
+    private NotificationServiceImpl notificationService;
+
+    @BeforeEach
+    void setUp() {
+        NotificationConfig config = new NotificationConfig();
+        config.setWorkerThreads(1);
+        deadLetterMapper = mock(NotificationDeadLetterMapper.class);
+        // 没有可用的发送渠道，消息取出后直接写入死信表
+        notificationService = new NotificationServiceImpl(config, List.of(), deadLetterMapper);
+        notificationService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationService.destroy();
+    }
+
+    @Test
+    void deadLetterStoresRedactedContent() {
+        notificationService.send("sms", "13800000000", "验证码: 123456", "验证码: ******");
+
+        ArgumentCaptor<NotificationDeadLetter> captor = ArgumentCaptor.forClass(NotificationDeadLetter.class);
+        verify(deadLetterMapper, timeout(5000)).insert(captor.capture());
+        assertThat(captor.getValue().getContent()).isEqualTo("验证码: ******");
+    }
+
+    @Test
+    void deadLetterStoresContentWhenNotSensitive() {
+        notificationService.send("email", "a@example.com", "欢迎");
+
+        ArgumentCaptor<NotificationDeadLetter> captor = ArgumentCaptor.forClass(NotificationDeadLetter.class);
+        verify(deadLetterMapper, timeout(5000)).insert(captor.capture());
+        assertThat(captor.getValue().getContent()).isEqualTo("欢迎");
+    }
+
+    @Test
+    void messagesWaitingForRetryAreDeadLetteredOnShutdown() {
+        NotificationConfig config = new NotificationConfig();
+        config.setWorkerThreads(1);
+        config.setRetryBaseDelayMillis(60_000L);
+        NotificationSender failing = mock(NotificationSender.class);
+        when(failing.supports("sms")).thenReturn(true);
+        when(failing.sendBatch(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        NotificationServiceImpl service = new NotificationServiceImpl(config, List.of(failing), deadLetterMapper);
+        service.init();
+
+        service.send("sms", "13800000000", "验证码: 123456", "验证码: ******");
+        verify(failing, timeout(5000)).sendBatch(anyList());
+        // 第一次失败后进入60秒的退避，尚未写入死信表
+        verify(deadLetterMapper, after(200).never()).insert(any(NotificationDeadLetter.class));
+
+        service.destroy();
+
+        ArgumentCaptor<NotificationDeadLetter> captor = ArgumentCaptor.forClass(NotificationDeadLetter.class);
+        verify(deadLetterMapper).insert(captor.capture());
+        assertThat(captor.getValue().getReason()).isEqualTo("服务停机时未发送");
+        assertThat(captor.getValue().getAttempts()).isEqualTo(1);
+        assertThat(captor.getValue().getContent()).isEqualTo("验证码: ******");
+    }
+}
@@ -0,0 +1,185 @@
+package com.timecapsule.modules.system.cache;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.modules.system.entity.SysConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link ConfigBinding} 字段的绑定与刷新
+ */
+class ConfigBindingPostProcessorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<SysConfig> rows = new ArrayList<>();
+
+    private SysConfigSnapshot snapshot = SysConfigSnapshot.EMPTY;
+
+    private int refreshes;
+
+    private ConfigBindingPostProcessor processor;
+
+    private DefaultListableBeanFactory beanFactory;
+
+    private ListAppender<ILoggingEvent> logs;
+
+    @BeforeEach
+    void setUp() {
+        processor = new ConfigBindingPostProcessor();
+        beanFactory = new DefaultListableBeanFactory();
+        processor.setBeanFactory(beanFactory);
+        beanFactory.addBeanPostProcessor(processor);
+
+        logs = new ListAppender<>();
+        logs.start();
+        ((Logger) LoggerFactory.getLogger(ConfigBindingPostProcessor.class)).addAppender(logs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(ConfigBindingPostProcessor.class)).detachAppender(logs);
+    }
+
+    @Test
+    void fieldsKeepDefaultsUntilConfigured() {
+        Settings settings = singleton("settings", Settings.class);
+
+        assertThat(settings.maxAttachments).isEqualTo(5);
+        assertThat(settings.timeout).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void refreshRebindsAndMissingKeysRestoreDefaults() {
+        Settings settings = singleton("settings", Settings.class);
+
+        refresh(config(1L, "letter.max_attachments", "9"), config(2L, "letter.timeout", "1m"),
+                config(3L, "letter.limits", "{\"daily\": 2}"), config(4L, "letter.enabled", "0"));
+        assertThat(settings.maxAttachments).isEqualTo(9);
+        assertThat(settings.timeout).isEqualTo(Duration.ofMinutes(1));
+        assertThat(settings.limits).containsEntry("daily", 2);
+        assertThat(settings.enabled).isFalse();
+
+        refresh(config(2L, "letter.timeout", "1m"));
+        assertThat(settings.maxAttachments).isEqualTo(5);
+        assertThat(settings.limits).isNull();
+        assertThat(settings.enabled).isTrue();
+    }
+
+    @Test
+    void unparsableValuesRestoreDefaults() {
+        Settings settings = singleton("settings", Settings.class);
+        refresh(config(1L, "letter.max_attachments", "9"));
+
+        refresh(config(1L, "letter.max_attachments", String.valueOf(Integer.MAX_VALUE + 1L)));
+
+        assertThat(settings.maxAttachments).isEqualTo(5);
+        assertThat(messages(Level.WARN)).anyMatch(message -> message.contains("letter.max_attachments"));
+    }
+
+    @Test
+    void singletonsCreatedAfterRefreshBindCurrentSnapshot() {
+        refresh(config(1L, "letter.max_attachments", "7"));
+
+        assertThat(singleton("settings", Settings.class).maxAttachments).isEqualTo(7);
+    }
+
+    @Test
+    void nonVolatileFieldsAreReported() {
+        singleton("plain", NonVolatile.class);
+
+        assertThat(messages(Level.WARN)).anyMatch(message -> message.contains("plain.value"));
+    }
+
+    @Test
+    void finalFieldsAreRejected() {
+        beanFactory.registerBeanDefinition("constant", new RootBeanDefinition(FinalField.class));
+
+        assertThatThrownBy(() -> beanFactory.getBean("constant"))
+                .isInstanceOf(BeanCreationException.class)
+                .hasRootCauseMessage("@ConfigBinding 不能用于 static 或 final 字段: constant.value");
+    }
+
+    @Test
+    void prototypeBeansAreRejected() {
+        RootBeanDefinition definition = new RootBeanDefinition(Settings.class);
+        definition.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beanFactory.registerBeanDefinition("perRequest", definition);
+
+        assertThatThrownBy(() -> beanFactory.getBean("perRequest"))
+                .isInstanceOf(BeanCreationException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private <T> T singleton(String name, Class<T> type) {
+        beanFactory.registerBeanDefinition(name, new RootBeanDefinition(type));
+        return beanFactory.getBean(name, type);
+    }
+
+    private void refresh(SysConfig... configs) {
+        refreshes++;
+        rows.clear();
+        rows.addAll(List.of(configs));
+        snapshot = SysConfigSnapshot.of(rows, snapshot, objectMapper);
+        processor.onApplicationEvent(new SysConfigRefreshedEvent(this, snapshot));
+    }
+
+    private List<String> messages(Level level) {
+        return logs.list.stream()
+                .filter(event -> event.getLevel() == level)
+                .map(ILoggingEvent::getFormattedMessage)
+                .toList();
+    }
+
+    /**
+     * 每次刷新使用更晚的修改时间，保证版本号递增
+     */
+    private SysConfig config(Long id, String key, String value) {
+        return SysConfigCacheTest.config(id, key, value, refreshes + 1);
+    }
+
+    static class Settings {
+
+        @ConfigBinding("letter.max_attachments")
+        volatile int maxAttachments = 5;
+
+        @ConfigBinding("letter.timeout")
+        volatile Duration timeout = Duration.ofSeconds(10);
+
+        @ConfigBinding("letter.limits")
+        volatile Map<String, Integer> limits;
+
+        @ConfigBinding("letter.enabled")
+        volatile boolean enabled = true;
+    }
+
+    static class NonVolatile {
+
+        @ConfigBinding("letter.value")
+        String value = "x";
+    }
+
+    static class FinalField {
+
+        @ConfigBinding("letter.value")
+        final String value = "x";
+    }
+}
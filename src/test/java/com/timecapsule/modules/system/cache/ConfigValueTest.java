@@ -0,0 +1,85 @@
+package com.timecapsule.modules.system.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.modules.system.entity.SysConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 配置值的类型解析
+ */
+class ConfigValueTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void integersOutsideIntRangeAreOnlyLongs() {
+        ConfigValue small = value("42");
+        ConfigValue large = value(String.valueOf(Integer.MAX_VALUE + 1L));
+
+        assertThat(small.getInt()).isEqualTo(42);
+        assertThat(large.getInt()).isNull();
+        assertThat(large.getLong()).isEqualTo(Integer.MAX_VALUE + 1L);
+        assertThat(value("1.5").getLong()).isNull();
+        assertThat(value(" 7 ").getInt()).isEqualTo(7);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"true,true", "TRUE,true", "1,true", "false,false", "0,false"})
+    void booleansAcceptWordsAndDigits(String raw, boolean expected) {
+        assertThat(value(raw).getBoolean()).isEqualTo(expected);
+    }
+
+    @Test
+    void unknownBooleanIsNull() {
+        assertThat(value("yes").getBoolean()).isNull();
+    }
+
+    @Test
+    void durationsSupportUnitsIsoAndPlainSeconds() {
+        assertThat(value("30s").getDuration()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(value("5m").getDuration()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(value("PT1H").getDuration()).isEqualTo(Duration.ofHours(1));
+        assertThat(value("15").getDuration()).isEqualTo(Duration.ofSeconds(15));
+        assertThat(value("soon").getDuration()).isNull();
+    }
+
+    @Test
+    void listsAcceptJsonArraysAndCommaSeparatedValues() {
+        assertThat(value("[\"a\", \"\", \"b\"]").getList()).containsExactly("a", "b");
+        assertThat(value("a, b,,c ").getList()).containsExactly("a", "b", "c");
+        assertThat(value("[not json").getList()).containsExactly("[not json");
+        assertThat(value("").getList()).isEmpty();
+    }
+
+    @Test
+    void jsonIsParsedOncePerType() {
+        ConfigValue value = value("{\"limit\": 3}");
+
+        Map<?, ?> first = value.getJson(Map.class);
+        assertThat(first.get("limit")).isEqualTo(3);
+        assertThat(value.getJson(Map.class)).isSameAs(first);
+        assertThat(value.getJson(String.class)).isEqualTo("{\"limit\": 3}");
+    }
+
+    @Test
+    void invalidJsonIsNullAndRemembered() {
+        ConfigValue value = value("{broken");
+
+        assertThat(value.getJson(Map.class)).isNull();
+        assertThat(value.getJson(Map.class)).isNull();
+        assertThat(value("").getJson(List.class)).isNull();
+    }
+
+    private ConfigValue value(String raw) {
+        SysConfig config = SysConfigCacheTest.config(1L, "k", raw, 0);
+        return new ConfigValue(config, objectMapper);
+    }
+}
@@ -0,0 +1,172 @@
+package com.timecapsule.modules.system.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.common.config.SysConfigCacheConfig;
+import com.timecapsule.modules.system.entity.SysConfig;
+import com.timecapsule.modules.system.mapper.SysConfigMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 系统配置快照的加载与替换
+ */
+class SysConfigCacheTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final List<SysConfig> rows = new ArrayList<>();
+
+    private SysConfigMapper sysConfigMapper;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private SysConfigCache sysConfigCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        sysConfigMapper = mock(SysConfigMapper.class);
+        when(sysConfigMapper.selectAllIncludingDeleted()).thenAnswer(invocation -> List.copyOf(rows));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        sysConfigCache = new SysConfigCache(sysConfigMapper, new SysConfigCacheConfig(),
+                mock(ObjectProvider.class), new ObjectMapper(), eventPublisher);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sysConfigCache.destroy();
+    }
+
+    @Test
+    void loadsEnabledConfigsOnStartup() {
+        rows.add(config(1L, "site.name", "时光信笺", 0));
+        SysConfig disabled = config(2L, "site.closed", "true", 0);
+        disabled.setStatus(0);
+        rows.add(disabled);
+        SysConfig deleted = config(3L, "site.old", "x", 0);
+        deleted.setDeleted(1);
+        rows.add(deleted);
+
+        sysConfigCache.init();
+
+        SysConfigSnapshot snapshot = sysConfigCache.get();
+        assertThat(snapshot.get("site.name").getConfigValue()).isEqualTo("时光信笺");
+        assertThat(snapshot.get("site.closed")).isNull();
+        assertThat(snapshot.get("site.old")).isNull();
+        assertThat(snapshot.size()).isEqualTo(1);
+    }
+
+    @Test
+    void startsEmptyWhenDatabaseUnavailable() {
+        when(sysConfigMapper.selectAllIncludingDeleted()).thenThrow(new IllegalStateException("db down"));
+
+        sysConfigCache.init();
+
+        assertThat(sysConfigCache.get().size()).isZero();
+        assertThat(sysConfigCache.get().getVersion()).isZero();
+    }
+
+    @Test
+    void reloadReplacesSnapshotAndPublishesEventOnlyWhenChanged() {
+        rows.add(config(1L, "site.name", "a", 0));
+        sysConfigCache.init();
+        SysConfigSnapshot first = sysConfigCache.get();
+        verify(eventPublisher, times(1)).publishEvent(any(SysConfigRefreshedEvent.class));
+
+        // 内容未变化：版本不变，不通知
+        sysConfigCache.reload();
+        assertThat(sysConfigCache.get().getVersion()).isEqualTo(first.getVersion());
+        verify(eventPublisher, times(1)).publishEvent(any(SysConfigRefreshedEvent.class));
+
+        rows.set(0, config(1L, "site.name", "b", 5));
+        sysConfigCache.reload();
+
+        assertThat(sysConfigCache.get()).isNotSameAs(first);
+        assertThat(sysConfigCache.get().get("site.name").getConfigValue()).isEqualTo("b");
+        // 旧快照保持不变，正在使用它的请求不受影响
+        assertThat(first.get("site.name").getConfigValue()).isEqualTo("a");
+        verify(eventPublisher, times(2)).publishEvent(any(SysConfigRefreshedEvent.class));
+    }
+
+    @Test
+    void refreshWithoutBroadcastOnlyReloadsLocally() {
+        rows.add(config(1L, "site.name", "a", 0));
+        sysConfigCache.init();
+        rows.set(0, config(1L, "site.name", "b", 5));
+
+        sysConfigCache.refresh();
+
+        assertThat(sysConfigCache.get().get("site.name").getConfigValue()).isEqualTo("b");
+    }
+
+    @Test
+    void awaitChangeCompletesOnNextVersion() throws Exception {
+        rows.add(config(1L, "site.name", "a", 0));
+        sysConfigCache.init();
+        long version = sysConfigCache.get().getVersion();
+
+        assertThat(sysConfigCache.awaitChange(version - 1)).isCompletedWithValue(sysConfigCache.get());
+        CompletableFuture<SysConfigSnapshot> waiting = sysConfigCache.awaitChange(version);
+        assertThat(waiting).isNotDone();
+
+        // 内容未变化的刷新不唤醒
+        sysConfigCache.reload();
+        assertThat(waiting).isNotDone();
+
+        rows.set(0, config(1L, "site.name", "b", 5));
+        sysConfigCache.reload();
+        assertThat(waiting.get(1, TimeUnit.SECONDS).getVersion()).isGreaterThan(version);
+        assertThat(sysConfigCache.awaitChange(sysConfigCache.get().getVersion())).isNotDone();
+    }
+
+    @Test
+    void finishedWaitersAreReleased() {
+        rows.add(config(1L, "site.name", "a", 0));
+        sysConfigCache.init();
+        long version = sysConfigCache.get().getVersion();
+
+        // 配置长时间不变时，超时的轮询不能一直保留
+        for (int i = 0; i < 1000; i++) {
+            sysConfigCache.awaitChange(version).cancel(false);
+        }
+        assertThat(sysConfigCache.waitingCount()).isZero();
+
+        CompletableFuture<SysConfigSnapshot> waiting = sysConfigCache.awaitChange(version);
+        assertThat(sysConfigCache.waitingCount()).isEqualTo(1);
+        rows.set(0, config(1L, "site.name", "b", 5));
+        sysConfigCache.reload();
+
+        assertThat(waiting).isDone();
+        assertThat(sysConfigCache.waitingCount()).isZero();
+        // 已经过期的版本立即完成，不登记等待
+        sysConfigCache.awaitChange(version);
+        assertThat(sysConfigCache.waitingCount()).isZero();
+    }
+
+    static SysConfig config(Long id, String key, String value, int secondsAfterBase) {
+        SysConfig config = new SysConfig();
+        config.setId(id);
+        config.setConfigKey(key);
+        config.setConfigValue(value);
+        config.setStatus(1);
+        config.setDeleted(0);
+        config.setCreateTime(BASE_TIME);
+        config.setUpdateTime(BASE_TIME.plusSeconds(secondsAfterBase));
+        return config;
+    }
+}
@@ -0,0 +1,147 @@
+package com.timecapsule.modules.system.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.modules.system.entity.SysConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+import static com.timecapsule.modules.system.cache.SysConfigCacheTest.config;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 快照版本号与增量计算
+ */
+class SysConfigSnapshotTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void versionIsLatestChangeTimeIncludingDeletedRows() {
+        SysConfig deleted = frontend(2L, "b", "2", 30);
+        deleted.setDeleted(1);
+
+        SysConfigSnapshot snapshot = snapshot(List.of(frontend(1L, "a", "1", 10), deleted), SysConfigSnapshot.EMPTY);
+
+        assertThat(snapshot.getVersion()).isEqualTo(millis(30));
+    }
+
+    @Test
+    void unchangedContentKeepsVersion() {
+        SysConfigSnapshot first = snapshot(List.of(frontend(1L, "a", "1", 10)), SysConfigSnapshot.EMPTY);
+
+        SysConfigSnapshot second = snapshot(List.of(frontend(1L, "a", "1", 10)), first);
+
+        assertThat(second.getVersion()).isEqualTo(first.getVersion());
+    }
+
+    @Test
+    void changeWithinSameTimestampStillIncrementsVersion() {
+        SysConfigSnapshot first = snapshot(List.of(frontend(1L, "a", "1", 10)), SysConfigSnapshot.EMPTY);
+
+        // 同一秒内再次修改，update_time 没有变化
+        SysConfigSnapshot second = snapshot(List.of(frontend(1L, "a", "2", 10)), first);
+        SysConfigSnapshot third = snapshot(List.of(frontend(1L, "a", "3", 10)), second);
+
+        assertThat(second.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(third.getVersion()).isEqualTo(first.getVersion() + 2);
+    }
+
+    @Test
+    void versionNeverGoesBackwards() {
+        SysConfigSnapshot first = snapshot(List.of(frontend(1L, "a", "1", 10), frontend(2L, "b", "2", 20)),
+                SysConfigSnapshot.EMPTY);
+
+        // 最新的一行被物理删除，最大更新时间回退
+        SysConfigSnapshot second = snapshot(List.of(frontend(1L, "a", "1", 10)), first);
+
+        assertThat(second.getVersion()).isGreaterThan(first.getVersion());
+    }
+
+    @Test
+    void duplicateKeyKeepsSmallestId() {
+        SysConfigSnapshot snapshot = snapshot(List.of(frontend(1L, "a", "first", 10), frontend(2L, "a", "second", 20)),
+                SysConfigSnapshot.EMPTY);
+
+        assertThat(snapshot.get("a").getConfigValue()).isEqualTo("first");
+    }
+
+    @Test
+    void deltaContainsOnlyChangesAfterVersionWithOverlap() {
+        SysConfigSnapshot snapshot = snapshot(List.of(
+                frontend(1L, "old", "1", 0),
+                frontend(2L, "sameSecond", "2", 10),
+                frontend(3L, "newer", "3", 20)), SysConfigSnapshot.EMPTY);
+
+        Map<String, String> changed = new HashMap<>();
+        Set<String> removed = new HashSet<>();
+        snapshot.collectFrontendChanges(millis(10), changed, removed);
+
+        // 与版本号同一秒的配置重复下发，之前的不下发
+        assertThat(changed).containsOnlyKeys("sameSecond", "newer");
+        assertThat(removed).isEmpty();
+    }
+
+    @Test
+    void deltaReportsDeletedDisabledAndHiddenConfigsAsRemoved() {
+        SysConfig deleted = frontend(1L, "deleted", "1", 20);
+        deleted.setDeleted(1);
+        SysConfig disabled = frontend(2L, "disabled", "2", 20);
+        disabled.setStatus(0);
+        SysConfig hidden = frontend(3L, "hidden", "3", 20);
+        hidden.setIsFrontend(0);
+        SysConfigSnapshot snapshot = snapshot(List.of(deleted, disabled, hidden, frontend(4L, "kept", "4", 0)),
+                SysConfigSnapshot.EMPTY);
+
+        Map<String, String> changed = new HashMap<>();
+        Set<String> removed = new HashSet<>();
+        snapshot.collectFrontendChanges(millis(10), changed, removed);
+
+        assertThat(changed).isEmpty();
+        assertThat(removed).containsExactlyInAnyOrder("deleted", "disabled", "hidden");
+    }
+
+    @Test
+    void deletedDuplicateDoesNotRemoveLiveConfig() {
+        // 同一配置键：旧行已删除，新行启用
+        SysConfig deleted = frontend(1L, "a", "old", 30);
+        deleted.setDeleted(1);
+        SysConfigSnapshot snapshot = snapshot(List.of(deleted, frontend(2L, "a", "new", 20)), SysConfigSnapshot.EMPTY);
+
+        Map<String, String> changed = new HashMap<>();
+        Set<String> removed = new HashSet<>();
+        snapshot.collectFrontendChanges(millis(10), changed, removed);
+
+        assertThat(changed).containsEntry("a", "new");
+        assertThat(removed).isEmpty();
+    }
+
+    @Test
+    void deltaFromCurrentVersionIsOnlyTheOverlap() {
+        SysConfigSnapshot snapshot = snapshot(List.of(frontend(1L, "a", "1", 0), frontend(2L, "b", "2", 100)),
+                SysConfigSnapshot.EMPTY);
+
+        Map<String, String> changed = new HashMap<>();
+        Set<String> removed = new HashSet<>();
+        snapshot.collectFrontendChanges(snapshot.getVersion(), changed, removed);
+
+        assertThat(changed).containsOnlyKeys("b");
+    }
+
+    private static SysConfigSnapshot snapshot(List<SysConfig> configs, SysConfigSnapshot previous) {
+        return SysConfigSnapshot.of(configs, previous, OBJECT_MAPPER);
+    }
+
+    private static SysConfig frontend(Long id, String key, String value, int secondsAfterBase) {
+        SysConfig config = config(id, key, value, secondsAfterBase);
+        config.setIsFrontend(1);
+        return config;
+    }
+
+    private static long millis(int secondsAfterBase) {
+        return LocalDateTime.of(2024, 1, 1, 0, 0).plusSeconds(secondsAfterBase)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,130 @@
+package com.timecapsule.modules.system.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.timecapsule.common.cache.ResponseCache;
+import com.timecapsule.common.config.SysConfigCacheConfig;
+import com.timecapsule.common.result.Result;
+import com.timecapsule.modules.system.cache.SysConfigCache;
+import com.timecapsule.modules.system.entity.SysConfig;
+import com.timecapsule.modules.system.mapper.SysConfigMapper;
+import com.timecapsule.modules.system.service.impl.SysConfigServiceImpl;
+import com.timecapsule.modules.system.vo.ConfigSyncVO;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 前端配置长轮询：请求结束后不再占用配置缓存的等待集合
+ */
+class SysConfigControllerTest {
+
+    private final List<SysConfig> rows = new ArrayList<>();
+
+    private SysConfigCache sysConfigCache;
+
+    private SysConfigController controller;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        SysConfigMapper sysConfigMapper = mock(SysConfigMapper.class);
+        when(sysConfigMapper.selectAllIncludingDeleted()).thenAnswer(invocation -> List.copyOf(rows));
+        rows.add(config("site.name", "a", 0));
+
+        sysConfigCache = new SysConfigCache(sysConfigMapper, new SysConfigCacheConfig(),
+                mock(ObjectProvider.class), new ObjectMapper(), mock(ApplicationEventPublisher.class));
+        sysConfigCache.init();
+        controller = new SysConfigController(new SysConfigServiceImpl(sysConfigCache, mock(ResponseCache.class)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sysConfigCache.destroy();
+    }
+
+    @Test
+    void timedOutPollsStopWaiting() throws Exception {
+        long version = sysConfigCache.get().getVersion();
+
+        for (int i = 0; i < 100; i++) {
+            MockHttpServletRequest request = startAsync(controller.syncFrontendConfigs(version, 30L));
+            assertThat(sysConfigCache.waitingCount()).isEqualTo(1);
+
+            MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onTimeout(new AsyncEvent(asyncContext));
+            }
+            for (AsyncListener listener : asyncContext.getListeners()) {
+                listener.onComplete(new AsyncEvent(asyncContext));
+            }
+        }
+
+        assertThat(sysConfigCache.waitingCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void configChangeCompletesPoll() {
+        long version = sysConfigCache.get().getVersion();
+        DeferredResult<Result<ConfigSyncVO>> result = controller.syncFrontendConfigs(version, 30L);
+        startAsync(result);
+
+        rows.set(0, config("site.name", "b", 5));
+        sysConfigCache.reload();
+
+        assertThat(result.hasResult()).isTrue();
+        Result<ConfigSyncVO> body = (Result<ConfigSyncVO>) result.getResult();
+        assertThat(body.getData().getVersion()).isGreaterThan(version);
+        assertThat(sysConfigCache.waitingCount()).isZero();
+    }
+
+    /**
+     * 按 Spring MVC 处理 DeferredResult 的方式开始异步请求
+     */
+    private static MockHttpServletRequest startAsync(DeferredResult<?> result) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/system/config/frontend/sync");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+        try {
+            asyncManager.startDeferredResultProcessing(result);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return request;
+    }
+
+    private static SysConfig config(String key, String value, int secondsAfterBase) {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        SysConfig config = new SysConfig();
+        config.setId(1L);
+        config.setConfigKey(key);
+        config.setConfigValue(value);
+        config.setStatus(1);
+        config.setDeleted(0);
+        config.setIsFrontend(1);
+        config.setCreateTime(base);
+        config.setUpdateTime(base.plusSeconds(secondsAfterBase));
+        return config;
+    }
+}
@@ -0,0 +1,154 @@
+package com.timecapsule.modules.user.controller;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.timecapsule.common.result.PageResult;
+import com.timecapsule.common.utils.ScrollIdUtils;
+import com.timecapsule.modules.user.entity.User;
+import com.timecapsule.modules.user.service.UserService;
+import com.timecapsule.modules.user.service.VerifyCodeService;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * 后台用户列表的滚动分页，验证码发送的客户端地址
+ */
+class UserControllerTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private UserService userService;
+
+    private UserController userController;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // LambdaQueryWrapper 按实体的表信息解析列名
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+    }
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        userController = new UserController();
+        setField(userController, "userService", userService);
+    }
+
+    @Test
+    void returnsCursorOfLastRowWhenMoreRowsExist() {
+        givenRows(21);
+
+        PageResult.PageData<User> data = scroll(20, null).getData();
+
+        assertThat(data.getList()).hasSize(20);
+        assertThat(data.getHasNext()).isTrue();
+        User last = data.getList().get(19);
+        assertThat(ScrollIdUtils.decode(data.getScrollId()))
+                .isEqualTo(new ScrollIdUtils.Cursor(last.getCreateTime(), last.getId()));
+        assertThat(requestedPage().getSize()).isEqualTo(21);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        givenRows(5);
+
+        PageResult.PageData<User> data = scroll(20, null).getData();
+
+        assertThat(data.getList()).hasSize(5);
+        assertThat(data.getHasNext()).isFalse();
+        assertThat(data.getScrollId()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -5})
+    void nonPositivePageSizeIsTreatedAsOne(int pageSize) {
+        givenRows(2);
+
+        PageResult.PageData<User> data = scroll(pageSize, null).getData();
+
+        assertThat(data.getList()).hasSize(1);
+        assertThat(data.getPageSize()).isEqualTo(1);
+        assertThat(data.getHasNext()).isTrue();
+        assertThat(requestedPage().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    void pageSizeIsCappedBelowPaginationLimit() {
+        givenRows(0);
+
+        scroll(5000, null);
+
+        assertThat(requestedPage().getSize()).isEqualTo(1000);
+        assertThat(requestedPage().searchCount()).isFalse();
+    }
+
+    @Test
+    void cursorFromPreviousPageIsAccepted() {
+        givenRows(3);
+        String scrollId = ScrollIdUtils.encode(BASE_TIME, 100L);
+
+        PageResult.PageData<User> data = scroll(20, scrollId).getData();
+
+        assertThat(data.getList()).hasSize(3);
+        assertThat(data.getHasNext()).isFalse();
+    }
+
+    @Test
+    void verifyCodeLimitUsesConnectionAddressNotForwardedHeader() {
+        VerifyCodeService verifyCodeService = mock(VerifyCodeService.class);
+        setField(userController, "verifyCodeService", verifyCodeService);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+
+        userController.sendVerifyCode("a@example.com", "email", "register", request);
+
+        verify(verifyCodeService).sendCode("a@example.com", "email", "register", null, "203.0.113.7");
+    }
+
+    private PageResult<User> scroll(int pageSize, String scrollId) {
+        return userController.pageUsers(1, pageSize, null, null, null, null, true, scrollId, false);
+    }
+
+    /**
+     * 查询返回 count 条按 (create_time, id) 倒序排列的记录，不超过请求的条数
+     */
+    @SuppressWarnings("unchecked")
+    private void givenRows(int count) {
+        when(userService.page(any(Page.class), any(Wrapper.class))).thenAnswer(invocation -> {
+            Page<User> page = invocation.getArgument(0);
+            List<User> records = new ArrayList<>();
+            for (int i = 0; i < Math.min(count, page.getSize()); i++) {
+                User user = new User();
+                user.setId(1000L - i);
+                user.setCreateTime(BASE_TIME.minusMinutes(i));
+                records.add(user);
+            }
+            return page.setRecords(records);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Page<User> requestedPage() {
+        ArgumentCaptor<Page<User>> captor = ArgumentCaptor.forClass(Page.class);
+        verify(userService).page(captor.capture(), any(Wrapper.class));
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,112 @@
+package com.timecapsule.modules.user.service.impl;
+
+import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapper;
+import com.baomidou.mybatisplus.extension.conditions.update.LambdaUpdateChainWrapper;
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.security.LoginUserCache;
+import com.timecapsule.common.security.PasswordHashService;
+import com.timecapsule.common.utils.FileUploadUtil;
+import com.timecapsule.common.utils.JwtUtils;
+import com.timecapsule.modules.user.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+/**
+ * 更换头像时的引用释放
+ */
+class UserServiceImplTest {
+
+    private LoginUserCache loginUserCache;
+
+    private FileUploadUtil fileUploadUtil;
+
+    private UserServiceImpl userService;
+
+    private LambdaQueryChainWrapper<User> query;
+
+    private LambdaUpdateChainWrapper<User> update;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        loginUserCache = mock(LoginUserCache.class);
+        fileUploadUtil = mock(FileUploadUtil.class);
+        userService = spy(new UserServiceImpl(mock(PasswordHashService.class), mock(JwtUtils.class),
+                loginUserCache, fileUploadUtil));
+
+        query = mock(LambdaQueryChainWrapper.class, UserServiceImplTest::chained);
+        update = mock(LambdaUpdateChainWrapper.class, UserServiceImplTest::chained);
+        doReturn(query).when(userService).lambdaQuery();
+        doReturn(update).when(userService).lambdaUpdate();
+    }
+
+    @Test
+    void releasesAvatarReadFromDatabase() {
+        doReturn(user("/upload/blob/old.png")).when(query).one();
+        doReturn(true).when(update).update();
+
+        userService.changeAvatar("u1", "/upload/blob/new.png");
+
+        verify(fileUploadUtil).releaseReference("/upload/blob/old.png");
+        verify(fileUploadUtil, never()).releaseReference("/upload/blob/new.png");
+        verify(loginUserCache).evict("u1");
+    }
+
+    @Test
+    void retriesWhenAvatarChangedConcurrently() {
+        doReturn(user("/upload/blob/a.png"), user("/upload/blob/b.png")).when(query).one();
+        doReturn(false, true).when(update).update();
+
+        userService.changeAvatar("u1", "/upload/blob/new.png");
+
+        // 被并发请求替换掉的头像由那个请求释放，这里只释放最终替换的值
+        verify(fileUploadUtil, never()).releaseReference("/upload/blob/a.png");
+        verify(fileUploadUtil).releaseReference("/upload/blob/b.png");
+    }
+
+    @Test
+    void releasesNewAvatarWhenUpdateKeepsConflicting() {
+        doReturn(user("/upload/blob/old.png")).when(query).one();
+        doReturn(false).when(update).update();
+
+        assertThatThrownBy(() -> userService.changeAvatar("u1", "/upload/blob/new.png"))
+                .isInstanceOf(BusinessException.class);
+
+        verify(fileUploadUtil).releaseReference("/upload/blob/new.png");
+        verify(fileUploadUtil, never()).releaseReference("/upload/blob/old.png");
+        verify(loginUserCache, never()).evict("u1");
+    }
+
+    @Test
+    void releasesNewAvatarWhenUserMissing() {
+        doReturn(null).when(query).one();
+
+        assertThatThrownBy(() -> userService.changeAvatar("u1", "/upload/blob/new.png"))
+                .isInstanceOf(BusinessException.class);
+
+        verify(fileUploadUtil).releaseReference("/upload/blob/new.png");
+    }
+
+    /**
+     * 链式条件方法的返回类型经泛型擦除为 Object，统一返回 mock 本身
+     */
+    private static Object chained(InvocationOnMock invocation) throws Throwable {
+        Class<?> returnType = invocation.getMethod().getReturnType();
+        if (returnType.isInstance(invocation.getMock())) {
+            return invocation.getMock();
+        }
+        return RETURNS_DEFAULTS.answer(invocation);
+    }
+
+    private static User user(String avatar) {
+        User user = new User();
+        user.setId(1L);
+        user.setUserId("u1");
+        user.setAvatar(avatar);
+        return user;
+    }
+}
@@ -0,0 +1,113 @@
+package com.timecapsule.modules.user.service.impl;
+
+import com.timecapsule.common.exception.BusinessException;
+import com.timecapsule.common.ratelimit.LocalRateLimiter;
+import com.timecapsule.common.ratelimit.RateLimiter;
+import com.timecapsule.common.result.ResultCode;
+import com.timecapsule.modules.notification.service.NotificationService;
+import com.timecapsule.modules.user.store.LocalVerifyCodeStore;
+import com.timecapsule.modules.user.store.VerifyCodeAuditWriter;
+import com.timecapsule.modules.user.store.VerifyCodeStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * 验证码发送与校验
+ */
+class VerifyCodeServiceImplTest {
+
+    private static final String TARGET = "a@example.com";
+
+    private VerifyCodeStore verifyCodeStore;
+
+    private VerifyCodeAuditWriter auditWriter;
+
+    private NotificationService notificationService;
+
+    private VerifyCodeServiceImpl verifyCodeService;
+
+    @BeforeEach
+    void setUp() {
+        LocalVerifyCodeStore localStore = new LocalVerifyCodeStore();
+        setField(localStore, "expireMinutes", 5);
+        localStore.init();
+        verifyCodeStore = spy(localStore);
+        RateLimiter rateLimiter = new LocalRateLimiter();
+        auditWriter = mock(VerifyCodeAuditWriter.class);
+        notificationService = mock(NotificationService.class);
+
+        verifyCodeService = new VerifyCodeServiceImpl(rateLimiter, verifyCodeStore, auditWriter, notificationService);
+        setField(verifyCodeService, "expireMinutes", 5);
+        setField(verifyCodeService, "dailyLimit", 10);
+        setField(verifyCodeService, "ipHourlyLimit", 20);
+    }
+
+    @Test
+    void sentCodeCanBeVerifiedOnlyOnce() {
+        String code = sendAndCaptureCode();
+
+        assertThat(verifyCodeService.verifyCode(TARGET, code, "login")).isTrue();
+        assertThat(verifyCodeService.verifyCode(TARGET, code, "login")).isFalse();
+        verify(auditWriter).recordUsed(TARGET, code, "login");
+    }
+
+    @Test
+    void wrongCodeDoesNotInvalidateSentCode() {
+        String code = sendAndCaptureCode();
+
+        assertThat(verifyCodeService.verifyCode(TARGET, "x" + code, "login")).isFalse();
+        assertThat(verifyCodeService.verifyCode(TARGET, code, "login")).isTrue();
+    }
+
+    @Test
+    void resendWithinOneMinuteIsRejected() {
+        verifyCodeService.sendCode(TARGET, "email", "login", null, "127.0.0.1");
+
+        assertThatThrownBy(() -> verifyCodeService.sendCode(TARGET, "email", "login", null, "127.0.0.1"))
+                .isInstanceOf(BusinessException.class)
+                .extracting("code").isEqualTo(ResultCode.CAPTCHA_FREQUENT.getCode());
+    }
+
+    @Test
+    void rejectedNotificationDiscardsCodeAndRefundsQuota() {
+        BusinessException busy = new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "消息发送繁忙，请稍后再试");
+        doThrow(busy).when(notificationService).send(anyString(), anyString(), anyString(), anyString());
+
+        assertThatThrownBy(() -> verifyCodeService.sendCode(TARGET, "email", "login", null, "127.0.0.1"))
+                .isSameAs(busy);
+
+        ArgumentCaptor<String> saved = ArgumentCaptor.forClass(String.class);
+        verify(verifyCodeStore).save(eq("login"), eq(TARGET), saved.capture());
+        assertThat(verifyCodeService.verifyCode(TARGET, saved.getValue(), "login")).isFalse();
+        verify(auditWriter, never()).recordSent(any());
+
+        // 限流计数已退还，可以立即重试
+        doNothing().when(notificationService).send(anyString(), anyString(), anyString(), anyString());
+        verifyCodeService.sendCode(TARGET, "email", "login", null, "127.0.0.1");
+        verify(auditWriter).recordSent(any());
+    }
+
+    @Test
+    void redactedContentDoesNotContainCode() {
+        String code = sendAndCaptureCode();
+
+        ArgumentCaptor<String> redacted = ArgumentCaptor.forClass(String.class);
+        verify(notificationService).send(anyString(), anyString(), anyString(), redacted.capture());
+        assertThat(redacted.getValue()).doesNotContain(code);
+    }
+
+    private String sendAndCaptureCode() {
+        verifyCodeService.sendCode(TARGET, "email", "login", null, "127.0.0.1");
+        ArgumentCaptor<String> saved = ArgumentCaptor.forClass(String.class);
+        verify(verifyCodeStore).save(eq("login"), eq(TARGET), saved.capture());
+        return saved.getValue();
+    }
+}
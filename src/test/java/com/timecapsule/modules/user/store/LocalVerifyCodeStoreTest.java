@@ -0,0 +1,88 @@
+package com.timecapsule.modules.user.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * 验证码的比较与删除
+ */
+class LocalVerifyCodeStoreTest {
+
+    private LocalVerifyCodeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalVerifyCodeStore();
+        setField(store, "expireMinutes", 5);
+        store.init();
+    }
+
+    @Test
+    void codeCanBeConsumedOnce() {
+        store.save("login", "a@example.com", "123456");
+
+        assertThat(store.consume("login", "a@example.com", "123456")).isTrue();
+        assertThat(store.consume("login", "a@example.com", "123456")).isFalse();
+    }
+
+    @Test
+    void wrongCodeKeepsStoredCode() {
+        store.save("login", "a@example.com", "123456");
+
+        assertThat(store.consume("login", "a@example.com", "654321")).isFalse();
+        assertThat(store.consume("login", "a@example.com", "123456")).isTrue();
+    }
+
+    @Test
+    void newerCodeReplacesOlder() {
+        store.save("login", "a@example.com", "111111");
+        store.save("login", "a@example.com", "222222");
+
+        assertThat(store.consume("login", "a@example.com", "111111")).isFalse();
+        assertThat(store.consume("login", "a@example.com", "222222")).isTrue();
+    }
+
+    @Test
+    void purposesAndTargetsAreSeparate() {
+        store.save("login", "a@example.com", "123456");
+
+        assertThat(store.consume("reset", "a@example.com", "123456")).isFalse();
+        assertThat(store.consume("login", "b@example.com", "123456")).isFalse();
+        assertThat(store.consume("login", "a@example.com", "123456")).isTrue();
+    }
+
+    @Test
+    void concurrentConsumeSucceedsExactlyOnce() throws Exception {
+        store.save("login", "a@example.com", "123456");
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return store.consume("login", "a@example.com", "123456");
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(5, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}